@@ -2,8 +2,10 @@ package media.uqab.fuzzyble.dbCreator.database
 
 import media.uqab.fuzzybleJava.Fuzzyble
 import media.uqab.fuzzybleJava.SqlCursor
+import media.uqab.fuzzybleJava.SqlStatement
 import java.sql.Connection
 import java.sql.DriverManager
+import java.sql.PreparedStatement
 import java.sql.ResultSet
 
 class Database(url: String): Fuzzyble {
@@ -19,17 +21,57 @@ class Database(url: String): Fuzzyble {
     }
 
     override fun onQuery(p0: String, p1: Array<String>?): SqlCursor {
-        return QueryCursor(mConnection, prepareQuery(p0, p1))
+        if (p1 == null) return QueryCursor(mConnection, p0)
+
+        val stmt = mConnection.prepareStatement(p0)
+        stmt.bind(p1)
+        return PreparedQueryCursor(stmt, closeStatement = true)
     }
 
     override fun onExecute(p0: String, p1: Array<String>?) {
-        val stmt = mConnection.createStatement()
         if (p1 == null) {
+            val stmt = mConnection.createStatement()
             stmt.executeUpdate(p0)
+            stmt.close()
         } else {
-            stmt.executeUpdate(prepareQuery(p0, p1))
+            val stmt = mConnection.prepareStatement(p0)
+            stmt.bind(p1)
+            stmt.executeUpdate()
+            stmt.close()
         }
-        stmt.close()
+    }
+
+    override fun onPrepare(p0: String): SqlStatement {
+        val stmt = mConnection.prepareStatement(p0)
+        return object : SqlStatement {
+            override fun execute(p1: Array<String>?) {
+                stmt.bind(p1)
+                stmt.executeUpdate()
+            }
+
+            override fun query(p1: Array<String>?): SqlCursor {
+                stmt.bind(p1)
+                return PreparedQueryCursor(stmt, closeStatement = false)
+            }
+
+            override fun close() {
+                stmt.close()
+            }
+        }
+    }
+
+    override fun beginBatch() {
+        mConnection.autoCommit = false
+    }
+
+    override fun commitBatch() {
+        mConnection.commit()
+        mConnection.autoCommit = true
+    }
+
+    override fun rollbackBatch() {
+        mConnection.rollback()
+        mConnection.autoCommit = true
     }
 
     fun getTables(): List<String> {
@@ -131,13 +173,9 @@ class Database(url: String): Fuzzyble {
         return stmt.executeQuery(this)
     }
 
-    private fun prepareQuery(query: String, args: Array<String>?): String {
-        if (args == null) return query
-        var mutQuery = query
-        for (a in args) {
-            mutQuery = mutQuery.replaceFirst("\\?".toRegex(), "'$a'")
-        }
-        return mutQuery
+    private fun PreparedStatement.bind(args: Array<String>?) {
+        clearParameters()
+        args?.forEachIndexed { i, a -> setString(i + 1, a) }
     }
 
     fun close() {
@@ -0,0 +1,54 @@
+package media.uqab.fuzzyble.dbCreator.database
+
+import media.uqab.fuzzybleJava.SqlCursor
+import java.sql.PreparedStatement
+import java.sql.ResultSet
+import java.sql.SQLException
+
+/**
+ * Cursor over the result of a [PreparedStatement].
+ * @param closeStatement close the statement with the cursor, for one-off queries
+ */
+class PreparedQueryCursor(
+    private val mStatement: PreparedStatement,
+    private val closeStatement: Boolean
+) : SqlCursor {
+    private val rows = mutableListOf<Array<String?>>()
+    private var position = -1
+
+    init {
+        // read all, so the statement can be rebound while the rows are used
+        try {
+            val rs: ResultSet = mStatement.executeQuery()
+            val columns = rs.metaData.columnCount
+            while (rs.next()) {
+                rows.add(Array(columns) { rs.getString(it + 1) })
+            }
+            rs.close()
+        } catch (e: SQLException) {
+            println(e.message)
+        }
+    }
+
+    override fun getString(columnIndex: Int): String? {
+        return rows.getOrNull(position)?.getOrNull(columnIndex)
+    }
+
+    override fun moveToNext(): Boolean {
+        if (position >= rows.size) return false
+        position++
+        return position < rows.size
+    }
+
+    override fun count(): Int {
+        return rows.size
+    }
+
+    override fun close() {
+        try {
+            if (closeStatement) mStatement.close()
+        } catch (e: SQLException) {
+            println(e.message)
+        }
+    }
+}
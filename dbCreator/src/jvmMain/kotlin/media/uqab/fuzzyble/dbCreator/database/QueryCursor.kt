@@ -42,11 +42,10 @@ class QueryCursor(private val mConnection: Connection, private val mQuery: Strin
     public override fun count(): Int {
         var count = 0
         try {
+            // let sqlite count instead of walking the rows here
             val st = mConnection.createStatement()
-            val rs = st.executeQuery(mQuery)
-            while (rs.next()) {
-                count++
-            }
+            val rs = st.executeQuery("SELECT COUNT(*) FROM ($mQuery)")
+            if (rs.next()) count = rs.getInt(1)
             rs.close()
             st.close()
             println("count:$count q:$mQuery")
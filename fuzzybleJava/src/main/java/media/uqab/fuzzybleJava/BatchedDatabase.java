@@ -0,0 +1,114 @@
+package media.uqab.fuzzybleJava;
+
+import java.io.IOException;
+
+/**
+ * {@linkplain Fuzzyble} which commits the wrapped database's batch every
+ * {@code batchSize} statements and starts a new one.
+ *
+ * <p>
+ * Lets strategies write thousands of rows per transaction without knowing
+ * about transactions, while keeping each transaction bounded.
+ *
+ * <p>
+ * Work which commits at its own checkpoints uses an atomic batch instead,
+ * which is only committed at those, so a step is never left half written.
+ */
+class BatchedDatabase implements Fuzzyble {
+    static final int DEFAULT_BATCH_SIZE = 5000;
+
+    private final Fuzzyble database;
+    private final int batchSize;
+    private int statements = 0;
+    private boolean inBatch = false;
+    private boolean atomic = false;
+
+    BatchedDatabase(Fuzzyble database, int batchSize) {
+        this.database = database;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public SqlCursor onQuery(String query) {
+        return database.onQuery(query);
+    }
+
+    @Override
+    public SqlCursor onQuery(String query, String[] args) {
+        return database.onQuery(query, args);
+    }
+
+    @Override
+    public void onExecute(String sql, String[] args) {
+        database.onExecute(sql, args);
+        executed();
+    }
+
+    @Override
+    public SqlStatement onPrepare(String sql) {
+        final SqlStatement statement = database.onPrepare(sql);
+        return new SqlStatement() {
+            @Override
+            public void execute(String[] args) {
+                statement.execute(args);
+                executed();
+            }
+
+            @Override
+            public SqlCursor query(String[] args) {
+                return statement.query(args);
+            }
+
+            @Override
+            public void close() throws IOException {
+                statement.close();
+            }
+        };
+    }
+
+    @Override
+    public void beginBatch() {
+        database.beginBatch();
+        inBatch = true;
+        atomic = false;
+        statements = 0;
+    }
+
+    /**
+     * Start a batch which is committed only by {@linkplain BatchedDatabase#checkpoint}
+     * or {@linkplain BatchedDatabase#commitBatch}, however many statements it has
+     */
+    void beginAtomicBatch() {
+        beginBatch();
+        atomic = true;
+    }
+
+    /**
+     * Commit what is written so far and continue in a new batch of the same kind
+     */
+    void checkpoint() {
+        database.commitBatch();
+        database.beginBatch();
+        statements = 0;
+    }
+
+    @Override
+    public void commitBatch() {
+        inBatch = false;
+        database.commitBatch();
+    }
+
+    @Override
+    public void rollbackBatch() {
+        inBatch = false;
+        database.rollbackBatch();
+    }
+
+    private void executed() {
+        if (inBatch && !atomic && ++statements >= batchSize) {
+            database.commitBatch();
+            database.beginBatch();
+            statements = 0;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package media.uqab.fuzzybleJava;
+
+import java.util.Arrays;
+
+/**
+ * Levenshtein Distance computed with bit-vector arithmetic.
+ *
+ * <p>
+ * Implements Myers' bit-parallel algorithm with Hyyro's block extension:
+ * a pattern of up to 64 chars is processed as a single {@code long} per
+ * text char, longer patterns as a row of 64-bit blocks.
+ *
+ * <p>
+ * The first word of {@link #isSimilar} and {@link #similarityIndex} is used as the
+ * pattern. Its character masks are prepared once and reused as long as the same
+ * word is passed again, which is the case while one searched word is compared
+ * against all of its candidates. Masks are kept per thread.
+ *
+ * <p>
+ * <a href="https://doi.org/10.1145/316542.316550">See here</a>
+ */
+public class BitParallelLevenshtein implements Similarity {
+    private final int thresholdDistance;
+
+    private static final ThreadLocal<Pattern> patterns = new ThreadLocal<Pattern>() {
+        @Override
+        protected Pattern initialValue() {
+            return new Pattern();
+        }
+    };
+
+    public BitParallelLevenshtein() {
+        this(2);
+    }
+
+    public BitParallelLevenshtein(int thresholdDistance) {
+        this.thresholdDistance = thresholdDistance;
+    }
+
+    @Override
+    public int getThresholdDistance() {
+        return thresholdDistance;
+    }
+
+    @Override
+    public boolean isSimilar(String w1, String w2) {
+        return distance(w1, w2, thresholdDistance) <= thresholdDistance;
+    }
+
+    @Override
+    public int similarityIndex(String w1, String w2) {
+        return -1 * distance(w1, w2, Math.max(w1.length(), w2.length()));
+    }
+
+    @Override
+    public int score(String w1, String w2) {
+        int distance = distance(w1, w2, thresholdDistance);
+        if (distance > thresholdDistance) return NOT_SIMILAR;
+        return -1 * distance;
+    }
+
+    /**
+     * Compute the edit distance between a pattern and a text.
+     * @param pattern word whose masks are cached
+     * @param text word to compare with
+     * @param max largest distance of interest
+     * @return the distance, or {@code max + 1} if it is larger than {@code max}.
+     */
+    static int distance(final String pattern, final String text, final int max) {
+        if (max < 0) return 0;
+
+        final int m = pattern.length();
+        final int n = text.length();
+        if (Math.abs(m - n) > max) return max + 1;
+        if (m == 0) return n;
+        if (n == 0) return m;
+
+        Pattern p = patterns.get();
+        p.prepare(pattern);
+
+        return p.blocks == 1 ? p.single(text, max) : p.blocked(text, max);
+    }
+
+    /**
+     * Character masks of a pattern and the working vectors of the blocks.
+     */
+    private static class Pattern {
+        private static final long HIGH = 1L << 63;
+
+        private String text;
+        private int length;
+        private int blocks;
+        private long lastBit;
+
+        // slot + 1 of latin-1 chars, 0 if absent
+        private final int[] latin = new int[256];
+        // open addressing table of the other chars
+        private char[] keys = new char[16];
+        private int[] keySlots = new int[16];
+        // blocks masks per slot; slot 0 matches nothing
+        private long[] peq = new long[64];
+
+        private long[] pv = new long[2];
+        private long[] mv = new long[2];
+
+        void prepare(String pattern) {
+            if (pattern == text || pattern.equals(text)) return;
+
+            if (text != null) clear();
+
+            text = pattern;
+            length = pattern.length();
+            blocks = (length + 63) >>> 6;
+            lastBit = 1L << ((length - 1) & 63);
+
+            int capacity = Integer.highestOneBit(Math.max(8, length) * 2);
+            if (keys.length < capacity) {
+                keys = new char[capacity];
+                keySlots = new int[capacity];
+            }
+            if (peq.length < (length + 1) * blocks) peq = new long[(length + 1) * blocks];
+            if (pv.length < blocks) {
+                pv = new long[blocks];
+                mv = new long[blocks];
+            }
+
+            int slots = 0;
+            for (int i = 0; i < length; i++) {
+                char c = pattern.charAt(i);
+                int slot = slot(c);
+                if (slot == 0) {
+                    slot = ++slots;
+                    Arrays.fill(peq, slot * blocks, (slot + 1) * blocks, 0L);
+                    put(c, slot);
+                }
+                peq[slot * blocks + (i >>> 6)] |= 1L << (i & 63);
+            }
+            Arrays.fill(peq, 0, blocks, 0L);
+        }
+
+        private void clear() {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < 256) latin[c] = 0;
+            }
+            Arrays.fill(keySlots, 0);
+        }
+
+        private int slot(char c) {
+            if (c < 256) return latin[c];
+
+            int mask = keys.length - 1;
+            int i = (c * 0x9E37) & mask;
+            while (keySlots[i] != 0) {
+                if (keys[i] == c) return keySlots[i];
+                i = (i + 1) & mask;
+            }
+            return 0;
+        }
+
+        private void put(char c, int slot) {
+            if (c < 256) {
+                latin[c] = slot;
+                return;
+            }
+
+            int mask = keys.length - 1;
+            int i = (c * 0x9E37) & mask;
+            while (keySlots[i] != 0) i = (i + 1) & mask;
+            keys[i] = c;
+            keySlots[i] = slot;
+        }
+
+        int single(String t, int max) {
+            final int n = t.length();
+            long p = -1L;
+            long m = 0L;
+            int score = length;
+
+            for (int j = 0; j < n; j++) {
+                long eq = peq[slot(t.charAt(j))];
+                long xv = eq | m;
+                long xh = (((eq & p) + p) ^ p) | eq;
+                long ph = m | ~(xh | p);
+                long mh = p & xh;
+
+                if ((ph & lastBit) != 0) score++;
+                else if ((mh & lastBit) != 0) score--;
+
+                ph = (ph << 1) | 1L;
+                mh = mh << 1;
+                p = mh | ~(xv | ph);
+                m = ph & xv;
+
+                // every remaining char can lower the score by one at most
+                if (score - (n - j - 1) > max) return max + 1;
+            }
+
+            return score;
+        }
+
+        int blocked(String t, int max) {
+            final int n = t.length();
+            final int last = blocks - 1;
+            Arrays.fill(pv, 0, blocks, -1L);
+            Arrays.fill(mv, 0, blocks, 0L);
+            int score = length;
+
+            for (int j = 0; j < n; j++) {
+                int base = slot(t.charAt(j)) * blocks;
+
+                // top boundary row grows by one per column
+                int hin = 1;
+                for (int b = 0; b < blocks; b++) {
+                    long p = pv[b];
+                    long m = mv[b];
+                    long hinNeg = hin < 0 ? 1L : 0L;
+                    long hinPos = hin > 0 ? 1L : 0L;
+
+                    long eq = peq[base + b];
+                    long xv = eq | m;
+                    eq |= hinNeg;
+                    long xh = (((eq & p) + p) ^ p) | eq;
+                    long ph = m | ~(xh | p);
+                    long mh = p & xh;
+
+                    long bit = b == last ? lastBit : HIGH;
+                    if ((ph & bit) != 0) hin = 1;
+                    else if ((mh & bit) != 0) hin = -1;
+                    else hin = 0;
+
+                    ph = (ph << 1) | hinPos;
+                    mh = (mh << 1) | hinNeg;
+                    pv[b] = mh | ~(xv | ph);
+                    mv[b] = ph & xv;
+                }
+                score += hin;
+
+                if (score - (n - j - 1) > max) return max + 1;
+            }
+
+            return score;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package media.uqab.fuzzybleJava;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Burkhard-Keller tree strategy.
+ *
+ * <p>
+ * Words are arranged in a metric tree where each child is stored under its
+ * distance to the parent. A search within distance {@code k} only descends
+ * into the children whose distance is within {@code k} of the searched word's
+ * distance to their parent, so most of the vocabulary is never compared.
+ *
+ * <p>
+ * The nodes are persisted as {@code (id, word, parent, dist, cnt)} rows and the
+ * tree is loaded in memory the first time a column is used. Nodes of words
+ * no text contains anymore keep their place in the tree, since their children
+ * hang off them, and are only skipped until the word is inserted again. The distance is
+ * the negated {@linkplain Similarity#similarityIndex}, so the {@linkplain Similarity}
+ * must be a metric, like the Levenshtein ones.
+ *
+ * <p>
+ * <a href="https://en.wikipedia.org/wiki/BK-tree">See here</a>
+ */
+public class BkTree implements Strategy {
+    private final Similarity similarity;
+    private final StatementCache statements = new StatementCache();
+    private final Map<String, Tree> trees = new HashMap<>();
+
+    public BkTree() {
+        this.similarity = new BoundedLevenshtein();
+    }
+
+    public BkTree(Similarity similarity) {
+        this.similarity = similarity;
+    }
+
+    @Override
+    public String getStrategyName() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    public boolean create(Fuzzyble database, FuzzyColumn column) {
+        String table = getAssociatedTables(column)[0];
+        String sql = "CREATE TABLE IF NOT EXISTS " + table + "(" +
+                "id INTEGER PRIMARY KEY, " +
+                "word VARCHAR(255) NOT NULL UNIQUE, " +
+                "parent INTEGER, " +
+                "dist INTEGER, " +
+                "cnt INTEGER NOT NULL DEFAULT 1" +
+                ")";
+        database.onExecute(sql, null);
+
+        // tables created before words were counted
+        Schema.addColumnIfMissing(database, table, "cnt", "INTEGER NOT NULL DEFAULT 1", null);
+
+        // table may have been recreated, drop what was loaded
+        statements.clear();
+        synchronized (trees) {
+            trees.remove(table);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean insert(Fuzzyble database, FuzzyColumn column, String text) {
+        String table = getAssociatedTables(column)[0];
+        Tree tree = tree(database, column);
+
+        String insertSql = "INSERT OR IGNORE INTO " + table + "(word, parent, dist) VALUES (?, CAST(? AS INTEGER), CAST(? AS INTEGER))";
+        String idQuery = "SELECT id FROM " + table + " WHERE word = ?";
+        String countSql = "UPDATE " + table + " SET cnt = cnt + 1 WHERE id = CAST(? AS INTEGER)";
+
+        boolean allInserted = true;
+        for (String word : TextHelper.splitAndFilterText(text)) {
+            if (Thread.currentThread().isInterrupted()) return false;
+
+            synchronized (tree) {
+                int[] position = tree.position(word);
+
+                try {
+                    // already in the tree, count it
+                    if (position[1] == 0 && position[0] >= 0) {
+                        statements.get(database, countSql).execute(new String[]{String.valueOf(tree.ids[position[0]])});
+                        tree.live[position[0]] = true;
+                        continue;
+                    }
+
+                    String parent = position[0] < 0 ? null : String.valueOf(tree.ids[position[0]]);
+                    statements.get(database, insertSql).execute(new String[]{word, parent, String.valueOf(position[1])});
+
+                    String id = null;
+                    SqlCursor cursor = statements.get(database, idQuery).query(new String[]{word});
+                    if (cursor != null) {
+                        if (cursor.moveToNext()) id = cursor.getString(0);
+                        cursor.close();
+                    }
+
+                    if (id == null) {
+                        allInserted = false;
+                        continue;
+                    }
+                    tree.add(Integer.parseInt(id), word, position[0], position[1]);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    allInserted = false;
+                }
+            }
+        }
+
+        return allInserted;
+    }
+
+    @Override
+    public boolean remove(Fuzzyble database, FuzzyColumn column, String text) {
+        String table = getAssociatedTables(column)[0];
+        Tree tree = tree(database, column);
+
+        String uncountSql = "UPDATE " + table + " SET cnt = cnt - 1 WHERE id = CAST(? AS INTEGER) AND cnt > 0";
+        String countQuery = "SELECT cnt FROM " + table + " WHERE id = CAST(? AS INTEGER)";
+
+        boolean allRemoved = true;
+        Set<Integer> nodes = new HashSet<>();
+        for (String word : TextHelper.splitAndFilterText(text)) {
+            if (Thread.currentThread().isInterrupted()) return false;
+
+            synchronized (tree) {
+                int[] position = tree.position(word);
+                if (position[1] != 0 || position[0] < 0) continue; // not in the tree
+
+                try {
+                    statements.get(database, uncountSql).execute(new String[]{String.valueOf(tree.ids[position[0]])});
+                    nodes.add(position[0]);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    allRemoved = false;
+                }
+            }
+        }
+
+        // words no text contains anymore stay in the tree, skipped
+        for (int node : nodes) {
+            synchronized (tree) {
+                try {
+                    SqlCursor cursor = statements.get(database, countQuery).query(new String[]{String.valueOf(tree.ids[node])});
+                    if (cursor == null) continue;
+
+                    if (cursor.moveToNext()) tree.live[node] = Integer.parseInt(cursor.getString(0)) > 0;
+                    cursor.close();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    allRemoved = false;
+                }
+            }
+        }
+
+        return allRemoved;
+    }
+
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, ProgressListener listener) throws IOException {
+        return populate(source, sync, column, null, listener);
+    }
+
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, Checkpoint checkpoint, ProgressListener listener) throws IOException {
+        // insert splits the texts itself, so no workers
+        Populator<String> populator = new Populator<>(text -> text, text -> {
+            if (text != null) insert(sync, column, text);
+        }, 1);
+        return populator.populate(source, column, checkpoint, listener);
+    }
+
+    @Override
+    public String[] getAssociatedTables(FuzzyColumn column) {
+        String table = "fuzzyble_" + getStrategyName().toLowerCase() + column;
+        return new String[]{ table };
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word) {
+        return getSuggestions(database, column, word, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word, int limit) {
+        // return exact matched if found
+        List<String> exact = performExactSearch(database, column, word);
+        if (!exact.isEmpty()) return FuzzyUtils.limit(exact, limit);
+
+        // return partial match if found
+        List<String> partial = performPartialSearch(database, column, word);
+        if (!partial.isEmpty()) return FuzzyUtils.limit(partial, limit);
+
+        // now try fuzzy
+        return performFuzzySearch(database, column, word, limit);
+    }
+
+    private List<String> performExactSearch(Fuzzyble database, FuzzyColumn column, String word) {
+        ArrayList<String> exact = new ArrayList<>();
+
+        try {
+            String query = "SELECT word FROM " + getAssociatedTables(column)[0] + " WHERE word = ? AND cnt > 0";
+            SqlCursor exactQuery = statements.get(database, query).query(new String[]{word});
+            while (exactQuery.moveToNext()) {
+                String s = exactQuery.getString(0);
+                exact.add(s);
+            }
+            exactQuery.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return exact;
+    }
+
+    private List<String> performPartialSearch(Fuzzyble database, FuzzyColumn column, String word) {
+        ArrayList<String> partial = new ArrayList<>();
+
+        try {
+            // only the counted words, sqlite flattens the subquery so the word index is still used
+            String words = "(SELECT word FROM " + getAssociatedTables(column)[0] + " WHERE cnt > 0)";
+            List<String> args = new ArrayList<>();
+            String query = FuzzyUtils.prefixMatchQuery(words, word, args);
+            SqlCursor partialQuery = database.onQuery(query, args.toArray(new String[0]));
+            while (partialQuery.moveToNext()) {
+                String s = partialQuery.getString(0);
+                partial.add(s);
+            }
+
+            partialQuery.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return partial;
+    }
+
+    private List<String> performFuzzySearch(Fuzzyble database, FuzzyColumn column, String word, int limit) {
+        Tree tree = tree(database, column);
+
+        // without a threshold nothing can be pruned
+        int threshold = similarity.getThresholdDistance();
+        if (threshold < 0) threshold = 2;
+
+        List<String> candidates;
+        synchronized (tree) {
+            candidates = tree.search(word, threshold);
+        }
+
+        return FuzzyUtils.filterFuzzyMatched(word, candidates, similarity, limit);
+    }
+
+    /**
+     * Get the loaded tree of a column, load it if needed
+     */
+    private Tree tree(Fuzzyble database, FuzzyColumn column) {
+        String table = getAssociatedTables(column)[0];
+
+        synchronized (trees) {
+            Tree tree = trees.get(table);
+            if (tree == null) {
+                tree = new Tree();
+                tree.load(database, table);
+                trees.put(table, tree);
+            }
+
+            return tree;
+        }
+    }
+
+    /**
+     * Nodes of a loaded tree, children are linked lists of siblings.
+     */
+    private class Tree {
+        private String[] words = new String[16];
+        private int[] ids = new int[16];
+        private int[] dist = new int[16];
+        private int[] firstChild = new int[16];
+        private int[] nextSibling = new int[16];
+        private boolean[] live = new boolean[16];
+        private int size = 0;
+
+        void load(Fuzzyble database, String table) {
+            // parents are always inserted before their children
+            Map<Integer, Integer> nodes = new HashMap<>();
+
+            try {
+                SqlCursor cursor = database.onQuery("SELECT id, word, parent, dist, cnt FROM " + table + " ORDER BY id");
+                if (cursor == null) return;
+
+                while (cursor.moveToNext()) {
+                    int id = Integer.parseInt(cursor.getString(0));
+                    String parent = cursor.getString(2);
+                    Integer parentNode = parent == null ? null : nodes.get(Integer.parseInt(parent));
+                    String d = cursor.getString(3);
+
+                    nodes.put(id, size);
+                    add(id, cursor.getString(1), parentNode == null ? -1 : parentNode, d == null ? 0 : Integer.parseInt(d));
+                    live[size - 1] = Integer.parseInt(cursor.getString(4)) > 0;
+                }
+                cursor.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+
+        /**
+         * Find where a word belongs
+         * @return parent node, -1 for the root, and distance to it, or the node and 0 if the word exists
+         */
+        int[] position(String word) {
+            if (size == 0) return new int[]{-1, 0};
+
+            int node = 0;
+            while (true) {
+                int d = distance(word, words[node]);
+                if (d == 0) return new int[]{node, 0};
+
+                int child = child(node, d);
+                if (child < 0) return new int[]{node, d};
+                node = child;
+            }
+        }
+
+        void add(int id, String word, int parent, int d) {
+            if (size == words.length) {
+                int capacity = size * 2;
+                words = Arrays.copyOf(words, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                dist = Arrays.copyOf(dist, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                live = Arrays.copyOf(live, capacity);
+            }
+
+            int node = size++;
+            words[node] = word;
+            ids[node] = id;
+            dist[node] = d;
+            firstChild[node] = -1;
+            nextSibling[node] = -1;
+            live[node] = true;
+
+            if (parent >= 0) {
+                nextSibling[node] = firstChild[parent];
+                firstChild[parent] = node;
+            }
+        }
+
+        /**
+         * Words within distance {@code k} of the searched word
+         */
+        List<String> search(String word, int k) {
+            List<String> matched = new ArrayList<>();
+            if (size == 0) return matched;
+
+            int[] stack = new int[16];
+            int top = 0;
+            stack[top++] = 0;
+
+            while (top > 0) {
+                int node = stack[--top];
+                int d = distance(word, words[node]);
+                if (d <= k && live[node]) matched.add(words[node]);
+
+                // triangle inequality, only these children can hold matches
+                for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                    if (Math.abs(dist[child] - d) > k) continue;
+
+                    if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                    stack[top++] = child;
+                }
+            }
+
+            return matched;
+        }
+
+        private int child(int node, int d) {
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                if (dist[child] == d) return child;
+            }
+            return -1;
+        }
+
+        private int distance(String w1, String w2) {
+            return -1 * similarity.similarityIndex(w1, w2);
+        }
+    }
+}
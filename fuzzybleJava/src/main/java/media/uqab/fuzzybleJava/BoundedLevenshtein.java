@@ -0,0 +1,147 @@
+package media.uqab.fuzzybleJava;
+
+/**
+ * Iterative Levenshtein Distance bounded by a threshold.
+ *
+ * <p>
+ * Only the diagonal band of width {@code 2 * thresholdDistance + 1} of the
+ * dynamic programming matrix is evaluated, and the computation stops as soon
+ * as every cell of a row exceeds the threshold. The two DP rows are kept per
+ * thread and reused, so a comparison does not allocate.
+ *
+ * <p>
+ * <a href="https://en.wikipedia.org/wiki/Levenshtein_distance">See here</a>
+ */
+public class BoundedLevenshtein implements Similarity {
+    private final int thresholdDistance;
+
+    private static final ThreadLocal<Rows> rows = new ThreadLocal<Rows>() {
+        @Override
+        protected Rows initialValue() {
+            return new Rows();
+        }
+    };
+
+    public BoundedLevenshtein() {
+        this(2);
+    }
+
+    public BoundedLevenshtein(int thresholdDistance) {
+        this.thresholdDistance = thresholdDistance;
+    }
+
+    @Override
+    public int getThresholdDistance() {
+        return thresholdDistance;
+    }
+
+    @Override
+    public boolean isSimilar(String w1, String w2) {
+        return distance(w1, w2, thresholdDistance) <= thresholdDistance;
+    }
+
+    @Override
+    public int similarityIndex(String w1, String w2) {
+        return -1 * distance(w1, w2, Math.max(w1.length(), w2.length()));
+    }
+
+    @Override
+    public int score(String w1, String w2) {
+        int distance = distance(w1, w2, thresholdDistance);
+        if (distance > thresholdDistance) return NOT_SIMILAR;
+        return -1 * distance;
+    }
+
+    /**
+     * Compute the edit distance between two words.
+     * @param w1 First word
+     * @param w2 Second word
+     * @param max largest distance of interest
+     * @return the distance, or {@code max + 1} if it is larger than {@code max}.
+     */
+    static int distance(final String w1, final String w2, final int max) {
+        if (max < 0) return 0;
+
+        // make s the shorter one
+        String s = w1, t = w2;
+        if (s.length() > t.length()) {
+            s = w2;
+            t = w1;
+        }
+
+        int n = s.length();
+        int m = t.length();
+        if (m - n > max) return max + 1;
+
+        // skip common prefix and suffix
+        int start = 0;
+        while (start < n && s.charAt(start) == t.charAt(start)) start++;
+        while (n > start && s.charAt(n - 1) == t.charAt(m - 1)) {
+            n--;
+            m--;
+        }
+        n -= start;
+        m -= start;
+
+        if (n == 0) return Math.min(m, max + 1);
+
+        final int big = max + 1;
+        Rows r = rows.get();
+        int[] prev = r.prev(m + 1);
+        int[] curr = r.curr(m + 1);
+
+        int edge = Math.min(m, max);
+        for (int j = 0; j <= edge; j++) prev[j] = j;
+        if (edge < m) prev[edge + 1] = big;
+
+        for (int i = 1; i <= n; i++) {
+            int lo = Math.max(1, i - max);
+            int hi = Math.min(m, i + max);
+            char c = s.charAt(start + i - 1);
+
+            curr[lo - 1] = lo == 1 ? Math.min(i, big) : big;
+            int rowMin = curr[lo - 1];
+
+            for (int j = lo; j <= hi; j++) {
+                int v = prev[j - 1];
+                if (c != t.charAt(start + j - 1)) v++;
+                int del = prev[j] + 1;
+                int ins = curr[j - 1] + 1;
+                if (del < v) v = del;
+                if (ins < v) v = ins;
+                if (v > big) v = big;
+
+                curr[j] = v;
+                if (v < rowMin) rowMin = v;
+            }
+            if (hi < m) curr[hi + 1] = big;
+
+            // no cell within the threshold, the distance can only grow from here
+            if (rowMin > max) return big;
+
+            int[] tmp = prev;
+            prev = curr;
+            curr = tmp;
+        }
+
+        return prev[m];
+    }
+
+    /**
+     * Reusable DP rows of a thread.
+     */
+    private static class Rows {
+        private int[] prev = new int[32];
+        private int[] curr = new int[32];
+
+        int[] prev(int size) {
+            if (prev.length < size) prev = new int[Math.max(size, prev.length * 2)];
+            return prev;
+        }
+
+        int[] curr(int size) {
+            if (curr.length < size) curr = new int[Math.max(size, curr.length * 2)];
+            return curr;
+        }
+    }
+}
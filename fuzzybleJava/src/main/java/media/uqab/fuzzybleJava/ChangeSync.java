@@ -0,0 +1,351 @@
+package media.uqab.fuzzybleJava;
+
+import java.io.IOException;
+
+/**
+ * Writes the changed rows of a source table into the fuzzy tables of a
+ * populated column, so keeping it up to date costs as much as the changes.
+ *
+ * <p>
+ * Changes are found either by an updated-at column of the source table, or
+ * by triggers installed on the source table which log every change into a
+ * queue table. The queue is drained in chunks, each chunk is committed
+ * together with its deletion from the queue. Updated and deleted rows remove their
+ * old text, so the words no row contains anymore leave the fuzzy tables.
+ *
+ * <p>
+ * An updated-at column only tells which rows changed, not what their old text
+ * was. Their new text is inserted, so its words are counted once more and
+ * the words of the old one are never removed.
+ */
+class ChangeSync {
+    private final Fuzzyble sourceDatabase;
+    private final Fuzzyble syncDatabase;
+    private final BatchedDatabase batchedDatabase;
+    private final Strategy strategy;
+
+    ChangeSync(Fuzzyble sourceDatabase, Fuzzyble syncDatabase, BatchedDatabase batchedDatabase, Strategy strategy) {
+        this.sourceDatabase = sourceDatabase;
+        this.syncDatabase = syncDatabase;
+        this.batchedDatabase = batchedDatabase;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Name of the table logging the changes of a column
+     * @param column {@linkplain FuzzyColumn} to log
+     * @return table name in the source database
+     */
+    static String queueTable(FuzzyColumn column) {
+        return "fuzzyble_queue" + column;
+    }
+
+    /**
+     * Create the queue table and the triggers filling it in the source database
+     * @param column {@linkplain FuzzyColumn} to track
+     */
+    void installTriggers(FuzzyColumn column) {
+        String queue = queueTable(column);
+
+        String createQueue = "CREATE TABLE IF NOT EXISTS " + queue + "(" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "row_id INTEGER, " +
+                "old_text TEXT, " +
+                "new_text TEXT" +
+                ")";
+        String createInsertTrigger = "CREATE TRIGGER IF NOT EXISTS " + queue + "_ai AFTER INSERT ON " + column.table + " BEGIN " +
+                "INSERT INTO " + queue + "(row_id, new_text) VALUES (new.rowid, new." + column.column + "); " +
+                "END";
+        String createUpdateTrigger = "CREATE TRIGGER IF NOT EXISTS " + queue + "_au AFTER UPDATE OF " + column.column + " ON " + column.table + " BEGIN " +
+                "INSERT INTO " + queue + "(row_id, old_text, new_text) VALUES (new.rowid, old." + column.column + ", new." + column.column + "); " +
+                "END";
+        String createDeleteTrigger = "CREATE TRIGGER IF NOT EXISTS " + queue + "_ad AFTER DELETE ON " + column.table + " BEGIN " +
+                "INSERT INTO " + queue + "(row_id, old_text) VALUES (old.rowid, old." + column.column + "); " +
+                "END";
+        sourceDatabase.onExecute(createQueue, null);
+        sourceDatabase.onExecute(createInsertTrigger, null);
+        sourceDatabase.onExecute(createUpdateTrigger, null);
+        sourceDatabase.onExecute(createDeleteTrigger, null);
+    }
+
+    /**
+     * Drop the triggers and the queue table of a column
+     * @param column {@linkplain FuzzyColumn} to stop tracking
+     */
+    void removeTriggers(FuzzyColumn column) {
+        String queue = queueTable(column);
+        sourceDatabase.onExecute("DROP TRIGGER IF EXISTS " + queue + "_ai", null);
+        sourceDatabase.onExecute("DROP TRIGGER IF EXISTS " + queue + "_au", null);
+        sourceDatabase.onExecute("DROP TRIGGER IF EXISTS " + queue + "_ad", null);
+        sourceDatabase.onExecute("DROP TABLE IF EXISTS " + queue, null);
+    }
+
+    /**
+     * @param column {@linkplain FuzzyColumn} to check for
+     * @return true if the triggers of the column are installed
+     * @throws IOException if error occur
+     */
+    boolean hasQueue(FuzzyColumn column) throws IOException {
+        String query = "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?";
+        SqlCursor cursor = sourceDatabase.onQuery(query, new String[]{queueTable(column)});
+        if (cursor == null) return false;
+
+        boolean exists = cursor.moveToNext();
+        cursor.close();
+        return exists;
+    }
+
+    /**
+     * @param column {@linkplain FuzzyColumn} to check for
+     * @return id of the last queued change, 0 if none or without a queue
+     * @throws IOException if error occur
+     */
+    long lastQueuedId(FuzzyColumn column) throws IOException {
+        if (!hasQueue(column)) return 0;
+
+        SqlCursor cursor = sourceDatabase.onQuery("SELECT MAX(id) FROM " + queueTable(column));
+        if (cursor == null) return 0;
+
+        String id = cursor.moveToNext() ? cursor.getString(0) : null;
+        cursor.close();
+        return id == null ? 0 : Long.parseLong(id);
+    }
+
+    /**
+     * Delete the changes queued before a populate read the rows, since the rows
+     * are written with their text at that time. Changes queued later are kept.
+     * @param column {@linkplain FuzzyColumn} populated
+     * @param fromRowId rows after this rowid were read
+     * @param toRowId rows up to this rowid were read
+     * @param lastQueuedId id of the last change queued when the rows were read
+     */
+    void discardQueued(FuzzyColumn column, long fromRowId, long toRowId, long lastQueuedId) {
+        String sql = "DELETE FROM " + queueTable(column) + " WHERE row_id > CAST(? AS INTEGER) " +
+                "AND row_id <= CAST(? AS INTEGER) AND id <= CAST(? AS INTEGER)";
+        sourceDatabase.onExecute(sql, new String[]{
+                String.valueOf(fromRowId),
+                String.valueOf(toRowId),
+                String.valueOf(lastQueuedId)
+        });
+    }
+
+    /**
+     * Write the changes queued by the triggers, and delete them from the queue
+     * @param column {@linkplain FuzzyColumn} to sync
+     * @param populatedRowId last populated rowid, the rows after it are read by the next populate
+     * @param listener {@linkplain ProgressListener} to return the progress
+     * @return false if the queue can't be read or the thread was interrupted
+     * @throws IOException if error occur
+     */
+    boolean drainQueue(FuzzyColumn column, long populatedRowId, ProgressListener listener) throws IOException {
+        String queue = queueTable(column);
+        String chunkQuery = "SELECT id, row_id, old_text, new_text FROM " + queue +
+                " WHERE id > CAST(? AS INTEGER) ORDER BY id LIMIT " + Populator.ROWS_PER_CHUNK;
+        String deleteSql = "DELETE FROM " + queue + " WHERE id <= CAST(? AS INTEGER)";
+
+        ThrottledProgress progress = new ThrottledProgress(listener, count("SELECT COUNT(*) FROM " + queue, null), 0);
+        String lastId = "0";
+
+        while (true) {
+            SqlCursor chunk = sourceDatabase.onQuery(chunkQuery, new String[]{lastId});
+            if (chunk == null) return false;
+
+            int rows = 0;
+            boolean interrupted = false;
+            try {
+                while (chunk.moveToNext()) {
+                    // stop between changes, so the written ones leave the queue
+                    if (Thread.currentThread().isInterrupted()) {
+                        interrupted = true;
+                        break;
+                    }
+
+                    lastId = chunk.getString(0);
+                    String rowId = chunk.getString(1);
+                    String oldText = column.normalize(chunk.getString(2));
+                    String newText = column.normalize(chunk.getString(3));
+
+                    // inserted rows have no old text, deleted rows no new text.
+                    // changes queued before their row was populated are discarded already
+                    if (rowId != null && Long.parseLong(rowId) <= populatedRowId) {
+                        if (oldText != null) strategy.remove(batchedDatabase, column, oldText);
+                        if (newText != null) strategy.insert(batchedDatabase, column, newText);
+                    }
+
+                    progress.advance();
+                    rows++;
+                }
+            } finally {
+                chunk.close();
+            }
+
+            if (interrupted && rows == 0) return false;
+            if (rows == 0) {
+                progress.finish();
+                return true;
+            }
+
+            // the chunk is written, it leaves the queue, in the same transaction if the databases are one
+            sourceDatabase.onExecute(deleteSql, new String[]{lastId});
+            batchedDatabase.checkpoint();
+
+            if (interrupted) return false;
+            if (rows < Populator.ROWS_PER_CHUNK) {
+                progress.finish();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Write the rows whose updated-at column is after the last synced one
+     * @param column {@linkplain FuzzyColumn} to sync
+     * @param updatedAt updated-at column of the source table
+     * @param listener {@linkplain ProgressListener} to return the progress
+     * @return false if the table can't be read or the thread was interrupted
+     * @throws IOException if error occur
+     */
+    boolean syncUpdated(FuzzyColumn column, String updatedAt, ProgressListener listener) throws IOException {
+        String[] state = loadSyncState(column);
+        String lastValue = state[0];
+        String lastRowId = state[1];
+
+        // rows after the last synced (updated-at, rowid)
+        String select = "SELECT rowid, " + updatedAt + ", " + column.column + " FROM " + column.table;
+        String after = " WHERE " + updatedAt + " >= ? AND (" + updatedAt + " > ? OR rowid > CAST(? AS INTEGER))";
+        String order = " ORDER BY " + updatedAt + ", rowid LIMIT " + Populator.ROWS_PER_CHUNK;
+
+        // no row was dated when the sync started, every dated row
+        String countQuery = "SELECT COUNT(*) FROM " + column.table;
+        String firstQuery = select + " WHERE " + updatedAt + " IS NOT NULL" + order;
+        int total = lastValue == null ?
+                count(countQuery + " WHERE " + updatedAt + " IS NOT NULL", null) :
+                count(countQuery + after, new String[]{lastValue, lastValue, lastRowId});
+        ThrottledProgress progress = new ThrottledProgress(listener, total, 0);
+
+        while (true) {
+            SqlCursor chunk = lastValue == null ?
+                    sourceDatabase.onQuery(firstQuery) :
+                    sourceDatabase.onQuery(select + after + order, new String[]{lastValue, lastValue, lastRowId});
+            if (chunk == null) return false;
+
+            int rows = 0;
+            try {
+                while (chunk.moveToNext()) {
+                    if (Thread.currentThread().isInterrupted()) return false;
+
+                    lastRowId = chunk.getString(0);
+                    lastValue = chunk.getString(1);
+                    String text = column.normalize(chunk.getString(2));
+                    if (text != null) strategy.insert(batchedDatabase, column, text);
+
+                    progress.advance();
+                    rows++;
+                }
+            } finally {
+                chunk.close();
+            }
+
+            if (rows == 0) {
+                progress.finish();
+                return true;
+            }
+
+            // commit the position with the rows written up to it
+            saveSyncState(column, lastValue, lastRowId);
+            batchedDatabase.checkpoint();
+
+            if (rows < Populator.ROWS_PER_CHUNK) {
+                progress.finish();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param column {@linkplain FuzzyColumn} to check for
+     * @return true if a position of the updated-at column is recorded
+     * @throws IOException if error occur
+     */
+    boolean hasSyncState(FuzzyColumn column) throws IOException {
+        String[] state = loadSyncState(column);
+        return state[0] != null || !"0".equals(state[1]);
+    }
+
+    /**
+     * Record the last updated row of the source table as synced, before the rows up to it are populated
+     * @param column {@linkplain FuzzyColumn} to sync
+     * @param updatedAt updated-at column of the source table
+     * @throws IOException if error occur
+     */
+    void startSyncState(FuzzyColumn column, String updatedAt) throws IOException {
+        String query = "SELECT " + updatedAt + ", rowid FROM " + column.table +
+                " WHERE " + updatedAt + " IS NOT NULL ORDER BY " + updatedAt + " DESC, rowid DESC LIMIT 1";
+        SqlCursor cursor = sourceDatabase.onQuery(query);
+        if (cursor == null) return;
+
+        // without dated rows every row dated later is synced
+        String value = null;
+        String rowId = "-1";
+        if (cursor.moveToNext()) {
+            value = cursor.getString(0);
+            rowId = cursor.getString(1);
+        }
+        cursor.close();
+
+        saveSyncState(column, value, rowId);
+    }
+
+    /**
+     * @return last synced updated-at value, null if never synced, and its rowid
+     */
+    private String[] loadSyncState(FuzzyColumn column) throws IOException {
+        String[] state = new String[]{null, "0"};
+
+        String[] tables = strategy.getAssociatedTables(column);
+        if (tables.length == 0) return state;
+
+        String query = "SELECT sync_value, sync_rowid FROM fuzzyble_meta_data WHERE table_name = ?";
+        SqlCursor cursor = syncDatabase.onQuery(query, new String[]{tables[0]});
+        if (cursor == null) return state;
+
+        if (cursor.moveToNext()) {
+            state[0] = cursor.getString(0);
+            if (cursor.getString(1) != null) state[1] = cursor.getString(1);
+        }
+        cursor.close();
+
+        return state;
+    }
+
+    /**
+     * Forget the last synced updated-at value, the next sync writes every dated row
+     * @param column {@linkplain FuzzyColumn} to reset
+     */
+    void resetSyncState(FuzzyColumn column) {
+        saveSyncState(column, null, "0");
+    }
+
+    private void saveSyncState(FuzzyColumn column, String value, String rowId) {
+        for (String tableName: strategy.getAssociatedTables(column)) {
+            String sql = "UPDATE fuzzyble_meta_data SET sync_value = ?, sync_rowid = ?, last_update = ? WHERE table_name = ?";
+            String[] args = new String[]{
+                    value,
+                    rowId,
+                    String.valueOf(System.currentTimeMillis()),
+                    tableName
+            };
+            syncDatabase.onExecute(sql, args);
+        }
+    }
+
+    private int count(String query, String[] args) throws IOException {
+        SqlCursor cursor = args == null ? sourceDatabase.onQuery(query) : sourceDatabase.onQuery(query, args);
+        if (cursor == null) return 0;
+
+        int count = 0;
+        if (cursor.moveToNext()) count = Integer.parseInt(cursor.getString(0));
+        cursor.close();
+        return count;
+    }
+}
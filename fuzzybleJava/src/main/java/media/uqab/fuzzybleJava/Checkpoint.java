@@ -0,0 +1,26 @@
+package media.uqab.fuzzybleJava;
+
+/**
+ * Position of a populate in the source table, so an interrupted populate
+ * can continue where it stopped.
+ */
+public interface Checkpoint {
+    /**
+     * @return rowid of the last source row already written, 0 to start from the first row
+     */
+    long lastRowId();
+
+    /**
+     * Called once all the source rows up to {@code rowId} are written.
+     * Implement to store it and commit it together with the written data.
+     * @param rowId rowid of the last written source row
+     */
+    void save(long rowId);
+
+    /**
+     * Called right before the source rows after {@code rowId} are read, e.g. to note
+     * which changes of the source table the rows read next already have.
+     * @param rowId rowid of the last written source row
+     */
+    default void beforeRead(long rowId) {}
+}
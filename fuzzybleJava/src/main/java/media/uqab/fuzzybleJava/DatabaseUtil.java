@@ -1,7 +1,10 @@
 package media.uqab.fuzzybleJava;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Internal class to manage fuzzy tables
@@ -13,10 +16,19 @@ class DatabaseUtil {
     private final Fuzzyble syncDatabase;
     private final Strategy strategy;
 
+    // strategies run on this one instance, so the statements they prepare stay valid
+    private final BatchedDatabase batchedDatabase;
+    private final ChangeSync changeSync;
+
+    // whether rolling back a batch discards its writes, probed once when needed
+    private Boolean rollsBack;
+
     DatabaseUtil(Fuzzyble sourceDatabase, Fuzzyble syncDatabase, Strategy strategy) {
         this.sourceDatabase = sourceDatabase;
         this.syncDatabase = syncDatabase;
         this.strategy = strategy;
+        this.batchedDatabase = new BatchedDatabase(syncDatabase, BatchedDatabase.DEFAULT_BATCH_SIZE);
+        this.changeSync = new ChangeSync(sourceDatabase, syncDatabase, batchedDatabase, strategy);
     }
 
     /**
@@ -27,18 +39,25 @@ class DatabaseUtil {
     void createTable(FuzzyColumn column, boolean deletePrevious) throws IOException {
         if (deletePrevious) deleteData(column);
 
-        strategy.create(syncDatabase, column);
+        // tables of an older schema are migrated at once
+        inBatch(() -> strategy.create(batchedDatabase, column));
 
-        // if not already exists add the entity
+        // if not already exists add the entity, deleted data isn't populated anymore
         createMetaTable();
-        if (!isPopulated(column)) markPopulated(column, false);
+        if (deletePrevious || !isPopulated(column)) markPopulated(column, false);
+
+        // nothing is left to continue from
+        if (deletePrevious) {
+            saveCheckpoint(column, 0);
+            changeSync.resetSyncState(column);
+        }
     }
 
     /**
      * Populate with data for specified column
      * @param column {@link FuzzyColumn} on which fuzzy search will be performed
      * @param force use the previously populated table if `false`. If `true` or not populated with data
-     *             populate it. This won't delete the previous table; to do so, use {@linkplain DatabaseUtil#createTable}
+     *             populate it. Words are counted as they are written, so forcing deletes the previous data first
      * @param listener {@linkplain ProgressListener} to return the progress
      * @throws IOException thrown if error occur.
      */
@@ -46,15 +65,206 @@ class DatabaseUtil {
         // if data exists(populated) or not forced, return
         if (isPopulated(column) && !force) return;
 
-        // null safety
-        final ProgressListener innerListener = progress -> {
-            if (listener != null) listener.onProgress(progress);
-        };
-
-        strategy.populate(sourceDatabase, syncDatabase, column, innerListener);
+        // start over from empty tables if forced, otherwise continue after the rows written before
+        if (force) createTable(column, true);
 
         // when done, mark as populated
+        if (populateRows(column, nonNull(listener))) markPopulated(column, true);
+    }
+
+    /**
+     * Write the changes of the source table since the last populate or sync.
+     *
+     * <p>
+     * Rows added after the checkpoint are populated. If change triggers are installed,
+     * the queued changes of the rows populated before are written as well, removing
+     * the old texts of updated and deleted rows. With an updated-at column only the rows
+     * updated after the last synced one are written instead, the first sync records the
+     * last updated row and populates the column if needed.
+     * @param column {@linkplain FuzzyColumn} to sync
+     * @param updatedAt updated-at column of the source table, or null to sync by rowid
+     * @param listener {@linkplain ProgressListener} to return the progress
+     * @throws IOException thrown if error occur.
+     */
+    void syncTable(FuzzyColumn column, String updatedAt, ProgressListener listener) throws IOException {
+        final ProgressListener innerListener = nonNull(listener);
+
+        if (updatedAt != null) {
+            // rows read by populating have their current text, only the ones updated later are synced
+            if (!changeSync.hasSyncState(column)) changeSync.startSyncState(column, updatedAt);
+            if (!isPopulated(column)) {
+                if (populateRows(column, innerListener)) markPopulated(column, true);
+                return;
+            }
+
+            inAtomicBatch(column, () -> changeSync.syncUpdated(column, updatedAt, innerListener));
+            return;
+        }
+
+        if (!changeSync.hasQueue(column)) {
+            if (populateRows(column, innerListener)) markPopulated(column, true);
+            return;
+        }
+
+        // half of the progress for each
+        boolean populated = populateRows(column, part(innerListener, 0f, 0.5f));
+        if (!populated) return;
+
+        // the rows after the checkpoint weren't read yet, the next populate reads their current text
         markPopulated(column, true);
+        final long populatedRowId = loadCheckpoint(column);
+        inAtomicBatch(column, () -> changeSync.drainQueue(column, populatedRowId, part(innerListener, 0.5f, 0.5f)));
+    }
+
+    /**
+     * Log the changes of the column's source table with triggers, for {@linkplain DatabaseUtil#syncTable}
+     * @param column {@linkplain FuzzyColumn} to track
+     */
+    void installChangeTriggers(FuzzyColumn column) {
+        changeSync.installTriggers(column);
+    }
+
+    /**
+     * Drop the triggers and the logged changes of a column
+     * @param column {@linkplain FuzzyColumn} to stop tracking
+     */
+    void removeChangeTriggers(FuzzyColumn column) {
+        changeSync.removeTriggers(column);
+    }
+
+    /**
+     * Populate the source rows after the checkpoint
+     * @return true if every row is populated
+     */
+    private boolean populateRows(FuzzyColumn column, ProgressListener listener) throws IOException {
+        final long lastRowId = loadCheckpoint(column);
+
+        // changes queued before a row is read are already in its text, the ones queued after are synced
+        final boolean queued = changeSync.hasQueue(column);
+        final long[] read = {lastRowId, queued ? changeSync.lastQueuedId(column) : 0};
+        final Checkpoint checkpoint = new Checkpoint() {
+            @Override
+            public long lastRowId() {
+                return lastRowId;
+            }
+
+            @Override
+            public void beforeRead(long rowId) {
+                if (!queued) return;
+
+                try {
+                    read[1] = changeSync.lastQueuedId(column);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+
+            @Override
+            public void save(long rowId) {
+                if (queued) changeSync.discardQueued(column, read[0], rowId, read[1]);
+                read[0] = rowId;
+
+                // commit the checkpoint with the rows written up to it
+                saveCheckpoint(column, rowId);
+                batchedDatabase.checkpoint();
+            }
+        };
+
+        boolean done = inAtomicBatch(column, () -> strategy.populate(sourceDatabase, batchedDatabase, column, checkpoint, listener));
+
+        // rows read without a checkpoint, or gone before they could be read
+        if (done && queued) changeSync.discardQueued(column, read[0], Long.MAX_VALUE, read[1]);
+        return done;
+    }
+
+    private interface BatchWork {
+        boolean run() throws IOException;
+    }
+
+    /**
+     * Group the writes of the work in transactions
+     */
+    private boolean inBatch(BatchWork work) throws IOException {
+        batchedDatabase.beginBatch();
+        try {
+            boolean done = work.run();
+            batchedDatabase.commitBatch();
+            return done;
+        } catch (IOException | RuntimeException e) {
+            batchedDatabase.rollbackBatch();
+            throw e;
+        }
+    }
+
+    /**
+     * Run work which commits at its own checkpoints, discarding what it wrote after
+     * the last one unless it is done. Words are counted on every write, so rows
+     * written again after an interruption must not be committed twice. If the
+     * database can't roll back, the column is recreated to be populated from the start.
+     */
+    private boolean inAtomicBatch(FuzzyColumn column, BatchWork work) throws IOException {
+        batchedDatabase.beginAtomicBatch();
+        boolean done = false;
+        try {
+            done = work.run();
+        } finally {
+            if (done) {
+                batchedDatabase.commitBatch();
+            } else {
+                batchedDatabase.rollbackBatch();
+
+                if (rollsBack()) {
+                    // what the strategy loaded may have the discarded words
+                    strategy.create(batchedDatabase, column);
+                } else {
+                    // the words written after the checkpoint stayed, resuming would count them again
+                    createTable(column, true);
+                }
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Check if {@linkplain Fuzzyble#rollbackBatch} discards the writes of the batch,
+     * with a row written to the meta table and rolled back
+     */
+    private boolean rollsBack() throws IOException {
+        if (rollsBack != null) return rollsBack;
+
+        String[] args = new String[]{"fuzzyble_rollback_probe"};
+        syncDatabase.beginBatch();
+        syncDatabase.onExecute("INSERT OR IGNORE INTO fuzzyble_meta_data(table_name) VALUES(?)", args);
+        syncDatabase.rollbackBatch();
+
+        SqlCursor cursor = syncDatabase.onQuery("SELECT 1 FROM fuzzyble_meta_data WHERE table_name = ?", args);
+        rollsBack = cursor == null || !cursor.moveToNext();
+        if (cursor != null) cursor.close();
+
+        if (!rollsBack) syncDatabase.onExecute("DELETE FROM fuzzyble_meta_data WHERE table_name = ?", args);
+        return rollsBack;
+    }
+
+    // null safety
+    private ProgressListener nonNull(ProgressListener listener) {
+        return part(listener, 0f, 1f);
+    }
+
+    /**
+     * Report the progress of one part of the work, passing the rate and the time left of the part on
+     */
+    private ProgressListener part(ProgressListener listener, float start, float share) {
+        return new ProgressListener() {
+            @Override
+            public void onProgress(float progress) {
+                if (listener != null) listener.onProgress(start + progress * share);
+            }
+
+            @Override
+            public void onProgress(float progress, float rowsPerSecond, long etaMillis) {
+                if (listener != null) listener.onProgress(start + progress * share, rowsPerSecond, etaMillis);
+            }
+        };
     }
 
     /**
@@ -63,7 +273,75 @@ class DatabaseUtil {
      * @param text {@linkplain String} to process and insert.
      */
     void addToFuzzySearch(FuzzyColumn column, String text) {
-        strategy.insert(syncDatabase, column, text);
+        batchedDatabase.beginBatch();
+        try {
+            strategy.insert(batchedDatabase, column, column.normalize(text));
+            batchedDatabase.commitBatch();
+        } catch (RuntimeException e) {
+            batchedDatabase.rollbackBatch();
+            throw e;
+        }
+    }
+
+    /**
+     * Remove data added before from fuzzy search for specific column
+     * @param column {@linkplain FuzzyColumn} to remove from.
+     * @param text {@linkplain String} to process and remove.
+     * @return false if the strategy doesn't support removing
+     */
+    boolean removeFromFuzzySearch(FuzzyColumn column, String text) {
+        batchedDatabase.beginBatch();
+        try {
+            boolean removed = strategy.remove(batchedDatabase, column, column.normalize(text));
+            batchedDatabase.commitBatch();
+            return removed;
+        } catch (RuntimeException e) {
+            batchedDatabase.rollbackBatch();
+            throw e;
+        }
+    }
+
+    /**
+     * Replace data added before in fuzzy search for specific column
+     * @param column {@linkplain FuzzyColumn} to update.
+     * @param oldText {@linkplain String} to remove, may be null.
+     * @param newText {@linkplain String} to insert, may be null.
+     * @return false if the strategy doesn't support removing
+     */
+    boolean updateFuzzySearch(FuzzyColumn column, String oldText, String newText) {
+        batchedDatabase.beginBatch();
+        try {
+            boolean removed = oldText == null || strategy.remove(batchedDatabase, column, column.normalize(oldText));
+            if (newText != null) strategy.insert(batchedDatabase, column, column.normalize(newText));
+            batchedDatabase.commitBatch();
+            return removed;
+        } catch (RuntimeException e) {
+            batchedDatabase.rollbackBatch();
+            throw e;
+        }
+    }
+
+    /**
+     * Write the words of a column into a read-only index file
+     * @param column {@linkplain FuzzyColumn} to export
+     * @param file destination file
+     * @throws IOException if reading the source or writing the file fails
+     */
+    void exportIndex(FuzzyColumn column, File file) throws IOException {
+        String dataQuery = "SELECT " + column.column + " FROM " + column.table;
+        SqlCursor textCursor = sourceDatabase.onQuery(dataQuery);
+        if (textCursor == null) throw new IOException("can't read " + column.table);
+
+        Set<String> words = new HashSet<>();
+        while (textCursor.moveToNext()) {
+            String text = column.normalize(textCursor.getString(0));
+            if (text == null) continue;
+
+            for (String word : TextHelper.splitAndFilterText(text)) words.add(word);
+        }
+        textCursor.close();
+
+        FuzzyIndexFile.write(words, file);
     }
 
     boolean isFuzzyEnabled(FuzzyColumn column) throws IOException {
@@ -114,18 +392,70 @@ class DatabaseUtil {
 
         for (String tableName: strategy.getAssociatedTables(column)) {
             String[] args = new String[]{
-                    tableName,
                     String.valueOf(i),
-                    String.valueOf(System.currentTimeMillis())
+                    String.valueOf(System.currentTimeMillis()),
+                    tableName
             };
 
-            String markPopulatedSql = "INSERT OR REPLACE INTO fuzzyble_meta_data(table_name, populated, last_update) VALUES(?, ?, ?)";
+            // keep the checkpoint of the row
+            String insertSql = "INSERT OR IGNORE INTO fuzzyble_meta_data(table_name) VALUES(?)";
+            String markPopulatedSql = "UPDATE fuzzyble_meta_data SET populated = ?, last_update = ? WHERE table_name = ?";
+            syncDatabase.onExecute(insertSql, new String[]{tableName});
             syncDatabase.onExecute(markPopulatedSql, args);
         }
     }
 
+    /**
+     * Rowid of the last source row populated for a column
+     * @param column {@linkplain FuzzyColumn} to check for
+     * @return the rowid, 0 if nothing populated yet
+     * @throws IOException if error occur
+     */
+    long loadCheckpoint(FuzzyColumn column) throws IOException {
+        long checkpoint = Long.MAX_VALUE;
+        for (String tableName: strategy.getAssociatedTables(column)) {
+            String query = "SELECT checkpoint FROM fuzzyble_meta_data WHERE table_name = ?";
+            SqlCursor cursor = syncDatabase.onQuery(query, new String[]{tableName});
+
+            long rowId = 0;
+            if (cursor != null) {
+                if (cursor.moveToNext()) {
+                    String s = cursor.getString(0);
+                    if (s != null) rowId = Long.parseLong(s);
+                }
+                cursor.close();
+            }
+
+            checkpoint = Math.min(checkpoint, rowId);
+        }
+
+        return checkpoint == Long.MAX_VALUE ? 0 : checkpoint;
+    }
+
+    /**
+     * Save the rowid of the last source row populated for a column
+     * @param column {@linkplain FuzzyColumn} to save for
+     * @param rowId rowid of the last populated source row
+     */
+    private void saveCheckpoint(FuzzyColumn column, long rowId) {
+        for (String tableName: strategy.getAssociatedTables(column)) {
+            String sql = "UPDATE fuzzyble_meta_data SET checkpoint = ?, last_update = ? WHERE table_name = ?";
+            String[] args = new String[]{
+                    String.valueOf(rowId),
+                    String.valueOf(System.currentTimeMillis()),
+                    tableName
+            };
+            syncDatabase.onExecute(sql, args);
+        }
+    }
+
     String[] getWordSuggestion(FuzzyColumn column, String word) {
-        List<String> suggestion = strategy.getSuggestions(syncDatabase, column, word);
+        List<String> suggestion = strategy.getSuggestions(batchedDatabase, column, column.normalize(word));
+        return suggestion.toArray(new String[]{});
+    }
+
+    String[] getWordSuggestion(FuzzyColumn column, String word, int limit) {
+        List<String> suggestion = strategy.getSuggestions(batchedDatabase, column, column.normalize(word), limit);
         return suggestion.toArray(new String[]{});
     }
 
@@ -142,8 +472,16 @@ class DatabaseUtil {
                 "id INTEGER PRIMARY KEY, " +
                 "table_name VARCHAR(255) NOT NULL UNIQUE, " +
                 "populated INTEGER NOT NULL DEFAULT 0, " +
-                "last_update INTEGER" +
+                "last_update INTEGER, " +
+                "checkpoint INTEGER NOT NULL DEFAULT 0, " +
+                "sync_value TEXT, " +
+                "sync_rowid INTEGER NOT NULL DEFAULT 0" +
                 ");";
         syncDatabase.onExecute(sql, null);
+
+        // tables created by earlier versions
+        Schema.addColumnIfMissing(syncDatabase, "fuzzyble_meta_data", "checkpoint", "INTEGER NOT NULL DEFAULT 0", null);
+        Schema.addColumnIfMissing(syncDatabase, "fuzzyble_meta_data", "sync_value", "TEXT", null);
+        Schema.addColumnIfMissing(syncDatabase, "fuzzyble_meta_data", "sync_rowid", "INTEGER NOT NULL DEFAULT 0", null);
     }
 }
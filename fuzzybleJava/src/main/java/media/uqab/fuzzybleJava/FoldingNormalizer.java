@@ -0,0 +1,145 @@
+package media.uqab.fuzzybleJava;
+
+/**
+ * {@linkplain Normalizer} folding case, compatibility forms, diacritics and
+ * digits, each enabled by a flag.
+ *
+ * <p>
+ * Case, diacritics and digits are folded one char at a time through a table
+ * of the whole Basic Multilingual Plane, computed once per combination of the
+ * flags and shared by every instance. A text is only run through
+ * {@linkplain java.text.Normalizer} for {@link #NFKC} when it isn't already
+ * in that form, which is the common case.
+ *
+ * <p>
+ * Only the combining marks of the Latin, Greek and Cyrillic diacritic blocks
+ * are stripped, so the vowel signs and other marks of scripts like Bengali,
+ * which change the letter rather than accent it, are kept. Chars outside the
+ * Basic Multilingual Plane are kept as they are.
+ */
+public class FoldingNormalizer implements Normalizer {
+    private static final long serialVersionUID = 1L;
+
+    /** Fold upper, lower and title case into lower case */
+    public static final int CASE = 1;
+    /** Fold digits of every script into ASCII digits */
+    public static final int DIGITS = 2;
+    /** Strip accents, e.g. an accented "e" becomes a plain "e" */
+    public static final int DIACRITICS = 4;
+    /** Unicode compatibility composition, e.g. full width letters and ligatures become plain letters */
+    public static final int NFKC = 8;
+
+    public static final int ALL = CASE | DIGITS | DIACRITICS | NFKC;
+
+    // the flags folded by the tables
+    private static final int TABLE_FLAGS = CASE | DIGITS | DIACRITICS;
+    // a table folding a char to 0 removes it
+    private static final char[][] TABLES = new char[TABLE_FLAGS + 1][];
+
+    private final int flags;
+
+    /**
+     * Fold everything
+     */
+    public FoldingNormalizer() {
+        this(ALL);
+    }
+
+    /**
+     * @param flags what to fold, a combination of {@link #CASE}, {@link #DIGITS},
+     *              {@link #DIACRITICS} and {@link #NFKC}
+     */
+    public FoldingNormalizer(int flags) {
+        this.flags = flags;
+    }
+
+    @Override
+    public String normalize(String text) {
+        if (text == null) return null;
+
+        if ((flags & NFKC) != 0 && !java.text.Normalizer.isNormalized(text, java.text.Normalizer.Form.NFKC)) {
+            text = java.text.Normalizer.normalize(text, java.text.Normalizer.Form.NFKC);
+        }
+
+        int tableFlags = flags & TABLE_FLAGS;
+        if (tableFlags == 0) return text;
+        char[] table = table(tableFlags);
+
+        // only copied once a char changes
+        char[] folded = null;
+        int length = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            char f = table[c];
+
+            if (folded == null) {
+                if (f == c) continue;
+                folded = new char[n];
+                text.getChars(0, i, folded, 0);
+                length = i;
+            }
+            if (f != 0) folded[length++] = f;
+        }
+
+        return folded == null ? text : new String(folded, 0, length);
+    }
+
+    private static char[] table(int tableFlags) {
+        synchronized (TABLES) {
+            if (TABLES[tableFlags] == null) TABLES[tableFlags] = buildTable(tableFlags);
+            return TABLES[tableFlags];
+        }
+    }
+
+    private static char[] buildTable(int tableFlags) {
+        char[] table = new char[Character.MAX_VALUE + 1];
+        for (int i = 0; i <= Character.MAX_VALUE; i++) {
+            char c = (char) i;
+
+            // surrogate halves are only meaningful in pairs
+            if (Character.isSurrogate(c)) {
+                table[i] = c;
+                continue;
+            }
+
+            if ((tableFlags & DIACRITICS) != 0) c = stripDiacritics(c);
+            if (c != 0 && (tableFlags & CASE) != 0) c = Character.toLowerCase(Character.toUpperCase(c));
+            if (c != 0 && (tableFlags & DIGITS) != 0 && Character.isDigit(c)) {
+                int digit = Character.digit(c, 10);
+                if (digit >= 0) c = (char) ('0' + digit);
+            }
+            table[i] = c;
+        }
+        return table;
+    }
+
+    /**
+     * @return the char without its diacritics, 0 if it is a diacritic itself
+     */
+    private static char stripDiacritics(char c) {
+        if (isDiacritic(c)) return 0;
+        // only letters carry accents
+        if (c < 0xC0 || !Character.isLetter(c)) return c;
+
+        String decomposed = java.text.Normalizer.normalize(String.valueOf(c), java.text.Normalizer.Form.NFD);
+        if (decomposed.length() == 1) return c;
+
+        StringBuilder base = new StringBuilder();
+        for (int i = 0; i < decomposed.length(); i++) {
+            char d = decomposed.charAt(i);
+            if (!isDiacritic(d)) base.append(d);
+        }
+
+        // e.g. Hangul syllables decompose into letters, not diacritics
+        String composed = java.text.Normalizer.normalize(base, java.text.Normalizer.Form.NFC);
+        return composed.length() == 1 ? composed.charAt(0) : c;
+    }
+
+    private static boolean isDiacritic(char c) {
+        return (c >= 0x0300 && c <= 0x036F) // combining diacritical marks
+                || (c >= 0x1AB0 && c <= 0x1AFF) // extended
+                || (c >= 0x1DC0 && c <= 0x1DFF) // supplement
+                || (c >= 0x20D0 && c <= 0x20FF) // for symbols
+                || (c >= 0xFE20 && c <= 0xFE2F); // half marks
+    }
+}
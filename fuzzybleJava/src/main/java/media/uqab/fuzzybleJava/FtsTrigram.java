@@ -0,0 +1,241 @@
+package media.uqab.fuzzybleJava;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Trigram strategy backed by SQLite's FTS5 full text index.
+ *
+ * <p>
+ * The vocabulary is stored in a plain table, indexed by an external content
+ * FTS5 table using the {@code trigram} tokenizer. A trigger keeps the index
+ * in sync, and fuzzy candidates are looked up by FTS5 itself, one trigram
+ * at a time, instead of joining trigram tables.
+ *
+ * <p>
+ * Requires SQLite 3.34.0 or later compiled with FTS5.
+ */
+public class FtsTrigram implements Strategy {
+    private final Similarity similarity;
+    private final StatementCache statements = new StatementCache();
+
+    public FtsTrigram() {
+        this.similarity = new BoundedLevenshtein();
+    }
+
+    public FtsTrigram(Similarity similarity) {
+        this.similarity = similarity;
+    }
+
+    @Override
+    public String getStrategyName() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    public boolean create(Fuzzyble database, FuzzyColumn column) {
+        String[] tables = getAssociatedTables(column);
+        String wordsTable = tables[0];
+        String ftsTable = tables[1];
+
+        // tables may be recreated
+        statements.clear();
+        new VocabularyTable(wordsTable, statements).create(database);
+
+        String createFts = "CREATE VIRTUAL TABLE IF NOT EXISTS " + ftsTable + " USING fts5(" +
+                "word, " +
+                "content='" + wordsTable + "', " +
+                "content_rowid='id', " +
+                "tokenize='trigram'" +
+                ")";
+        String createInsertTrigger = "CREATE TRIGGER IF NOT EXISTS " + wordsTable + "_ai AFTER INSERT ON " + wordsTable + " BEGIN " +
+                "INSERT INTO " + ftsTable + "(rowid, word) VALUES (new.id, new.word); " +
+                "END";
+        String createDeleteTrigger = "CREATE TRIGGER IF NOT EXISTS " + wordsTable + "_ad AFTER DELETE ON " + wordsTable + " BEGIN " +
+                "INSERT INTO " + ftsTable + "(" + ftsTable + ", rowid, word) VALUES ('delete', old.id, old.word); " +
+                "END";
+        database.onExecute(createFts, null);
+        database.onExecute(createInsertTrigger, null);
+        database.onExecute(createDeleteTrigger, null);
+        return true;
+    }
+
+    @Override
+    public boolean insert(Fuzzyble database, FuzzyColumn column, String text) {
+        VocabularyTable vocabulary = new VocabularyTable(getAssociatedTables(column)[0], statements);
+
+        boolean allInserted = true;
+        for (String word : TextHelper.splitAndFilterText(text)) {
+            if (Thread.currentThread().isInterrupted()) return false;
+
+            try {
+                vocabulary.insert(database, word);
+            } catch (Exception e) {
+                e.printStackTrace();
+                allInserted = false;
+            }
+        }
+
+        return allInserted;
+    }
+
+    @Override
+    public boolean remove(Fuzzyble database, FuzzyColumn column, String text) {
+        VocabularyTable vocabulary = new VocabularyTable(getAssociatedTables(column)[0], statements);
+
+        boolean allRemoved = true;
+        Set<String> words = new HashSet<>();
+        for (String word : TextHelper.splitAndFilterText(text)) {
+            if (Thread.currentThread().isInterrupted()) return false;
+
+            try {
+                vocabulary.remove(database, word);
+                words.add(word);
+            } catch (Exception e) {
+                e.printStackTrace();
+                allRemoved = false;
+            }
+        }
+
+        // the delete trigger removes them from the fts index too
+        vocabulary.prune(database, words);
+        return allRemoved;
+    }
+
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, ProgressListener listener) throws IOException {
+        return populate(source, sync, column, null, listener);
+    }
+
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, Checkpoint checkpoint, ProgressListener listener) throws IOException {
+        // insert splits the texts itself, so no workers
+        Populator<String> populator = new Populator<>(text -> text, text -> {
+            if (text != null) insert(sync, column, text);
+        }, 1);
+        return populator.populate(source, column, checkpoint, listener);
+    }
+
+    @Override
+    public String[] getAssociatedTables(FuzzyColumn column) {
+        String baseName = "fuzzyble_" + getStrategyName().toLowerCase() + column;
+        String wordsTable = baseName + "_word";
+        String ftsTable = baseName + "_fts";
+
+        return new String[]{wordsTable, ftsTable};
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word) {
+        return getSuggestions(database, column, word, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word, int limit) {
+        // return exact matched if found
+        List<String> exact = performExactSearch(database, column, word);
+        if (!exact.isEmpty()) return FuzzyUtils.limit(exact, limit);
+
+        // return partial match if found
+        List<String> partial = performPartialSearch(database, column, word);
+        if (!partial.isEmpty()) return FuzzyUtils.limit(partial, limit);
+
+        // now try fuzzy
+        return performFuzzySearch(database, column, word, limit);
+    }
+
+    private List<String> performExactSearch(Fuzzyble database, FuzzyColumn column, String word) {
+        ArrayList<String> exact = new ArrayList<>();
+        final String wordsTable = getAssociatedTables(column)[0];
+
+        try {
+            String query = "SELECT word FROM " + wordsTable + " WHERE word = ?";
+            SqlCursor exactQuery = statements.get(database, query).query(new String[]{word});
+            while (exactQuery.moveToNext()) {
+                String s = exactQuery.getString(0);
+                exact.add(s);
+            }
+            exactQuery.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return exact;
+    }
+
+    private List<String> performPartialSearch(Fuzzyble database, FuzzyColumn column, String word) {
+        ArrayList<String> partial = new ArrayList<>();
+        final String wordsTable = getAssociatedTables(column)[0];
+
+        try {
+            List<String> args = new ArrayList<>();
+            String query = FuzzyUtils.prefixMatchQuery(wordsTable, word, args);
+            SqlCursor partialQuery = database.onQuery(query, args.toArray(new String[0]));
+            while (partialQuery.moveToNext()) {
+                String s = partialQuery.getString(0);
+                partial.add(s);
+            }
+
+            partialQuery.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return partial;
+    }
+
+    private List<String> performFuzzySearch(Fuzzyble database, FuzzyColumn column, String word, int limit) {
+        Set<String> trigrams = new LinkedHashSet<>(TextHelper.splitAndGetTrigrams(word));
+        if (trigrams.isEmpty()) return new ArrayList<>();
+
+        final String[] tables = getAssociatedTables(column);
+        final String wordsTable = tables[0];
+        final String ftsTable = tables[1];
+
+        // each trigram matched on its own, quoted as a phrase, so the words matching it can be counted
+        List<String> args = new ArrayList<>();
+        StringBuilder union = new StringBuilder();
+        for (String trigram : trigrams) {
+            if (union.length() > 0) union.append(" UNION ALL ");
+            union.append("SELECT rowid FROM ").append(ftsTable).append(" WHERE ").append(ftsTable).append(" MATCH ?");
+            args.add('"' + trigram.replace("\"", "\"\"") + '"');
+        }
+
+        StringBuilder queryBuilder = new StringBuilder();
+        queryBuilder.append("SELECT w.word FROM (").append(union).append(") f ")
+                .append("JOIN ").append(wordsTable).append(" w ON w.id = f.rowid ");
+
+        // words whose length differs by more than the threshold can't be similar
+        int threshold = similarity.getThresholdDistance();
+        if (threshold >= 0) {
+            int length = word.codePointCount(0, word.length());
+            queryBuilder.append("WHERE length(w.word) BETWEEN CAST(? AS INTEGER) AND CAST(? AS INTEGER) ");
+            args.add(String.valueOf(Math.max(0, length - threshold)));
+            args.add(String.valueOf(length + threshold));
+        }
+
+        // only words sharing enough trigrams can be within the threshold, best overlap first
+        queryBuilder.append("GROUP BY f.rowid HAVING COUNT(*) >= CAST(? AS INTEGER) ORDER BY COUNT(*) DESC");
+        args.add(String.valueOf(FuzzyUtils.minSharedTrigrams(trigrams.size(), similarity)));
+
+        List<String> suggestions = new ArrayList<>();
+        try {
+            // same sql for every search of as many trigrams
+            SqlCursor cursor = statements.get(database, queryBuilder.toString()).query(args.toArray(new String[0]));
+            while (cursor.moveToNext()) {
+                String s = cursor.getString(0);
+                suggestions.add(s);
+            }
+
+            cursor.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return FuzzyUtils.filterFuzzyMatched(word, suggestions, similarity, limit);
+    }
+}
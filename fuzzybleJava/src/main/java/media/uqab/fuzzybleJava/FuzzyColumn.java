@@ -11,12 +11,35 @@ import java.io.Serializable;
  *
  */
 public class FuzzyColumn implements Serializable {
+    // the one of the versions without a normalizer, their columns read back with a null normalizer
+    private static final long serialVersionUID = -9108919521331811154L;
+
     public final String table;
     public final String column;
+    public final Normalizer normalizer;
 
     public FuzzyColumn(String table, String column) {
+        this(table, column, Normalizer.NONE);
+    }
+
+    /**
+     * @param table table name
+     * @param column column name
+     * @param normalizer {@linkplain Normalizer} applied to the texts of the column and the searched words
+     */
+    public FuzzyColumn(String table, String column, Normalizer normalizer) {
         this.table = table;
         this.column = column;
+        this.normalizer = normalizer;
+    }
+
+    /**
+     * Normalize a text of this column, or a word searched in it
+     * @param text text to normalize, may be null
+     * @return the normalized text
+     */
+    public String normalize(String text) {
+        return normalizer == null ? text : normalizer.normalize(text);
     }
 
     @Override
@@ -1,5 +1,6 @@
 package media.uqab.fuzzybleJava;
 
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -14,6 +15,8 @@ import java.io.IOException;
  * <li>call {@linkplain FuzzyCursor#populate} to insert data automatically from source database
  * to fuzzy database </li>
  * <li>call {@linkplain FuzzyCursor#addToFuzzySearch} to manually add data into fuzzy search</li>
+ * <li>call {@linkplain FuzzyCursor#removeFromFuzzySearch} or {@linkplain FuzzyCursor#updateFuzzySearch}
+ * to manually remove or replace data added before</li>
  * </ul>
  *
  * <br>
@@ -145,9 +148,12 @@ public class FuzzyCursor {
      *
      * <p>
      * This will populate data from immutable (source) database into mutable (sink) one.
+     * The source rows are written in chunks and the progress is committed after each one,
+     * so an interrupted populate continues where it stopped the next time. What was
+     * written of the interrupted chunk is rolled back.
      *
      * @param column {@link FuzzyColumn} on which fuzzy search will be performed
-     * @param force if `true`, ignore previous data and redo the process.
+     * @param force if `true`, delete previous data and redo the process.
      * @throws IOException if any error occur
      * @throws RuntimeException If the column is not enabled for fuzzy search.
      * To enable use {@linkplain FuzzyCursor#createFuzzyble}.
@@ -161,6 +167,78 @@ public class FuzzyCursor {
         databaseUtil.populateTable(column, force, listener);
     }
 
+    /**
+     * Bring a column up to date with the changes of its source table.
+     *
+     * <p>
+     * Only the rows added since the last populate or sync are read, so the cost
+     * follows the number of changes instead of the size of the table. Updated and
+     * deleted rows are only seen if change triggers are installed with
+     * {@linkplain FuzzyCursor#installChangeTriggers}. A column which wasn't
+     * populated completely is populated.
+     *
+     * @param column {@link FuzzyColumn} to sync
+     * @throws IOException if any error occur
+     * @throws RuntimeException if the column is not fuzzyble
+     */
+    public void sync(FuzzyColumn column) throws IOException, RuntimeException {
+        sync(column, null);
+    }
+
+    public void sync(FuzzyColumn column, ProgressListener listener) throws IOException, RuntimeException {
+        throwIfNotFuzzyble(column);
+        databaseUtil.syncTable(column, null, listener);
+    }
+
+    /**
+     * Bring a column up to date with the rows updated since the last sync.
+     *
+     * <p>
+     * The source table needs a column which is set to an increasing value, e.g. a
+     * timestamp, whenever a row is inserted or updated. The first sync records the
+     * last updated row and populates the column if needed, so rows updated between
+     * a {@linkplain FuzzyCursor#populate} and the first sync aren't seen.
+     *
+     * <p>
+     * Texts replaced by an update can't be seen this way. The new text is added,
+     * counting its words once more, and the words of the old one are never removed.
+     * Install change triggers with {@linkplain FuzzyCursor#installChangeTriggers}
+     * instead if removed words must leave the fuzzy search.
+     *
+     * @param column {@link FuzzyColumn} to sync
+     * @param updatedAtColumn updated-at column of the source table
+     * @param listener {@linkplain ProgressListener} to return the progress
+     * @throws IOException if any error occur
+     * @throws RuntimeException if the column is not fuzzyble
+     */
+    public void sync(FuzzyColumn column, String updatedAtColumn, ProgressListener listener) throws IOException, RuntimeException {
+        throwIfNotFuzzyble(column);
+        databaseUtil.syncTable(column, updatedAtColumn, listener);
+    }
+
+    /**
+     * Log the changes of a column's source table with triggers, so that
+     * {@linkplain FuzzyCursor#sync} writes the updated rows too.
+     *
+     * <p>
+     * The source database must allow creating tables and triggers.
+     *
+     * @param column {@link FuzzyColumn} to track
+     */
+    public void installChangeTriggers(FuzzyColumn column) {
+        databaseUtil.installChangeTriggers(column);
+    }
+
+    /**
+     * Drop the triggers installed by {@linkplain FuzzyCursor#installChangeTriggers}
+     * and the changes they logged.
+     *
+     * @param column {@link FuzzyColumn} to stop tracking
+     */
+    public void removeChangeTriggers(FuzzyColumn column) {
+        databaseUtil.removeChangeTriggers(column);
+    }
+
     /**
      * Manually add text for fuzzy search
      * @param column {@linkplain FuzzyColumn} to which the data will be added.
@@ -173,19 +251,88 @@ public class FuzzyCursor {
         databaseUtil.addToFuzzySearch(column, text);
     }
 
+    /**
+     * Manually remove a text added before, e.g. when its row is deleted.
+     *
+     * <p>
+     * Words are counted every time they are added, a word leaves the fuzzy
+     * search when no added text contains it anymore. Not every {@linkplain Strategy}
+     * supports removing.
+     *
+     * @param column {@linkplain FuzzyColumn} from which the data will be removed.
+     * @param text {@linkplain String} text to remove.
+     * @return false if the {@linkplain Strategy} doesn't support removing
+     * @throws IOException if any error occur
+     * @throws RuntimeException if the column is not fuzzyble
+     */
+    public boolean removeFromFuzzySearch(FuzzyColumn column, String text) throws IOException, RuntimeException {
+        throwIfNotFuzzyble(column);
+        return databaseUtil.removeFromFuzzySearch(column, text);
+    }
+
+    /**
+     * Manually replace a text added before, e.g. when its row is updated.
+     * Same as removing the old text and adding the new one, in one transaction.
+     *
+     * @param column {@linkplain FuzzyColumn} to update.
+     * @param oldText {@linkplain String} text added before.
+     * @param newText {@linkplain String} text to add instead.
+     * @return false if the {@linkplain Strategy} doesn't support removing
+     * @throws IOException if any error occur
+     * @throws RuntimeException if the column is not fuzzyble
+     */
+    public boolean updateFuzzySearch(FuzzyColumn column, String oldText, String newText) throws IOException, RuntimeException {
+        throwIfNotFuzzyble(column);
+        return databaseUtil.updateFuzzySearch(column, oldText, newText);
+    }
+
+    /**
+     * Export the words of a column into a read-only index file.
+     *
+     * <p>
+     * Words are read from the source (immutable) database, so the column
+     * doesn't need to be fuzzyble. The file can be shipped with an app and
+     * searched with {@linkplain MappedTrigram}.
+     *
+     * @param column {@linkplain FuzzyColumn} to export
+     * @param file destination file, overwritten if exists
+     * @throws IOException if reading the source or writing the file fails
+     */
+    public void exportFuzzyIndex(FuzzyColumn column, File file) throws IOException {
+        databaseUtil.exportIndex(column, file);
+    }
+
     /**
      * Get fuzzy searched word suggestion
      * @param column {@link FuzzyColumn} on which fuzzy search will be performed
-     * @param word searched word
+     * @param word searched word, normalized by the {@linkplain Normalizer} of the column
      * @throws IOException if error occur when querying.
      * @throws RuntimeException if the column has not fuzzy search enabled.
-     * @return Fuzzy suggestions.
+     * @return Fuzzy suggestions, as normalized when indexed.
      */
     public String[] getFuzzyWords(FuzzyColumn column, String word) throws IOException, RuntimeException {
         throwIfNotFuzzyble(column);
         return databaseUtil.getWordSuggestion(column, word);
     }
 
+    /**
+     * Get at most `limit` fuzzy searched word suggestion.
+     *
+     * <p>
+     * Fuzzy matches are ranked once and only the best `limit` are kept,
+     * which is cheaper than sorting all matches when only a few are shown.
+     * @param column {@link FuzzyColumn} on which fuzzy search will be performed
+     * @param word searched word, normalized by the {@linkplain Normalizer} of the column
+     * @param limit maximum number of suggestions
+     * @throws IOException if error occur when querying.
+     * @throws RuntimeException if the column has not fuzzy search enabled.
+     * @return Fuzzy suggestions, most similar first.
+     */
+    public String[] getFuzzyWords(FuzzyColumn column, String word, int limit) throws IOException, RuntimeException {
+        throwIfNotFuzzyble(column);
+        return databaseUtil.getWordSuggestion(column, word, limit);
+    }
+
     /**
      * Check if fuzzyble or not, if not throw an exception
      * @param column {@link FuzzyColumn} column to check
@@ -0,0 +1,367 @@
+package media.uqab.fuzzybleJava;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Read-only binary fuzzy index, served from a memory mapped file.
+ *
+ * <p>
+ * <b>Layout</b> (big endian, version 1)
+ * <pre>
+ * header      magic, version, word count, trigram count,
+ *             word offsets position, word blob position,
+ *             directory position, postings position, postings length
+ * offsets     int[word count + 1], start of each word in the blob
+ * blob        UTF-8 words sorted by their bytes
+ * directory   per trigram sorted by key: long packed trigram, int postings offset, int postings count
+ * postings    word ids of each trigram, ascending, as varint encoded deltas
+ * </pre>
+ * All positions are ints, so a file is limited to 2GB.
+ */
+class FuzzyIndexFile {
+    static final int MAGIC = 0x465A4249; // FZBI
+    static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 36;
+    private static final int DIRECTORY_ENTRY_SIZE = 16;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer buffer;
+    private final int wordCount;
+    private final int trigramCount;
+    private final int offsetsPos;
+    private final int blobPos;
+    private final int directoryPos;
+    private final int postingsPos;
+
+    private FuzzyIndexFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a fuzzy index file");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("unsupported fuzzy index version " + version);
+        }
+
+        wordCount = buffer.getInt(8);
+        trigramCount = buffer.getInt(12);
+        offsetsPos = buffer.getInt(16);
+        blobPos = buffer.getInt(20);
+        directoryPos = buffer.getInt(24);
+        postingsPos = buffer.getInt(28);
+    }
+
+    /**
+     * Map an index file into memory
+     * @param file file written by {@linkplain FuzzyIndexFile#write}
+     * @return the index
+     * @throws IOException if the file can't be read or is not a fuzzy index
+     */
+    static FuzzyIndexFile open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new FuzzyIndexFile(buffer);
+        } finally {
+            // mapping stays valid after the channel is closed
+            raf.close();
+        }
+    }
+
+    /**
+     * Write an index file
+     * @param vocabulary words to index, duplicates are ignored
+     * @param file destination, overwritten if exists
+     * @throws IOException if writing fails
+     */
+    static void write(Collection<String> vocabulary, File file) throws IOException {
+        // sort by bytes, which is code point order
+        List<byte[]> encoded = new ArrayList<>();
+        for (String w : vocabulary) encoded.add(w.getBytes(UTF_8));
+        encoded.sort(BYTES);
+
+        List<String> words = new ArrayList<>();
+        List<byte[]> bytes = new ArrayList<>();
+        for (byte[] b : encoded) {
+            if (!bytes.isEmpty() && BYTES.compare(bytes.get(bytes.size() - 1), b) == 0) continue;
+            bytes.add(b);
+            words.add(new String(b, UTF_8));
+        }
+
+        // (trigram, word id) pairs, grouped by trigram
+        int pairs = 0;
+        for (String w : words) pairs += Math.max(0, w.length() - 2);
+
+        long[] keys = new long[pairs];
+        int n = 0;
+        for (String w : words) {
+            for (int i = 0; i + 3 <= w.length(); i++) keys[n++] = Trigrams.pack(w, i);
+        }
+        keys = unique(keys);
+
+        long[] relation = new long[pairs];
+        n = 0;
+        for (int id = 0; id < words.size(); id++) {
+            String w = words.get(id);
+            for (int i = 0; i + 3 <= w.length(); i++) {
+                long t = Arrays.binarySearch(keys, Trigrams.pack(w, i));
+                relation[n++] = (t << 32) | id;
+            }
+        }
+        relation = unique(relation);
+
+        // postings
+        ByteArrayOutputStream postings = new ByteArrayOutputStream();
+        int[] postingOffsets = new int[keys.length];
+        int[] postingCounts = new int[keys.length];
+        int previous = 0;
+        int current = -1;
+        for (long r : relation) {
+            int t = (int) (r >>> 32);
+            int id = (int) r;
+            if (t != current) {
+                current = t;
+                previous = 0;
+                postingOffsets[t] = postings.size();
+            }
+            writeVarInt(postings, id - previous);
+            postingCounts[t]++;
+            previous = id;
+        }
+
+        int blobSize = 0;
+        for (byte[] b : bytes) blobSize += b.length;
+
+        int offsetsPos = HEADER_SIZE;
+        int blobPos = offsetsPos + 4 * (bytes.size() + 1);
+        int directoryPos = blobPos + blobSize;
+        int postingsPos = directoryPos + DIRECTORY_ENTRY_SIZE * keys.length;
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(bytes.size());
+            out.writeInt(keys.length);
+            out.writeInt(offsetsPos);
+            out.writeInt(blobPos);
+            out.writeInt(directoryPos);
+            out.writeInt(postingsPos);
+            out.writeInt(postings.size());
+
+            int offset = 0;
+            for (byte[] b : bytes) {
+                out.writeInt(offset);
+                offset += b.length;
+            }
+            out.writeInt(offset);
+
+            for (byte[] b : bytes) out.write(b);
+
+            for (int t = 0; t < keys.length; t++) {
+                out.writeLong(keys[t]);
+                out.writeInt(postingOffsets[t]);
+                out.writeInt(postingCounts[t]);
+            }
+
+            postings.writeTo(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    int size() {
+        return wordCount;
+    }
+
+    boolean contains(String word) {
+        byte[] key = word.getBytes(UTF_8);
+        return find(key, key.length) >= 0;
+    }
+
+    /**
+     * Words which start with the given word, or which the given word starts with
+     * @param word searched word
+     * @return matched words, sorted
+     */
+    List<String> prefixMatched(String word) {
+        byte[] key = word.getBytes(UTF_8);
+        List<String> matched = new ArrayList<>();
+
+        // words which are prefix of the searched word, cut at char boundaries
+        for (int len = 1; len < key.length; len++) {
+            if ((key[len] & 0xC0) == 0x80) continue;
+            int id = find(key, len);
+            if (id >= 0) matched.add(word(id));
+        }
+
+        // words having the searched word as prefix
+        int id = find(key, key.length);
+        if (id < 0) id = -id - 1;
+        while (id < wordCount && startsWith(id, key)) {
+            matched.add(word(id++));
+        }
+
+        return matched;
+    }
+
+    /**
+     * Words sharing trigrams with the searched word
+     * @param queryTrigrams packed trigrams of the searched word
+     * @param minOverlap minimum number of distinct shared trigrams
+     * @return candidate words, in id order
+     */
+    List<String> candidates(long[] queryTrigrams, int minOverlap) {
+        long[] distinct = unique(queryTrigrams.clone());
+
+        int[] ids = new int[16];
+        int n = 0;
+        for (long trigram : distinct) {
+            int t = findTrigram(trigram);
+            if (t < 0) continue;
+
+            int entry = directoryPos + t * DIRECTORY_ENTRY_SIZE;
+            int pos = postingsPos + buffer.getInt(entry + 8);
+            int count = buffer.getInt(entry + 12);
+
+            if (ids.length < n + count) ids = Arrays.copyOf(ids, Math.max(ids.length * 2, n + count));
+
+            int id = 0;
+            for (int i = 0; i < count; i++) {
+                // varint
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = buffer.get(pos++);
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+
+                id += delta;
+                ids[n++] = id;
+            }
+        }
+        Arrays.sort(ids, 0, n);
+
+        List<String> candidates = new ArrayList<>();
+        int i = 0;
+        while (i < n) {
+            int j = i;
+            while (j < n && ids[j] == ids[i]) j++;
+            if (j - i >= minOverlap) candidates.add(word(ids[i]));
+            i = j;
+        }
+
+        return candidates;
+    }
+
+    private String word(int id) {
+        int start = buffer.getInt(offsetsPos + 4 * id);
+        int end = buffer.getInt(offsetsPos + 4 * (id + 1));
+        byte[] b = new byte[end - start];
+        for (int i = 0; i < b.length; i++) b[i] = buffer.get(blobPos + start + i);
+        return new String(b, UTF_8);
+    }
+
+    /**
+     * Binary search a word
+     * @return word id, or {@code -(insertion point) - 1} if not found
+     */
+    private int find(byte[] key, int length) {
+        int lo = 0;
+        int hi = wordCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compare(mid, key, length);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    private int compare(int id, byte[] key, int length) {
+        int start = blobPos + buffer.getInt(offsetsPos + 4 * id);
+        int end = blobPos + buffer.getInt(offsetsPos + 4 * (id + 1));
+
+        int n = Math.min(end - start, length);
+        for (int i = 0; i < n; i++) {
+            int a = buffer.get(start + i) & 0xFF;
+            int b = key[i] & 0xFF;
+            if (a != b) return a - b;
+        }
+        return (end - start) - length;
+    }
+
+    private boolean startsWith(int id, byte[] key) {
+        int start = blobPos + buffer.getInt(offsetsPos + 4 * id);
+        int end = blobPos + buffer.getInt(offsetsPos + 4 * (id + 1));
+        if (end - start < key.length) return false;
+
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(start + i) != key[i]) return false;
+        }
+        return true;
+    }
+
+    private int findTrigram(long trigram) {
+        int lo = 0;
+        int hi = trigramCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long key = buffer.getLong(directoryPos + mid * DIRECTORY_ENTRY_SIZE);
+            if (key < trigram) lo = mid + 1;
+            else if (key > trigram) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static long[] unique(long[] values) {
+        Arrays.sort(values);
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (n == 0 || values[i] != values[n - 1]) values[n++] = values[i];
+        }
+        return n == values.length ? values : Arrays.copyOf(values, n);
+    }
+
+    private static final Comparator<byte[]> BYTES = new Comparator<byte[]>() {
+        @Override
+        public int compare(byte[] a, byte[] b) {
+            int n = Math.min(a.length, b.length);
+            for (int i = 0; i < n; i++) {
+                int c = (a[i] & 0xFF) - (b[i] & 0xFF);
+                if (c != 0) return c;
+            }
+            return a.length - b.length;
+        }
+    };
+}
@@ -1,6 +1,9 @@
 package media.uqab.fuzzybleJava;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Helper class for fuzzy match
@@ -14,15 +17,207 @@ class FuzzyUtils {
      * @param word searched word
      * @param words fuzzy matched words
      * @param similarity {@linkplain Similarity} to check match
-     * @return filtered words
+     * @return filtered words, most similar first
      */
     public static List<String> filterFuzzyMatched(final String word, List<String> words, Similarity similarity) {
-        List<String> fuzzyWords = MyStream.of(words)
-                .filter(fuzzyWord -> similarity.isSimilar(word, fuzzyWord))
-                .toList();
+        return filterFuzzyMatched(word, words, similarity, Integer.MAX_VALUE);
+    }
 
-        fuzzyWords.sort(similarity::similarityIndex);
+    /**
+     * Filter words based on {@linkplain Similarity} index.
+     * @param word searched word
+     * @param words fuzzy matched words
+     * @param similarity {@linkplain Similarity} to check match
+     * @param limit maximum number of words to return
+     * @return at most `limit` filtered words, most similar first
+     */
+    public static List<String> filterFuzzyMatched(final String word, List<String> words, Similarity similarity, int limit) {
+        List<String> fuzzyWords = new ArrayList<>();
+        for (ScoredWord scored : rankFuzzyMatched(word, words, similarity, limit)) {
+            fuzzyWords.add(scored.word);
+        }
 
         return fuzzyWords;
     }
+
+    /**
+     * Score every candidate once and keep the best ones.
+     *
+     * <p>
+     * Duplicated candidates are scored only once. Words with equal
+     * score keep the order in which they were given.
+     * @param word searched word
+     * @param words fuzzy matched words
+     * @param similarity {@linkplain Similarity} to score with
+     * @param limit maximum number of words to keep
+     * @return at most `limit` similar words, highest score first
+     */
+    static List<ScoredWord> rankFuzzyMatched(final String word, List<String> words, Similarity similarity, int limit) {
+        List<ScoredWord> ranked = new ArrayList<>();
+        if (limit <= 0 || words.isEmpty()) return ranked;
+
+        // bounded min heap of (score, position), worst kept word at root
+        int capacity = Math.min(limit, words.size());
+        int[] scores = new int[capacity];
+        int[] positions = new int[capacity];
+        int size = 0;
+
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < words.size(); i++) {
+            String candidate = words.get(i);
+            if (!seen.add(candidate)) continue;
+
+            int score = similarity.score(word, candidate);
+            if (score == Similarity.NOT_SIMILAR) continue;
+
+            if (size < capacity) {
+                scores[size] = score;
+                positions[size] = i;
+                siftUp(scores, positions, size++);
+            } else if (isWorse(scores[0], positions[0], score, i)) {
+                scores[0] = score;
+                positions[0] = i;
+                siftDown(scores, positions, size);
+            }
+        }
+
+        ScoredWord[] best = new ScoredWord[size];
+        while (size > 0) {
+            best[size - 1] = new ScoredWord(words.get(positions[0]), scores[0]);
+            size--;
+            scores[0] = scores[size];
+            positions[0] = positions[size];
+            siftDown(scores, positions, size);
+        }
+
+        for (ScoredWord scored : best) ranked.add(scored);
+        return ranked;
+    }
+
+    /**
+     * Minimum number of distinct trigrams a word must share with the searched
+     * word to be within the threshold of the {@linkplain Similarity}.
+     *
+     * <p>
+     * Follows the q-gram lemma: a single edit destroys at most three trigrams
+     * of the searched word.
+     * @param distinctTrigrams number of distinct trigrams of the searched word
+     * @param similarity {@linkplain Similarity} candidates will be checked with
+     * @return minimum shared trigrams, at least 1
+     */
+    static int minSharedTrigrams(int distinctTrigrams, Similarity similarity) {
+        int threshold = similarity.getThresholdDistance();
+        if (threshold < 0) return 1;
+
+        return Math.max(1, distinctTrigrams - 3 * threshold);
+    }
+
+    /**
+     * Build a query for the words which start with the searched word, or
+     * which the searched word starts with.
+     *
+     * <p>
+     * The first half is a range scan and the second half point lookups of
+     * the searched word's own prefixes, so both are served by an index on
+     * {@code word} instead of scanning the table with {@code LIKE}.
+     * Matching is case-sensitive, like the exact match.
+     * @param table table having a {@code word} column
+     * @param word searched word
+     * @param args receives the arguments of the query
+     * @return the query, selecting distinct words
+     */
+    static String prefixMatchQuery(String table, String word, List<String> args) {
+        // U+10FFFF sorts after every char a word can continue with
+        StringBuilder sb = new StringBuilder();
+        sb.append("SELECT word FROM ").append(table)
+                .append(" WHERE word >= ? AND word < ? || char(1114111)");
+        args.add(word);
+        args.add(word);
+
+        // prefixes cut at code point boundaries
+        StringBuilder in = new StringBuilder();
+        for (int i = word.offsetByCodePoints(0, 1); i < word.length(); i = word.offsetByCodePoints(i, 1)) {
+            in.append(in.length() == 0 ? "?" : ", ?");
+            args.add(word.substring(0, i));
+        }
+        if (in.length() > 0) {
+            sb.append(" UNION SELECT word FROM ").append(table).append(" WHERE word IN (").append(in).append(")");
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Truncate a list of suggestions
+     * @param words suggestions
+     * @param limit maximum number of words to return
+     * @return the first `limit` words
+     */
+    static List<String> limit(List<String> words, int limit) {
+        if (words.size() <= limit) return words;
+        return new ArrayList<>(words.subList(0, Math.max(limit, 0)));
+    }
+
+    /**
+     * Merge the sorted words of a loaded index with the ones added after it
+     * @param loaded words of the loaded index, sorted
+     * @param added words added after it, sorted
+     * @param removed words removed from the loaded index after it
+     * @return the words of both without the removed ones, sorted
+     */
+    static List<String> mergeSorted(List<String> loaded, List<String> added, Set<String> removed) {
+        if (added.isEmpty() && removed.isEmpty()) return loaded;
+
+        List<String> merged = new ArrayList<>(loaded.size() + added.size());
+        int i = 0, j = 0;
+        while (i < loaded.size() || j < added.size()) {
+            int c = i == loaded.size() ? 1 : j == added.size() ? -1 : loaded.get(i).compareTo(added.get(j));
+            if (c <= 0) {
+                String w = loaded.get(i++);
+                if (c == 0) j++;
+                if (c == 0 || !removed.contains(w)) merged.add(w);
+            } else {
+                merged.add(added.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private static boolean isWorse(int score1, int position1, int score2, int position2) {
+        if (score1 != score2) return score1 < score2;
+        return position1 > position2;
+    }
+
+    private static void siftUp(int[] scores, int[] positions, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!isWorse(scores[i], positions[i], scores[parent], positions[parent])) break;
+            swap(scores, positions, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] scores, int[] positions, int size) {
+        int i = 0;
+        while (true) {
+            int worst = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && isWorse(scores[left], positions[left], scores[worst], positions[worst])) worst = left;
+            if (right < size && isWorse(scores[right], positions[right], scores[worst], positions[worst])) worst = right;
+            if (worst == i) return;
+            swap(scores, positions, i, worst);
+            i = worst;
+        }
+    }
+
+    private static void swap(int[] scores, int[] positions, int i, int j) {
+        int s = scores[i];
+        scores[i] = scores[j];
+        scores[j] = s;
+
+        int p = positions[i];
+        positions[i] = positions[j];
+        positions[j] = p;
+    }
 }
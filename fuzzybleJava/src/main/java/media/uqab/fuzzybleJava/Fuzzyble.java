@@ -13,4 +13,102 @@ public interface Fuzzyble {
     SqlCursor onQuery(final String query, String[] args);
 
     void onExecute(final String sql, String[] args);
+
+    /**
+     * Compile a statement to run it many times with different arguments.
+     *
+     * <p>
+     * Implement to return a real prepared statement, so the sql is parsed once
+     * and arguments are bound instead of substituted. By default the statement
+     * runs {@linkplain Fuzzyble#onQuery} or {@linkplain Fuzzyble#onExecute} with
+     * the sql on every call.
+     * @param sql statement with `?` placeholders
+     * @return the statement, closed by the caller when not needed anymore
+     */
+    default SqlStatement onPrepare(final String sql) {
+        final Fuzzyble database = this;
+        return new SqlStatement() {
+            @Override
+            public void execute(String[] args) {
+                database.onExecute(sql, args);
+            }
+
+            @Override
+            public SqlCursor query(String[] args) {
+                return database.onQuery(sql, args);
+            }
+
+            @Override
+            public void close() {}
+        };
+    }
+
+    /**
+     * Count the rows of a table, to report the progress of populating it.
+     *
+     * <p>
+     * By default the row count ANALYZE keeps in {@code sqlite_stat1} is used if the
+     * table was analyzed, otherwise the rows are counted with {@code COUNT(*)}.
+     * Implement to return a cheaper estimate, it only needs to be close.
+     * @param table table or view name
+     * @return number of rows, 0 if unknown
+     */
+    default long onCount(final String table) {
+        // the first number of a stat is the number of rows, partial indexes have less
+        long estimate = 0;
+        try {
+            SqlCursor stat = onQuery("SELECT stat FROM sqlite_stat1 WHERE tbl = ?", new String[]{table});
+            if (stat != null) {
+                while (stat.moveToNext()) {
+                    String s = stat.getString(0);
+                    if (s == null) continue;
+
+                    int end = s.indexOf(' ');
+                    estimate = Math.max(estimate, Long.parseLong(end < 0 ? s : s.substring(0, end)));
+                }
+                stat.close();
+            }
+        } catch (Exception ignore) {
+            // not analyzed
+        }
+        if (estimate > 0) return estimate;
+
+        long count = 0;
+        try {
+            SqlCursor cursor = onQuery("SELECT COUNT(*) FROM " + table);
+            if (cursor != null) {
+                if (cursor.moveToNext()) count = Long.parseLong(cursor.getString(0));
+                cursor.close();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return count;
+    }
+
+    /**
+     * Start a transaction, the following {@linkplain Fuzzyble#onExecute} calls are
+     * committed together by {@linkplain Fuzzyble#commitBatch}.
+     *
+     * <p>
+     * Implement to group the many small writes of populating a column, otherwise
+     * every statement runs in its own implicit transaction. Does nothing by default.
+     *
+     * <p>
+     * An interrupted populate or sync is resumed from its last checkpoint only if
+     * {@linkplain Fuzzyble#rollbackBatch} discards the writes after it. Without
+     * transactions the words written after it would be counted again, so the column
+     * is recreated and populated from the start instead.
+     */
+    default void beginBatch() {}
+
+    /**
+     * Commit the transaction started by {@linkplain Fuzzyble#beginBatch}.
+     */
+    default void commitBatch() {}
+
+    /**
+     * Discard the transaction started by {@linkplain Fuzzyble#beginBatch}.
+     */
+    default void rollbackBatch() {}
 }
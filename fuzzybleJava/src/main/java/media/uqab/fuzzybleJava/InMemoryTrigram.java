@@ -0,0 +1,262 @@
+package media.uqab.fuzzybleJava;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram strategy which answers queries from an in-memory index.
+ *
+ * <p>
+ * Only the vocabulary is stored in the mutable database. The trigram
+ * postings are built in memory the first time a column is searched and
+ * kept for the lifetime of this object, so suggestions don't touch the
+ * database afterwards. Suitable for read-heavy usage where the vocabulary
+ * of the column fits in memory.
+ *
+ * <p>
+ * Words inserted or removed later are searched from a small delta index next
+ * to the loaded one, which is rebuilt only once the delta grows too large.
+ */
+public class InMemoryTrigram implements Strategy {
+    // changes kept beside the loaded index before it is rebuilt, at least
+    private static final int MIN_DELTA_WORDS = 1024;
+    // or this fraction of the loaded words
+    private static final int DELTA_FRACTION = 16;
+
+    private final Similarity similarity;
+    private final Map<String, Entry> indexes = new HashMap<>();
+    private final StatementCache statements = new StatementCache();
+
+    public InMemoryTrigram() {
+        this.similarity = new BoundedLevenshtein();
+    }
+
+    public InMemoryTrigram(Similarity similarity) {
+        this.similarity = similarity;
+    }
+
+    @Override
+    public String getStrategyName() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    public boolean create(Fuzzyble database, FuzzyColumn column) {
+        vocabulary(column).create(database);
+
+        // table may have been recreated, drop what was loaded
+        statements.clear();
+        synchronized (indexes) {
+            indexes.remove(getAssociatedTables(column)[0]);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean insert(Fuzzyble database, FuzzyColumn column, String text) {
+        VocabularyTable vocabulary = vocabulary(column);
+        String table = getAssociatedTables(column)[0];
+
+        boolean allInserted = true;
+        for (String word : TextHelper.splitAndFilterText(text)) {
+            if (Thread.currentThread().isInterrupted()) return false;
+
+            try {
+                vocabulary.insert(database, word);
+            } catch (Exception e) {
+                e.printStackTrace();
+                allInserted = false;
+                continue;
+            }
+
+            synchronized (indexes) {
+                Entry entry = indexes.get(table);
+                if (entry == null) continue;
+
+                // a word counted again leaves the index as it is
+                if (entry.index.contains(word)) {
+                    if (entry.removed.remove(word)) entry.view = null;
+                } else if (entry.pending.add(word)) {
+                    entry.view = null;
+                }
+            }
+        }
+
+        return allInserted;
+    }
+
+    @Override
+    public boolean remove(Fuzzyble database, FuzzyColumn column, String text) {
+        VocabularyTable vocabulary = vocabulary(column);
+        String table = getAssociatedTables(column)[0];
+
+        boolean allRemoved = true;
+        Set<String> words = new HashSet<>();
+        for (String word : TextHelper.splitAndFilterText(text)) {
+            if (Thread.currentThread().isInterrupted()) return false;
+
+            try {
+                vocabulary.remove(database, word);
+                words.add(word);
+            } catch (Exception e) {
+                e.printStackTrace();
+                allRemoved = false;
+            }
+        }
+
+        // words no text contains anymore leave the index when it is refreshed
+        for (String[] pruned : vocabulary.prune(database, words)) {
+            synchronized (indexes) {
+                Entry entry = indexes.get(table);
+                if (entry != null) {
+                    entry.pending.remove(pruned[1]);
+                    if (entry.index.contains(pruned[1])) entry.removed.add(pruned[1]);
+                    entry.view = null;
+                }
+            }
+        }
+
+        return allRemoved;
+    }
+
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, ProgressListener listener) throws IOException {
+        return populate(source, sync, column, null, listener);
+    }
+
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, Checkpoint checkpoint, ProgressListener listener) throws IOException {
+        // insert splits the texts itself, so no workers
+        Populator<String> populator = new Populator<>(text -> text, text -> {
+            if (text != null) insert(sync, column, text);
+        }, 1);
+        return populator.populate(source, column, checkpoint, listener);
+    }
+
+    @Override
+    public String[] getAssociatedTables(FuzzyColumn column) {
+        String table = "fuzzyble_" + getStrategyName().toLowerCase() + column;
+        return new String[]{ table };
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word) {
+        return getSuggestions(database, column, word, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word, int limit) {
+        View index = index(database, column);
+
+        // return exact matched if found
+        if (index.contains(word)) {
+            List<String> exact = new ArrayList<>();
+            exact.add(word);
+            return FuzzyUtils.limit(exact, limit);
+        }
+
+        // return partial match if found
+        List<String> partial = index.prefixMatched(word);
+        if (!partial.isEmpty()) return FuzzyUtils.limit(partial, limit);
+
+        // now try fuzzy
+        long[] packed = TextHelper.packedTrigrams(word);
+
+        // only words sharing enough trigrams can be within the threshold
+        int minOverlap = FuzzyUtils.minSharedTrigrams(packed.length, similarity);
+        List<String> candidates = index.candidates(packed, minOverlap);
+        return FuzzyUtils.filterFuzzyMatched(word, candidates, similarity, limit);
+    }
+
+    /**
+     * Get the loaded index of a column with the changes after it, load or rebuild it if needed
+     */
+    private View index(Fuzzyble database, FuzzyColumn column) {
+        String table = getAssociatedTables(column)[0];
+
+        synchronized (indexes) {
+            Entry entry = indexes.get(table);
+            if (entry == null) {
+                entry = new Entry(TrigramIndex.build(vocabulary(column).load(database)));
+                indexes.put(table, entry);
+            }
+
+            // too many changes to search beside the index, merge them in
+            int changes = entry.pending.size() + entry.removed.size();
+            if (changes > Math.max(MIN_DELTA_WORDS, entry.index.size() / DELTA_FRACTION)) {
+                List<String> words = new ArrayList<>(entry.index.size() + entry.pending.size());
+                for (String w : entry.index.words()) {
+                    if (!entry.removed.contains(w)) words.add(w);
+                }
+                words.addAll(entry.pending);
+
+                entry.index = TrigramIndex.build(words);
+                entry.pending.clear();
+                entry.removed.clear();
+                entry.view = null;
+            }
+
+            if (entry.view == null) {
+                entry.view = new View(entry.index, TrigramIndex.build(entry.pending), new HashSet<>(entry.removed));
+            }
+            return entry.view;
+        }
+    }
+
+    private VocabularyTable vocabulary(FuzzyColumn column) {
+        return new VocabularyTable(getAssociatedTables(column)[0], statements);
+    }
+
+    /**
+     * Loaded index and the words inserted or removed after it was built
+     */
+    private static class Entry {
+        private TrigramIndex index;
+        private final Set<String> pending = new LinkedHashSet<>();
+        private final Set<String> removed = new HashSet<>();
+        private View view; // null if changed since
+
+        Entry(TrigramIndex index) {
+            this.index = index;
+        }
+    }
+
+    /**
+     * Immutable view of a loaded index, the words inserted after it and the ones removed from it
+     */
+    private static class View {
+        private final TrigramIndex index;
+        private final TrigramIndex delta;
+        private final Set<String> removed;
+
+        View(TrigramIndex index, TrigramIndex delta, Set<String> removed) {
+            this.index = index;
+            this.delta = delta;
+            this.removed = removed;
+        }
+
+        boolean contains(String word) {
+            return delta.contains(word) || (index.contains(word) && !removed.contains(word));
+        }
+
+        /**
+         * @see TrigramIndex#prefixMatched
+         */
+        List<String> prefixMatched(String word) {
+            return FuzzyUtils.mergeSorted(index.prefixMatched(word), delta.prefixMatched(word), removed);
+        }
+
+        /**
+         * @see TrigramIndex#candidates
+         */
+        List<String> candidates(long[] queryTrigrams, int minOverlap) {
+            return FuzzyUtils.mergeSorted(index.candidates(queryTrigrams, minOverlap), delta.candidates(queryTrigrams, minOverlap), removed);
+        }
+    }
+}
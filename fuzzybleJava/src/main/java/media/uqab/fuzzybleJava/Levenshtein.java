@@ -17,6 +17,11 @@ class Levenshtein implements Similarity {
         this.thresholdDistance = thresholdDistance;
     }
 
+    @Override
+    public int getThresholdDistance() {
+        return thresholdDistance;
+    }
+
     @Override
     public boolean isSimilar(String w1, String w2) {
         return distance(w1, w2) <= thresholdDistance;
@@ -0,0 +1,269 @@
+package media.uqab.fuzzybleJava;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Strategy which matches the searched word as a Levenshtein automaton
+ * against a trie of the vocabulary.
+ *
+ * <p>
+ * Only the vocabulary is stored in the mutable database. The trie is built
+ * in memory the first time a column is searched, and exact, partial and
+ * fuzzy matches are all answered by walking it: there is no candidate
+ * list to verify, a fuzzy search only follows the branches which can still
+ * be within the distance.
+ *
+ * <p>
+ * Suggestions are ranked by Levenshtein distance.
+ *
+ * <p>
+ * Words inserted or removed later are searched from a small delta trie next
+ * to the loaded one, which is rebuilt only once the delta grows too large.
+ */
+public class LevenshteinAutomaton implements Strategy {
+    // changes kept beside the loaded trie before it is rebuilt, at least
+    private static final int MIN_DELTA_WORDS = 1024;
+    // or this fraction of the loaded words
+    private static final int DELTA_FRACTION = 16;
+
+    private final int maxDistance;
+    private final Map<String, Entry> tries = new HashMap<>();
+    private final StatementCache statements = new StatementCache();
+
+    public LevenshteinAutomaton() {
+        this(2);
+    }
+
+    /**
+     * @param maxDistance largest Levenshtein distance of fuzzy matches
+     */
+    public LevenshteinAutomaton(int maxDistance) {
+        this.maxDistance = maxDistance;
+    }
+
+    @Override
+    public String getStrategyName() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    public boolean create(Fuzzyble database, FuzzyColumn column) {
+        vocabulary(column).create(database);
+
+        // table may have been recreated, drop what was loaded
+        statements.clear();
+        synchronized (tries) {
+            tries.remove(getAssociatedTables(column)[0]);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean insert(Fuzzyble database, FuzzyColumn column, String text) {
+        VocabularyTable vocabulary = vocabulary(column);
+        String table = getAssociatedTables(column)[0];
+
+        boolean allInserted = true;
+        for (String word : TextHelper.splitAndFilterText(text)) {
+            if (Thread.currentThread().isInterrupted()) return false;
+
+            try {
+                vocabulary.insert(database, word);
+            } catch (Exception e) {
+                e.printStackTrace();
+                allInserted = false;
+                continue;
+            }
+
+            synchronized (tries) {
+                Entry entry = tries.get(table);
+                if (entry == null) continue;
+
+                // a word counted again leaves the trie as it is
+                if (entry.trie.contains(word)) {
+                    if (entry.removed.remove(word)) entry.view = null;
+                } else if (entry.pending.add(word)) {
+                    entry.view = null;
+                }
+            }
+        }
+
+        return allInserted;
+    }
+
+    @Override
+    public boolean remove(Fuzzyble database, FuzzyColumn column, String text) {
+        VocabularyTable vocabulary = vocabulary(column);
+        String table = getAssociatedTables(column)[0];
+
+        boolean allRemoved = true;
+        Set<String> words = new HashSet<>();
+        for (String word : TextHelper.splitAndFilterText(text)) {
+            if (Thread.currentThread().isInterrupted()) return false;
+
+            try {
+                vocabulary.remove(database, word);
+                words.add(word);
+            } catch (Exception e) {
+                e.printStackTrace();
+                allRemoved = false;
+            }
+        }
+
+        // words no text contains anymore leave the trie when it is refreshed
+        for (String[] pruned : vocabulary.prune(database, words)) {
+            synchronized (tries) {
+                Entry entry = tries.get(table);
+                if (entry != null) {
+                    entry.pending.remove(pruned[1]);
+                    if (entry.trie.contains(pruned[1])) entry.removed.add(pruned[1]);
+                    entry.view = null;
+                }
+            }
+        }
+
+        return allRemoved;
+    }
+
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, ProgressListener listener) throws IOException {
+        return populate(source, sync, column, null, listener);
+    }
+
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, Checkpoint checkpoint, ProgressListener listener) throws IOException {
+        // insert splits the texts itself, so no workers
+        Populator<String> populator = new Populator<>(text -> text, text -> {
+            if (text != null) insert(sync, column, text);
+        }, 1);
+        return populator.populate(source, column, checkpoint, listener);
+    }
+
+    @Override
+    public String[] getAssociatedTables(FuzzyColumn column) {
+        String table = "fuzzyble_" + getStrategyName().toLowerCase() + column;
+        return new String[]{ table };
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word) {
+        return getSuggestions(database, column, word, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word, int limit) {
+        View view = trie(database, column);
+
+        // return exact matched if found
+        if (view.contains(word)) {
+            List<String> exact = new ArrayList<>();
+            exact.add(word);
+            return FuzzyUtils.limit(exact, limit);
+        }
+
+        // return partial match if found
+        List<String> partial = view.prefixMatched(word);
+        if (!partial.isEmpty()) return FuzzyUtils.limit(partial, limit);
+
+        // now try fuzzy
+        return FuzzyUtils.limit(view.search(word, maxDistance), limit);
+    }
+
+    /**
+     * Get the loaded trie of a column with the changes after it, load or rebuild it if needed
+     */
+    private View trie(Fuzzyble database, FuzzyColumn column) {
+        String table = getAssociatedTables(column)[0];
+
+        synchronized (tries) {
+            Entry entry = tries.get(table);
+            if (entry == null) {
+                entry = new Entry(WordTrie.build(vocabulary(column).load(database)));
+                tries.put(table, entry);
+            }
+
+            // too many changes to search beside the trie, merge them in
+            int changes = entry.pending.size() + entry.removed.size();
+            if (changes > Math.max(MIN_DELTA_WORDS, entry.trie.size() / DELTA_FRACTION)) {
+                List<String> words = entry.trie.words();
+                words.removeAll(entry.removed);
+                words.addAll(entry.pending);
+
+                entry.trie = WordTrie.build(words);
+                entry.pending.clear();
+                entry.removed.clear();
+                entry.view = null;
+            }
+
+            if (entry.view == null) {
+                entry.view = new View(entry.trie, WordTrie.build(entry.pending), new HashSet<>(entry.removed));
+            }
+            return entry.view;
+        }
+    }
+
+    private VocabularyTable vocabulary(FuzzyColumn column) {
+        return new VocabularyTable(getAssociatedTables(column)[0], statements);
+    }
+
+    /**
+     * Loaded trie and the words inserted or removed after it was built
+     */
+    private static class Entry {
+        private WordTrie trie;
+        private final Set<String> pending = new LinkedHashSet<>();
+        private final Set<String> removed = new HashSet<>();
+        private View view; // null if changed since
+
+        Entry(WordTrie trie) {
+            this.trie = trie;
+        }
+    }
+
+    /**
+     * Immutable view of a loaded trie, the words inserted after it and the ones removed from it
+     */
+    private static class View {
+        private final WordTrie trie;
+        private final WordTrie delta;
+        private final Set<String> removed;
+
+        View(WordTrie trie, WordTrie delta, Set<String> removed) {
+            this.trie = trie;
+            this.delta = delta;
+            this.removed = removed;
+        }
+
+        boolean contains(String word) {
+            return delta.contains(word) || (trie.contains(word) && !removed.contains(word));
+        }
+
+        /**
+         * @see WordTrie#prefixMatched
+         */
+        List<String> prefixMatched(String word) {
+            return FuzzyUtils.mergeSorted(trie.prefixMatched(word), delta.prefixMatched(word), removed);
+        }
+
+        /**
+         * @see WordTrie#search
+         */
+        List<String> search(String word, int maxDistance) {
+            List<List<String>> loaded = trie.searchByDistance(word, maxDistance);
+            List<List<String>> added = delta.searchByDistance(word, maxDistance);
+
+            List<String> matched = new ArrayList<>();
+            for (int d = 0; d <= maxDistance; d++) {
+                matched.addAll(FuzzyUtils.mergeSorted(loaded.get(d), added.get(d), removed));
+            }
+            return matched;
+        }
+    }
+}
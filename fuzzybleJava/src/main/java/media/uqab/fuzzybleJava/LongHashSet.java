@@ -0,0 +1,55 @@
+package media.uqab.fuzzybleJava;
+
+/**
+ * Set of {@code long} values without boxing, by open addressing.
+ *
+ * <p>
+ * Used for packed trigrams, {@code 0} can't be stored since it marks the
+ * empty slots. Only three NUL chars pack to 0, which no word contains.
+ */
+class LongHashSet {
+    private long[] slots = new long[64];
+    private int size = 0;
+
+    /**
+     * @param value value to add, not 0
+     * @return true if the value wasn't in the set
+     */
+    boolean add(long value) {
+        if ((size + 1) * 2 > slots.length) grow();
+
+        int i = slot(slots, value);
+        if (slots[i] == value) return false;
+
+        slots[i] = value;
+        size++;
+        return true;
+    }
+
+    boolean contains(long value) {
+        return slots[slot(slots, value)] == value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        for (long value : old) {
+            if (value != 0) slots[slot(slots, value)] = value;
+        }
+    }
+
+    /**
+     * Slot holding the value, or the empty slot where it belongs
+     */
+    private static int slot(long[] slots, long value) {
+        int mask = slots.length - 1;
+        long h = value * 0x9E3779B97F4A7C15L;
+        int i = (int) (h ^ (h >>> 32)) & mask;
+        while (slots[i] != 0 && slots[i] != value) i = (i + 1) & mask;
+        return i;
+    }
+}
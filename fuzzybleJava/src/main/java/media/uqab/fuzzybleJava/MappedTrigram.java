@@ -0,0 +1,84 @@
+package media.uqab.fuzzybleJava;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only strategy serving suggestions from a prebuilt index file.
+ *
+ * <p>
+ * The file is created with {@linkplain FuzzyCursor#exportFuzzyIndex} and
+ * memory mapped when this strategy is constructed. Queries read it in place,
+ * without SQL, so memory usage is left to the OS page cache.
+ *
+ * <p>
+ * Nothing is stored in the database: {@linkplain MappedTrigram#insert} and
+ * {@linkplain MappedTrigram#populate} do nothing and return false.
+ */
+public class MappedTrigram implements Strategy {
+    private final Similarity similarity;
+    private final FuzzyIndexFile index;
+
+    public MappedTrigram(File indexFile) throws IOException {
+        this(indexFile, new BoundedLevenshtein());
+    }
+
+    public MappedTrigram(File indexFile, Similarity similarity) throws IOException {
+        this.similarity = similarity;
+        this.index = FuzzyIndexFile.open(indexFile);
+    }
+
+    @Override
+    public String getStrategyName() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    public boolean create(Fuzzyble database, FuzzyColumn column) {
+        return true;
+    }
+
+    @Override
+    public boolean insert(Fuzzyble database, FuzzyColumn column, String text) {
+        return false;
+    }
+
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, ProgressListener listener) throws IOException {
+        return false;
+    }
+
+    @Override
+    public String[] getAssociatedTables(FuzzyColumn column) {
+        return new String[0];
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word) {
+        return getSuggestions(database, column, word, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word, int limit) {
+        // return exact matched if found
+        if (index.contains(word)) {
+            List<String> exact = new ArrayList<>();
+            exact.add(word);
+            return FuzzyUtils.limit(exact, limit);
+        }
+
+        // return partial match if found
+        List<String> partial = index.prefixMatched(word);
+        if (!partial.isEmpty()) return FuzzyUtils.limit(partial, limit);
+
+        // now try fuzzy
+        long[] packed = TextHelper.packedTrigrams(word);
+
+        // only words sharing enough trigrams can be within the threshold
+        int minOverlap = FuzzyUtils.minSharedTrigrams(packed.length, similarity);
+        List<String> candidates = index.candidates(packed, minOverlap);
+        return FuzzyUtils.filterFuzzyMatched(word, candidates, similarity, limit);
+    }
+}
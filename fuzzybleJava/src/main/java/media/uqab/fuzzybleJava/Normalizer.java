@@ -0,0 +1,27 @@
+package media.uqab.fuzzybleJava;
+
+import java.io.Serializable;
+
+/**
+ * How the texts of a {@linkplain FuzzyColumn} are normalized before they are
+ * split into words.
+ *
+ * <p>
+ * Texts are normalized once when they are indexed and every searched word
+ * once before it is looked up, so words differing only by what the
+ * normalizer removes are stored and found as one. Changing the normalizer of
+ * a populated column requires populating it again.
+ */
+public interface Normalizer extends Serializable {
+    /**
+     * Keeps the texts as they are
+     */
+    Normalizer NONE = new FoldingNormalizer(0);
+
+    /**
+     * Normalize a text
+     * @param text text to normalize, may be null
+     * @return the normalized text, null if the text is null
+     */
+    String normalize(String text);
+}
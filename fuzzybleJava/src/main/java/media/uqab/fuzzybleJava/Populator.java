@@ -0,0 +1,269 @@
+package media.uqab.fuzzybleJava;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Populate loop shared by the strategies.
+ *
+ * <p>
+ * The texts of a column are split into the rows to write on a
+ * {@linkplain ForkJoinPool}, while the calling thread keeps reading the source
+ * cursor and writing the split rows in the order they were read. At most
+ * {@code window} texts are in flight, reading waits for the oldest one to be
+ * written when the window is full.
+ *
+ * <p>
+ * Reading and writing stay on the calling thread, since the databases are
+ * usually single connections which are inside a batch while populating.
+ *
+ * <p>
+ * With a {@linkplain Checkpoint} the source is read in rowid order, one chunk
+ * at a time, and the checkpoint is saved after every chunk. Rows of a chunk
+ * which was interrupted are written again when resuming, so what was written
+ * of it must be discarded, e.g. by rolling back to the last checkpoint, since
+ * words are counted on every write.
+ *
+ * <p>
+ * The rows are counted by {@linkplain Fuzzyble#onCount}, which may estimate,
+ * and the progress is reported through a {@linkplain ThrottledProgress}.
+ */
+class Populator<T> {
+    private static final int TEXTS_PER_WORKER = 64;
+    static final int ROWS_PER_CHUNK = 4096;
+
+    private final TextSplitter<T> splitter;
+    private final SplitWriter<T> writer;
+    private final int parallelism;
+
+    Populator(TextSplitter<T> splitter, SplitWriter<T> writer) {
+        this(splitter, writer, Runtime.getRuntime().availableProcessors());
+    }
+
+    Populator(TextSplitter<T> splitter, SplitWriter<T> writer, int parallelism) {
+        this.splitter = splitter;
+        this.writer = writer;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Split and write every text of the column
+     * @param source database containing the column
+     * @param column column to read
+     * @param listener progress of the written texts
+     * @return false if the column can't be read or the thread was interrupted
+     * @throws IOException if splitting a text failed with a checked exception
+     */
+    boolean populate(Fuzzyble source, FuzzyColumn column, ProgressListener listener) throws IOException {
+        return populate(source, column, null, listener);
+    }
+
+    /**
+     * Split and write the texts of the column after the checkpoint
+     * @param source database containing the column
+     * @param column column to read
+     * @param checkpoint where to continue from, or null to write the whole column at once
+     * @param listener progress of the written texts
+     * @return false if the column can't be read or the thread was interrupted
+     * @throws IOException if splitting a text failed with a checked exception
+     */
+    boolean populate(Fuzzyble source, FuzzyColumn column, Checkpoint checkpoint, ProgressListener listener) throws IOException {
+        ForkJoinPool pool = parallelism == 1 ? null : new ForkJoinPool(parallelism);
+        try {
+            if (checkpoint != null) {
+                Pass pass = chunkedPass(source, column, checkpoint.lastRowId(), listener, pool);
+
+                // without a rowid, e.g. a view, the column can only be read at once
+                if (pass != null) return pass.populateChunks(source, column, checkpoint);
+            }
+
+            String dataQuery = "SELECT " + column.column + " FROM " + column.table;
+            if (checkpoint != null) checkpoint.beforeRead(0);
+
+            // get text of that columns
+            SqlCursor textCursor = source.onQuery(dataQuery);
+            if (textCursor == null) return false;
+
+            Pass pass = new Pass(column, listener, pool, source.onCount(column.table), 0);
+            boolean written;
+            try {
+                written = pass.write(textCursor, -1, 0) >= 0;
+            } finally {
+                textCursor.close();
+            }
+
+            if (written) {
+                writer.flush();
+                pass.progress.finish();
+            }
+            return written;
+        } finally {
+            if (pool != null) pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Count the rows of the column written before the checkpoint, by rowid
+     * @return the pass, or null if the table has no rowid
+     */
+    private Pass chunkedPass(Fuzzyble source, FuzzyColumn column, long lastRowId, ProgressListener listener, ForkJoinPool pool) throws IOException {
+        // only walks the rows before the checkpoint
+        String countQuery = "SELECT COUNT(*) FROM " + column.table + " WHERE rowid <= CAST(? AS INTEGER)";
+
+        SqlCursor cursor;
+        try {
+            cursor = source.onQuery(countQuery, new String[]{String.valueOf(lastRowId)});
+        } catch (RuntimeException e) {
+            return null;
+        }
+        if (cursor == null) return null;
+
+        try {
+            if (!cursor.moveToNext()) return null;
+
+            String written = cursor.getString(0);
+            return new Pass(
+                    column,
+                    listener,
+                    pool,
+                    source.onCount(column.table),
+                    written == null ? 0 : Long.parseLong(written)
+            );
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * State of one populate
+     */
+    private class Pass {
+        private final FuzzyColumn column;
+        private final ForkJoinPool pool;
+        private final ThrottledProgress progress;
+        private long lastRowId = 0;
+
+        Pass(FuzzyColumn column, ProgressListener listener, ForkJoinPool pool, long total, long written) {
+            this.column = column;
+            this.pool = pool;
+            this.progress = new ThrottledProgress(listener, total, written);
+        }
+
+        boolean populateChunks(Fuzzyble source, FuzzyColumn column, Checkpoint checkpoint) throws IOException {
+            String chunkQuery = "SELECT rowid, " + column.column + " FROM " + column.table +
+                    " WHERE rowid > CAST(? AS INTEGER) ORDER BY rowid LIMIT " + ROWS_PER_CHUNK;
+            lastRowId = checkpoint.lastRowId();
+
+            while (true) {
+                checkpoint.beforeRead(lastRowId);
+                SqlCursor chunk = source.onQuery(chunkQuery, new String[]{String.valueOf(lastRowId)});
+                if (chunk == null) return false;
+
+                int rows;
+                try {
+                    rows = write(chunk, 0, 1);
+                } finally {
+                    chunk.close();
+                }
+
+                if (rows < 0) return false;
+                if (rows == 0) {
+                    progress.finish();
+                    return true;
+                }
+
+                // the chunk is written, don't read it again
+                writer.flush();
+                checkpoint.save(lastRowId);
+
+                if (rows < ROWS_PER_CHUNK) {
+                    progress.finish();
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Split and write the texts of a cursor
+         * @param cursor rows to write
+         * @param rowIdColumn column of the rowid, -1 if not read
+         * @param textColumn column of the text
+         * @return number of rows written, -1 if interrupted
+         */
+        int write(SqlCursor cursor, int rowIdColumn, int textColumn) throws IOException {
+            int rows = 0;
+
+            // nothing to gain from a pool
+            if (pool == null) {
+                while (cursor.moveToNext()) {
+                    if (Thread.currentThread().isInterrupted()) return -1;
+
+                    long rowId = rowIdColumn < 0 ? 0 : Long.parseLong(cursor.getString(rowIdColumn));
+                    writer.write(splitter.split(column.normalize(cursor.getString(textColumn))));
+                    written(rowId);
+                    rows++;
+                }
+                return rows;
+            }
+
+            Deque<Future<T>> inFlight = new ArrayDeque<>();
+            Deque<Long> rowIds = new ArrayDeque<>();
+            int window = parallelism * TEXTS_PER_WORKER;
+
+            try {
+                boolean hasNext = cursor.moveToNext();
+                while (hasNext || !inFlight.isEmpty()) {
+                    if (Thread.currentThread().isInterrupted()) return -1;
+
+                    // keep the workers busy while the window allows
+                    if (hasNext && inFlight.size() < window) {
+                        final String text = cursor.getString(textColumn);
+                        rowIds.add(rowIdColumn < 0 ? 0 : Long.parseLong(cursor.getString(rowIdColumn)));
+                        inFlight.add(pool.submit(new Callable<T>() {
+                            @Override
+                            public T call() {
+                                return splitter.split(column.normalize(text));
+                            }
+                        }));
+                        hasNext = cursor.moveToNext();
+
+                        // write what is ready without waiting
+                        if (!inFlight.peekFirst().isDone()) continue;
+                    }
+
+                    writer.write(await(inFlight.pollFirst()));
+                    written(rowIds.pollFirst());
+                    rows++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            } finally {
+                for (Future<T> future : inFlight) future.cancel(true);
+            }
+
+            return rows;
+        }
+
+        private void written(long rowId) {
+            lastRowId = rowId;
+            progress.advance();
+        }
+    }
+
+    private T await(Future<T> future) throws InterruptedException, IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+}
@@ -2,4 +2,15 @@ package media.uqab.fuzzybleJava;
 
 public interface ProgressListener {
     void onProgress(float progress);
+
+    /**
+     * Progress of writing rows, with the rate they are written at.
+     * Implement to show the rate or the time left, by default only the progress is passed on.
+     * @param progress fraction of the rows written, from 0 to 1
+     * @param rowsPerSecond rows written per second so far
+     * @param etaMillis estimated time to write the rest, -1 if unknown
+     */
+    default void onProgress(float progress, float rowsPerSecond, long etaMillis) {
+        onProgress(progress);
+    }
 }
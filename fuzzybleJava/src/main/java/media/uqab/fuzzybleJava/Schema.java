@@ -0,0 +1,67 @@
+package media.uqab.fuzzybleJava;
+
+/**
+ * Helpers to upgrade tables created by earlier versions.
+ */
+class Schema {
+    /**
+     * Most `?` placeholders a statement can have on SQLite before 3.32, e.g. Android before API 30
+     */
+    static final int MAX_VARIABLES = 999;
+
+    /**
+     * Check if a table has a column
+     * @param database database holding the table
+     * @param table table name
+     * @param column column name
+     * @return true if the column exists
+     */
+    static boolean hasColumn(Fuzzyble database, String table, String column) {
+        return columnType(database, table, column) != null;
+    }
+
+    /**
+     * Declared type of a column
+     * @param database database holding the table
+     * @param table table name
+     * @param column column name
+     * @return the type, empty if not declared, or null if the column doesn't exist
+     */
+    static String columnType(Fuzzyble database, String table, String column) {
+        SqlCursor cursor = database.onQuery("PRAGMA table_info(" + table + ")");
+        if (cursor == null) return null;
+
+        String type = null;
+        try {
+            while (cursor.moveToNext()) {
+                // cid, name, type, notnull, dflt_value, pk
+                if (column.equalsIgnoreCase(cursor.getString(1))) {
+                    type = cursor.getString(2) == null ? "" : cursor.getString(2);
+                    break;
+                }
+            }
+            cursor.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return type;
+    }
+
+    /**
+     * Add a column to an existing table and fill it for the existing rows
+     * @param database database holding the table
+     * @param table table name
+     * @param column column name
+     * @param definition type and constraints of the column
+     * @param value SQL expression computing the value of existing rows, or null to keep the default
+     */
+    static void addColumnIfMissing(Fuzzyble database, String table, String column, String definition, String value) {
+        if (hasColumn(database, table, column)) return;
+
+        database.onExecute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition, null);
+        if (value != null) {
+            database.onExecute("UPDATE " + table + " SET " + column + " = " + value, null);
+        }
+    }
+}
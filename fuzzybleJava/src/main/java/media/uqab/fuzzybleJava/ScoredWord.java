@@ -0,0 +1,19 @@
+package media.uqab.fuzzybleJava;
+
+/**
+ * A fuzzy matched word and its {@linkplain Similarity#similarityIndex} to the searched word.
+ */
+class ScoredWord {
+    final String word;
+    final int score;
+
+    ScoredWord(String word, int score) {
+        this.word = word;
+        this.score = score;
+    }
+
+    @Override
+    public String toString() {
+        return word + "(" + score + ")";
+    }
+}
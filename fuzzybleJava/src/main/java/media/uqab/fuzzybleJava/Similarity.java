@@ -4,6 +4,11 @@ package media.uqab.fuzzybleJava;
  * Class represents how the {@linkplain Fuzzyble} will check similarity between two words.
  */
 public interface Similarity {
+    /**
+     * Score returned by {@linkplain Similarity#score} for words that are not similar.
+     */
+    int NOT_SIMILAR = Integer.MIN_VALUE;
+
     /**
      * Are these two words similar or not
      * @param w1 First word
@@ -19,4 +24,31 @@ public interface Similarity {
      * @return similarity between these two words. Larger value indicates more similar.
      */
     int similarityIndex(String w1, String w2);
+
+    /**
+     * Largest edit distance at which two words are still similar.
+     *
+     * <p>
+     * Strategies use it to discard candidates before comparing them.
+     * Return a negative value if this similarity is not bounded by an
+     * edit distance, which disables such pruning.
+     * @return maximum edit distance of similar words, or -1 if unknown.
+     */
+    default int getThresholdDistance() {
+        return -1;
+    }
+
+    /**
+     * Check similarity and compute the similarity index at once.
+     *
+     * <p>
+     * Override this if both can be derived from a single computation.
+     * @param w1 First word
+     * @param w2 Second word
+     * @return {@linkplain Similarity#similarityIndex} if similar, {@linkplain Similarity#NOT_SIMILAR} otherwise.
+     */
+    default int score(String w1, String w2) {
+        if (!isSimilar(w1, w2)) return NOT_SIMILAR;
+        return similarityIndex(w1, w2);
+    }
 }
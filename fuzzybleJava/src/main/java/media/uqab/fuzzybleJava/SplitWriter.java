@@ -0,0 +1,15 @@
+package media.uqab.fuzzybleJava;
+
+/**
+ * Writes the texts split by a {@linkplain TextSplitter} while populating,
+ * called from the populating thread.
+ * @param <T> the split text
+ */
+public interface SplitWriter<T> {
+    void write(T split);
+
+    /**
+     * Write anything held back, called before a checkpoint is saved
+     */
+    default void flush() {}
+}
@@ -0,0 +1,23 @@
+package media.uqab.fuzzybleJava;
+
+import java.io.Closeable;
+
+/**
+ * A statement compiled once by {@linkplain Fuzzyble#onPrepare} and run many
+ * times with different arguments.
+ */
+public interface SqlStatement extends Closeable {
+
+    /**
+     * Run the statement as a write
+     * @param args arguments bound to the `?` placeholders, in order
+     */
+    void execute(String[] args);
+
+    /**
+     * Run the statement as a query
+     * @param args arguments bound to the `?` placeholders, in order
+     * @return cursor over the result, closing it does not close the statement
+     */
+    SqlCursor query(String[] args);
+}
@@ -0,0 +1,89 @@
+package media.uqab.fuzzybleJava;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Statements prepared by a strategy, compiled once and reused while the
+ * strategy keeps writing to the same database.
+ *
+ * <p>
+ * A statement is bound and run after it is taken from the cache, so each
+ * thread gets its own, e.g. a search never rebinds a statement a populate on
+ * another thread is running. Likewise a thread only closes its own statements,
+ * {@link #clear()} marks them stale to be closed on the next get.
+ */
+class StatementCache {
+    private final Map<Thread, Statements> threads = new HashMap<>();
+    private int generation = 0;
+
+    /**
+     * Get the compiled statement of a sql for the calling thread, prepare it if needed
+     * @param database database to run the statement on
+     * @param sql statement with `?` placeholders
+     * @return the statement
+     */
+    synchronized SqlStatement get(Fuzzyble database, String sql) {
+        Thread thread = Thread.currentThread();
+        Statements statements = threads.get(thread);
+        if (statements == null) {
+            // a new thread, drop the statements of the finished ones
+            Iterator<Map.Entry<Thread, Statements>> it = threads.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Thread, Statements> entry = it.next();
+                if (!entry.getKey().isAlive()) {
+                    entry.getValue().close();
+                    it.remove();
+                }
+            }
+
+            statements = new Statements();
+            threads.put(thread, statements);
+        }
+
+        // statements belong to the database they were prepared on, and are stale after a clear
+        if (statements.database != database || statements.generation != generation) {
+            statements.close();
+            statements.database = database;
+            statements.generation = generation;
+        }
+
+        SqlStatement statement = statements.statements.get(sql);
+        if (statement == null) {
+            statement = database.onPrepare(sql);
+            statements.statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    /**
+     * Invalidate all the statements, e.g. when the tables are recreated. Each
+     * thread closes its statements on its next get, as another thread may be running one.
+     */
+    synchronized void clear() {
+        generation++;
+    }
+
+    /**
+     * Statements of one thread
+     */
+    private static class Statements {
+        private final Map<String, SqlStatement> statements = new HashMap<>();
+        private Fuzzyble database;
+        private int generation;
+
+        void close() {
+            for (SqlStatement statement : statements.values()) {
+                try {
+                    statement.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            statements.clear();
+            database = null;
+        }
+    }
+}
@@ -10,8 +10,36 @@ public interface Strategy {
 
     boolean insert(Fuzzyble database, FuzzyColumn column, String text);
 
+    /**
+     * Remove a text inserted before. Every word is counted each time it is inserted,
+     * words whose count drops to zero are removed along with their data.
+     * Implement to support removing, by default nothing is removed.
+     * @param database database holding the fuzzy tables
+     * @param column {@linkplain FuzzyColumn} to remove from
+     * @param text text to remove
+     * @return false if not supported or not removed completely
+     */
+    default boolean remove(Fuzzyble database, FuzzyColumn column, String text) {
+        return false;
+    }
+
     boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, ProgressListener listener) throws IOException;
 
+    /**
+     * Populate the source rows after the {@linkplain Checkpoint}, saving it as the rows are written.
+     * Implement to make populating resumable, by default the whole column is populated again.
+     * @param source database containing the column
+     * @param sync database to store the fuzzy data in
+     * @param column {@linkplain FuzzyColumn} to populate
+     * @param checkpoint where to continue from
+     * @param listener {@linkplain ProgressListener} to return the progress
+     * @return false if the column wasn't populated completely
+     * @throws IOException if error occur
+     */
+    default boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, Checkpoint checkpoint, ProgressListener listener) throws IOException {
+        return populate(source, sync, column, listener);
+    }
+
     /**
      * Returns all the table names associated with this {@linkplain FuzzyColumn}
      * which will be created during {@linkplain Strategy#create} or need to be
@@ -29,4 +57,16 @@ public interface Strategy {
      * @return matched words by priority of Exact Match > Partial Match > Fuzzy Match
      */
     List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word);
+
+    /**
+     * Get at most `limit` fuzzy matched word suggestions
+     * @param database database which has implemented {@link Fuzzyble} interface
+     * @param column {@link FuzzyColumn} to perform search on.
+     * @param word searched word.
+     * @param limit maximum number of suggestions.
+     * @return matched words by priority of Exact Match &gt; Partial Match &gt; Fuzzy Match
+     */
+    default List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word, int limit) {
+        return FuzzyUtils.limit(getSuggestions(database, column, word), limit);
+    }
 }
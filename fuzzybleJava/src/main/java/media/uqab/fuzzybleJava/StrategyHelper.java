@@ -0,0 +1,77 @@
+package media.uqab.fuzzybleJava;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * What the strategies of this library share, for a {@linkplain Strategy}
+ * implemented outside of it: statements prepared once per thread, ranking of
+ * the fuzzy candidates and the resumable populate loop.
+ */
+public final class StrategyHelper {
+    private final StatementCache statements = new StatementCache();
+
+    /**
+     * Get the compiled statement of a sql for the calling thread, prepare it if needed
+     * @param database database to run the statement on
+     * @param sql statement with `?` placeholders
+     * @return the statement
+     */
+    public SqlStatement statement(Fuzzyble database, String sql) {
+        return statements.get(database, sql);
+    }
+
+    /**
+     * Drop all the statements, e.g. when the tables are recreated. Each thread
+     * closes its own the next time it gets one.
+     */
+    public void clearStatements() {
+        statements.clear();
+    }
+
+    /**
+     * Keep the most similar of the fuzzy candidates
+     * @param word searched word
+     * @param candidates fuzzy matched words
+     * @param similarity {@linkplain Similarity} to check match
+     * @param limit maximum number of words to return
+     * @return at most `limit` similar words, most similar first
+     */
+    public static List<String> rank(String word, List<String> candidates, Similarity similarity, int limit) {
+        return FuzzyUtils.filterFuzzyMatched(word, candidates, similarity, limit);
+    }
+
+    /**
+     * Truncate a list of suggestions
+     * @param words suggestions
+     * @param limit maximum number of words to return
+     * @return the first `limit` words
+     */
+    public static List<String> limit(List<String> words, int limit) {
+        return FuzzyUtils.limit(words, limit);
+    }
+
+    /**
+     * Split and write the texts of the column after the checkpoint, see {@linkplain Strategy#populate}.
+     * What is written of an interrupted chunk is discarded by the caller, e.g. rolled back.
+     * @param source database containing the column
+     * @param column column to read
+     * @param checkpoint where to continue from, or null to write the whole column at once
+     * @param listener progress of the written texts
+     * @param splitter splits the normalized texts
+     * @param writer writes the split texts
+     * @return false if the column can't be read or the thread was interrupted
+     * @throws IOException if splitting a text failed with a checked exception
+     */
+    public static <T> boolean populate(
+            Fuzzyble source,
+            FuzzyColumn column,
+            Checkpoint checkpoint,
+            ProgressListener listener,
+            TextSplitter<T> splitter,
+            SplitWriter<T> writer
+    ) throws IOException {
+        Populator<T> populator = new Populator<>(splitter, writer);
+        return populator.populate(source, column, checkpoint, listener);
+    }
+}
@@ -0,0 +1,308 @@
+package media.uqab.fuzzybleJava;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Symmetric delete strategy.
+ *
+ * <p>
+ * Every word is stored with all the strings obtained by deleting up to
+ * {@code maxDistance} chars from its first {@code prefixLength} chars. Two
+ * words within that distance always share such a delete, so the fuzzy match
+ * only looks up the deletes of the searched word instead of joining trigrams
+ * or scanning lengths. The index grows with the number of deletes per word,
+ * which {@code prefixLength} keeps bounded.
+ *
+ * <p>
+ * The distance defaults to the threshold of the {@linkplain Similarity}. Words
+ * indexed with a smaller distance than the one searched with may be missed.
+ *
+ * <p>
+ * <a href="https://github.com/wolfgarbe/SymSpell">See here</a>
+ */
+public class SymSpell implements Strategy {
+    private final Similarity similarity;
+    private final StatementCache statements = new StatementCache();
+    private final int maxDistance;
+    private final int prefixLength;
+
+    public SymSpell() {
+        this(new BoundedLevenshtein());
+    }
+
+    public SymSpell(Similarity similarity) {
+        this(similarity, 7);
+    }
+
+    /**
+     * @param similarity {@linkplain Similarity} to verify the candidates with
+     * @param prefixLength number of leading chars of a word to generate deletes from
+     */
+    public SymSpell(Similarity similarity, int prefixLength) {
+        this.similarity = similarity;
+        this.prefixLength = prefixLength;
+
+        int threshold = similarity.getThresholdDistance();
+        this.maxDistance = threshold < 0 ? 2 : threshold;
+    }
+
+    @Override
+    public String getStrategyName() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    public boolean create(Fuzzyble database, FuzzyColumn column) {
+        String[] tables = getAssociatedTables(column);
+        String wordsTable = tables[0];
+        String deletesTable = tables[1];
+
+        // tables may be recreated
+        statements.clear();
+        new VocabularyTable(wordsTable, statements).create(database);
+
+        String createDeletes = "CREATE TABLE IF NOT EXISTS " + deletesTable + "(" +
+                "del VARCHAR(255) NOT NULL, " +
+                "wId INTEGER NOT NULL, " +
+                "PRIMARY KEY(del, wId)" +
+                ") WITHOUT ROWID";
+        database.onExecute(createDeletes, null);
+        return true;
+    }
+
+    @Override
+    public boolean insert(Fuzzyble database, FuzzyColumn column, String text) {
+        String[] tables = getAssociatedTables(column);
+        VocabularyTable vocabulary = new VocabularyTable(tables[0], statements);
+
+        boolean allInserted = true;
+        for (String word : TextHelper.splitAndFilterText(text)) {
+            if (Thread.currentThread().isInterrupted()) return false;
+
+            try {
+                // deletes are only generated for new words
+                boolean exists = wordId(database, tables[0], word) != null;
+                vocabulary.insert(database, word);
+                if (exists) continue;
+
+                String id = wordId(database, tables[0], word);
+                if (id == null) {
+                    allInserted = false;
+                    continue;
+                }
+
+                insertDeletes(database, tables[1], deletes(word), id);
+            } catch (Exception e) {
+                e.printStackTrace();
+                allInserted = false;
+            }
+        }
+
+        return allInserted;
+    }
+
+    @Override
+    public boolean remove(Fuzzyble database, FuzzyColumn column, String text) {
+        String[] tables = getAssociatedTables(column);
+        VocabularyTable vocabulary = new VocabularyTable(tables[0], statements);
+
+        boolean allRemoved = true;
+        Set<String> words = new HashSet<>();
+        for (String word : TextHelper.splitAndFilterText(text)) {
+            if (Thread.currentThread().isInterrupted()) return false;
+
+            try {
+                vocabulary.remove(database, word);
+                words.add(word);
+            } catch (Exception e) {
+                e.printStackTrace();
+                allRemoved = false;
+            }
+        }
+
+        // deletes of the words no text contains anymore, by their primary key
+        String deleteSql = "DELETE FROM " + tables[1] + " WHERE del = ? AND wId = CAST(? AS INTEGER)";
+        for (String[] pruned : vocabulary.prune(database, words)) {
+            SqlStatement statement = statements.get(database, deleteSql);
+            for (String delete : deletes(pruned[1])) {
+                statement.execute(new String[]{delete, pruned[0]});
+            }
+        }
+
+        return allRemoved;
+    }
+
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, ProgressListener listener) throws IOException {
+        return populate(source, sync, column, null, listener);
+    }
+
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, Checkpoint checkpoint, ProgressListener listener) throws IOException {
+        // insert splits the texts itself, so no workers
+        Populator<String> populator = new Populator<>(text -> text, text -> {
+            if (text != null) insert(sync, column, text);
+        }, 1);
+        return populator.populate(source, column, checkpoint, listener);
+    }
+
+    @Override
+    public String[] getAssociatedTables(FuzzyColumn column) {
+        String baseName = "fuzzyble_" + getStrategyName().toLowerCase() + column;
+        String wordsTable = baseName + "_word";
+        String deletesTable = baseName + "_del";
+
+        return new String[]{wordsTable, deletesTable};
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word) {
+        return getSuggestions(database, column, word, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word, int limit) {
+        // return exact matched if found
+        List<String> exact = performExactSearch(database, column, word);
+        if (!exact.isEmpty()) return FuzzyUtils.limit(exact, limit);
+
+        // return partial match if found
+        List<String> partial = performPartialSearch(database, column, word);
+        if (!partial.isEmpty()) return FuzzyUtils.limit(partial, limit);
+
+        // now try fuzzy
+        return performFuzzySearch(database, column, word, limit);
+    }
+
+    /**
+     * All strings obtained by deleting up to {@code maxDistance} chars
+     * from the prefix of a word, including the prefix itself.
+     * @param word word to generate deletes of
+     * @return distinct deletes, the empty string excluded
+     */
+    Set<String> deletes(String word) {
+        String prefix = word.length() > prefixLength ? word.substring(0, prefixLength) : word;
+
+        Set<String> deletes = new LinkedHashSet<>();
+        deletes.add(prefix);
+
+        List<String> level = new ArrayList<>();
+        level.add(prefix);
+        for (int d = 0; d < maxDistance && !level.isEmpty(); d++) {
+            List<String> next = new ArrayList<>();
+            for (String s : level) {
+                if (s.length() <= 1) continue;
+
+                for (int i = 0; i < s.length(); i++) {
+                    String delete = s.substring(0, i) + s.substring(i + 1);
+                    if (deletes.add(delete)) next.add(delete);
+                }
+            }
+            level = next;
+        }
+
+        return deletes;
+    }
+
+    private String wordId(Fuzzyble database, String wordsTable, String word) {
+        String query = "SELECT id FROM " + wordsTable + " WHERE word = ?";
+        SqlCursor cursor = statements.get(database, query).query(new String[]{word});
+        if (cursor == null) return null;
+
+        String id = null;
+        try {
+            if (cursor.moveToNext()) id = cursor.getString(0);
+            cursor.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return id;
+    }
+
+    private void insertDeletes(Fuzzyble database, String deletesTable, Set<String> deletes, String id) {
+        String insertSql = "INSERT OR IGNORE INTO " + deletesTable + "(del, wId) VALUES (?, CAST(? AS INTEGER))";
+        SqlStatement statement = statements.get(database, insertSql);
+
+        for (String delete : deletes) {
+            statement.execute(new String[]{delete, id});
+        }
+    }
+
+    private List<String> performExactSearch(Fuzzyble database, FuzzyColumn column, String word) {
+        ArrayList<String> exact = new ArrayList<>();
+        final String wordsTable = getAssociatedTables(column)[0];
+
+        try {
+            String query = "SELECT word FROM " + wordsTable + " WHERE word = ?";
+            SqlCursor exactQuery = statements.get(database, query).query(new String[]{word});
+            while (exactQuery.moveToNext()) {
+                String s = exactQuery.getString(0);
+                exact.add(s);
+            }
+            exactQuery.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return exact;
+    }
+
+    private List<String> performPartialSearch(Fuzzyble database, FuzzyColumn column, String word) {
+        ArrayList<String> partial = new ArrayList<>();
+        final String wordsTable = getAssociatedTables(column)[0];
+
+        try {
+            List<String> args = new ArrayList<>();
+            String query = FuzzyUtils.prefixMatchQuery(wordsTable, word, args);
+            SqlCursor partialQuery = database.onQuery(query, args.toArray(new String[0]));
+            while (partialQuery.moveToNext()) {
+                String s = partialQuery.getString(0);
+                partial.add(s);
+            }
+
+            partialQuery.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return partial;
+    }
+
+    private List<String> performFuzzySearch(Fuzzyble database, FuzzyColumn column, String word, int limit) {
+        if (word.isEmpty()) return new ArrayList<>();
+
+        final String[] tables = getAssociatedTables(column);
+        final String wordsTable = tables[0];
+        final String deletesTable = tables[1];
+
+        // point lookups of the searched word's own deletes
+        Set<String> deletes = deletes(word);
+        StringBuilder in = new StringBuilder();
+        for (int i = 0; i < deletes.size(); i++) in.append(i == 0 ? "?" : ", ?");
+
+        final String query = "SELECT DISTINCT w.word FROM " + deletesTable + " d " +
+                "JOIN " + wordsTable + " w ON w.id = d.wId " +
+                "WHERE d.del IN (" + in + ")";
+
+        List<String> suggestions = new ArrayList<>();
+        try {
+            SqlCursor cursor = database.onQuery(query, deletes.toArray(new String[0]));
+            while (cursor.moveToNext()) {
+                String s = cursor.getString(0);
+                suggestions.add(s);
+            }
+
+            cursor.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return FuzzyUtils.filterFuzzyMatched(word, suggestions, similarity, limit);
+    }
+}
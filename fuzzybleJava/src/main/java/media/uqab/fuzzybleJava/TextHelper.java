@@ -2,14 +2,24 @@ package media.uqab.fuzzybleJava;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 class TextHelper {
-    private static final String specialChars = "[!@#$%^&*()_\\-+={}\\[\\]:;\"'<>,.?/\\\\|`~]";
+    // tokenizers reuse their buffer, so one per thread
+    private static final ThreadLocal<Tokenizer> tokenizers = new ThreadLocal<Tokenizer>() {
+        @Override
+        protected Tokenizer initialValue() {
+            return new Tokenizer();
+        }
+    };
+
+    /**
+     * Tokenizer of the calling thread
+     */
+    static Tokenizer tokenizer() {
+        return tokenizers.get();
+    }
 
     /**
      * Split the text and get words also remove all special characters
@@ -18,34 +28,34 @@ class TextHelper {
      * @return special char filtered out words
      */
     static String[] splitAndFilterText(String text) {
-        String[] words = text.split(" ");
-
-        return MyStream.of(Arrays.asList(words))
-                .flatMap(TextHelper::splitBySpecialChar)
-                .map(TextHelper::removeAsciiSpecialChar)
-                .filter(s -> s.length() >= 3)
-                .toList()
-                .toArray(new String[0]);
+        final List<String> words = new ArrayList<>();
+        tokenizer().words(text, (chars, start, end) -> words.add(new String(chars, start, end - start)));
+        return words.toArray(new String[0]);
     }
 
     static List<String> splitAndGetTrigrams(String word) {
-        return MyStream.of(Collections.singletonList(word))
-                .map(TextHelper::removeAsciiSpecialChar)
-                .flatMap(TextHelper::generateTrigrams)
-                .filter(s -> s.length() >= 3)
-                .toList();
-    }
-
-    private static String[] splitBySpecialChar(String word) {
-        Pattern regex = Pattern.compile(specialChars);
-        return regex.split(word.replace("\n", " "));
+        final List<String> trigrams = new ArrayList<>();
+        tokenizer().trigrams(word, (chars, start, end) -> trigrams.add(new String(chars, start, end - start)));
+        return trigrams;
     }
 
-    private static String removeAsciiSpecialChar(String word) {
-        Pattern regex = Pattern.compile(specialChars);
-        Matcher matcher = regex.matcher(word.replace("\n", " "));
+    /**
+     * Distinct trigrams of a word, packed by {@linkplain Trigrams#pack}
+     *
+     * @param word input string
+     * @return packed trigrams, sorted
+     */
+    static long[] packedTrigrams(String word) {
+        PackedTrigrams packed = new PackedTrigrams();
+        tokenizer().trigrams(word, packed);
 
-        return matcher.replaceAll("");
+        long[] trigrams = packed.trigrams;
+        Arrays.sort(trigrams, 0, packed.size);
+        int n = 0;
+        for (int i = 0; i < packed.size; i++) {
+            if (n == 0 || trigrams[i] != trigrams[n - 1]) trigrams[n++] = trigrams[i];
+        }
+        return Arrays.copyOf(trigrams, n);
     }
 
     public static String[] generateTrigrams(String word) {
@@ -55,4 +65,15 @@ class TextHelper {
         }
         return trigrams.toArray(new String[0]);
     }
+
+    private static class PackedTrigrams implements Tokenizer.SpanListener {
+        private long[] trigrams = new long[16];
+        private int size = 0;
+
+        @Override
+        public void onSpan(char[] chars, int start, int end) {
+            if (size == trigrams.length) trigrams = Arrays.copyOf(trigrams, size * 2);
+            trigrams[size++] = Trigrams.pack(chars[start], chars[start + 1], chars[start + 2]);
+        }
+    }
 }
@@ -0,0 +1,10 @@
+package media.uqab.fuzzybleJava;
+
+/**
+ * Turns a text of the column into what the {@linkplain SplitWriter} writes
+ * while populating. Called from the workers, must not touch the database.
+ * @param <T> the split text
+ */
+public interface TextSplitter<T> {
+    T split(String text);
+}
@@ -0,0 +1,79 @@
+package media.uqab.fuzzybleJava;
+
+/**
+ * Reports the progress of writing rows to a {@linkplain ProgressListener},
+ * with the rate of the rows and the estimated time left.
+ *
+ * <p>
+ * Rows are written far more often than a UI can draw them, so the progress
+ * is only reported once it moved by {@code MIN_DELTA} and {@code MIN_INTERVAL_MS}
+ * passed since the last report. The first row and the end are always reported.
+ * The total may be an estimate, the progress never goes past 1. When it can't
+ * move, the total being unknown or reached, only the interval is waited for
+ * so the rate keeps being reported.
+ */
+class ThrottledProgress {
+    static final long MIN_INTERVAL_MS = 100;
+    static final float MIN_DELTA = 0.001f;
+
+    private final ProgressListener listener;
+    private final long total;
+    private final long start;
+    private final long startTime = System.nanoTime();
+    private long written;
+    private float reported = -1f;
+    private long reportedTime = 0;
+
+    /**
+     * @param listener listener to report to
+     * @param total number of rows, 0 or less if unknown
+     * @param written rows written before, e.g. when resuming
+     */
+    ThrottledProgress(ProgressListener listener, long total, long written) {
+        this.listener = listener;
+        this.total = total;
+        this.start = written;
+        this.written = written;
+    }
+
+    /**
+     * A row is written
+     */
+    void advance() {
+        written++;
+
+        long now = System.nanoTime();
+        float progress = progress();
+        boolean first = reported < 0;
+        boolean stuck = total <= 0 || progress >= 1f;
+        if (!first && ((!stuck && progress - reported < MIN_DELTA) || now - reportedTime < MIN_INTERVAL_MS * 1_000_000L)) return;
+
+        report(progress, now);
+    }
+
+    /**
+     * Every row is written, report it even if the total was estimated wrong
+     */
+    void finish() {
+        if (reported != 1f) report(1f, System.nanoTime());
+    }
+
+    private float progress() {
+        if (total <= 0) return 0f;
+        return Math.min(1f, (float) written / total);
+    }
+
+    private void report(float progress, long now) {
+        reported = progress;
+        reportedTime = now;
+
+        long elapsed = now - startTime;
+        float rowsPerSecond = elapsed <= 0 ? 0f : (written - start) * 1e9f / elapsed;
+        long eta;
+        if (progress == 1f) eta = 0;
+        else if (rowsPerSecond <= 0 || total <= 0) eta = -1;
+        else eta = (long) (Math.max(0, total - written) * 1000 / rowsPerSecond);
+
+        listener.onProgress(progress, rowsPerSecond, eta);
+    }
+}
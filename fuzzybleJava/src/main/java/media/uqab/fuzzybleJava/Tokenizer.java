@@ -0,0 +1,109 @@
+package media.uqab.fuzzybleJava;
+
+import java.util.Arrays;
+
+/**
+ * Splits texts into words and words into trigrams in a single pass,
+ * without regular expressions or intermediate collections.
+ *
+ * <p>
+ * A word is a run of chars other than space and the ASCII special chars
+ * {@code !@#$%^&*()_-+={}[]:;"'<>,.?/\|`~}, at least 3 chars long. A newline
+ * inside a word is kept as a space. The trigrams of a word are its 3 char
+ * windows after the special chars are removed.
+ *
+ * <p>
+ * Words and trigrams are passed to a {@linkplain SpanListener} as spans of
+ * a buffer which is reused for the next word, so copy what has to be kept.
+ * A tokenizer is not thread safe, use one per thread.
+ */
+public final class Tokenizer {
+    private static final byte WORD = 0;
+    private static final byte SPACE = 1;
+    private static final byte SPECIAL = 2;
+    private static final byte NEWLINE = 3;
+
+    // class of every ASCII char, the others are word chars
+    private static final byte[] CLASSES = new byte[128];
+
+    static {
+        for (char c : "!@#$%^&*()_-+={}[]:;\"'<>,.?/\\|`~".toCharArray()) CLASSES[c] = SPECIAL;
+        CLASSES[' '] = SPACE;
+        CLASSES['\n'] = NEWLINE;
+    }
+
+    /**
+     * Receives a span of chars, valid until the listener returns
+     */
+    public interface SpanListener {
+        void onSpan(char[] chars, int start, int end);
+    }
+
+    private char[] buffer = new char[64];
+
+    /**
+     * Pass every word of the text to the listener
+     * @param text text to split
+     * @param words receives the words
+     */
+    public void words(CharSequence text, SpanListener words) {
+        words(text, words, null);
+    }
+
+    /**
+     * Pass every word of the text to the listener, each followed by its trigrams
+     * @param text text to split
+     * @param words receives the words
+     * @param trigrams receives the trigrams of the word before, may be null
+     */
+    public void words(CharSequence text, SpanListener words, SpanListener trigrams) {
+        int length = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            byte type = c < 128 ? CLASSES[c] : WORD;
+
+            if (type == SPACE || type == SPECIAL) {
+                emit(length, words, trigrams);
+                length = 0;
+                continue;
+            }
+
+            if (length == buffer.length) grow();
+            buffer[length++] = type == NEWLINE ? ' ' : c;
+        }
+        emit(length, words, trigrams);
+    }
+
+    /**
+     * Pass the trigrams of a word to the listener, after removing its special chars
+     * @param word word to split, spaces are kept
+     * @param trigrams receives the trigrams
+     */
+    public void trigrams(CharSequence word, SpanListener trigrams) {
+        int length = 0;
+        for (int i = 0, n = word.length(); i < n; i++) {
+            char c = word.charAt(i);
+            byte type = c < 128 ? CLASSES[c] : WORD;
+            if (type == SPECIAL) continue;
+
+            if (length == buffer.length) grow();
+            buffer[length++] = type == NEWLINE ? ' ' : c;
+        }
+        emitTrigrams(length, trigrams);
+    }
+
+    private void emit(int length, SpanListener words, SpanListener trigrams) {
+        if (length < 3) return;
+
+        words.onSpan(buffer, 0, length);
+        if (trigrams != null) emitTrigrams(length, trigrams);
+    }
+
+    private void emitTrigrams(int length, SpanListener trigrams) {
+        for (int i = 0; i + 3 <= length; i++) trigrams.onSpan(buffer, i, i + 3);
+    }
+
+    private void grow() {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+    }
+}
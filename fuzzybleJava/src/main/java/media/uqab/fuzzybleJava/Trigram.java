@@ -2,14 +2,18 @@ package media.uqab.fuzzybleJava;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Deprecated
 public class Trigram implements Strategy {
     private final Similarity similarity;
+    private final StatementCache statements = new StatementCache();
 
     public Trigram() {
-        this.similarity = new Levenshtein();
+        this.similarity = new BoundedLevenshtein();
     }
 
     public Trigram(Similarity similarity) {
@@ -23,30 +27,112 @@ public class Trigram implements Strategy {
 
     @Override
     public boolean create(Fuzzyble database, FuzzyColumn column) {
-        String sql = "CREATE TABLE IF NOT EXISTS " + getAssociatedTables(column)[0] + "(" +
-                "trigram VARCHAR(10) NOT NULL, " +
+        // table may be recreated
+        statements.clear();
+
+        String table = getAssociatedTables(column)[0];
+
+        // tables created when the trigrams were stored as text are rebuilt
+        String trigramType = Schema.columnType(database, table, "trigram");
+        boolean textTrigrams = trigramType != null && !trigramType.equalsIgnoreCase("INTEGER");
+        if (textTrigrams) {
+            database.onExecute("ALTER TABLE " + table + " RENAME TO " + table + "_text", null);
+            database.onExecute("DROP INDEX IF EXISTS " + table + "_len", null);
+            database.onExecute("DROP INDEX IF EXISTS " + table + "_word", null);
+        }
+
+        // a trigram is stored packed, see Trigrams#pack
+        String sql = "CREATE TABLE IF NOT EXISTS " + table + "(" +
+                "trigram INTEGER NOT NULL, " +
                 "word VARCHAR(255) NOT NULL, " +
+                "len INTEGER, " +
+                "cnt INTEGER NOT NULL DEFAULT 1, " +
                 "PRIMARY KEY(trigram, word)" +
                 ")";
         database.onExecute(sql, null);
+
+        // tables created before the length column was added
+        Schema.addColumnIfMissing(database, table, "len", "INTEGER", "length(word)");
+        // and before words were counted
+        Schema.addColumnIfMissing(database, table, "cnt", "INTEGER NOT NULL DEFAULT 1", null);
+        database.onExecute("CREATE INDEX IF NOT EXISTS " + table + "_len ON " + table + "(trigram, len, word)", null);
+        database.onExecute("CREATE INDEX IF NOT EXISTS " + table + "_word ON " + table + "(word)", null);
+
+        if (textTrigrams) reindex(database, table + "_text", table);
         return true;
     }
 
+    /**
+     * Write the words of a table storing text trigrams into the new one, with their counts
+     */
+    private void reindex(Fuzzyble database, String oldTable, String table) {
+        // tables created before words were counted
+        Schema.addColumnIfMissing(database, oldTable, "cnt", "INTEGER NOT NULL DEFAULT 1", null);
+
+        List<String[]> words = new ArrayList<>();
+        try {
+            SqlCursor cursor = database.onQuery("SELECT word, MAX(cnt) FROM " + oldTable + " GROUP BY word");
+            while (cursor.moveToNext()) {
+                words.add(new String[]{cursor.getString(0), cursor.getString(1)});
+            }
+            cursor.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return;
+        }
+
+        String insertSql = "INSERT OR IGNORE INTO " + table + " (trigram, word, len, cnt) " +
+                "VALUES (CAST(? AS INTEGER), ?, length(?), CAST(? AS INTEGER))";
+        for (String[] word : words) {
+            try {
+                for (long trigram : TextHelper.packedTrigrams(word[0])) {
+                    statements.get(database, insertSql).execute(new String[]{String.valueOf(trigram), word[0], word[0], word[1]});
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+
+        database.onExecute("DROP TABLE IF EXISTS " + oldTable, null);
+    }
+
     @Override
     public boolean insert(Fuzzyble database, FuzzyColumn column, String text) {
-        String insertSql = "INSERT OR IGNORE INTO " + getAssociatedTables(column)[0] + " (trigram, word) VALUES (?, ?)";
+        return insertRows(database, column, rows(text));
+    }
 
-        for (String word: TextHelper.splitAndFilterText(text)) {
-            for (String trigram: TextHelper.splitAndGetTrigrams(word)) {
+    /**
+     * Every word of the text with its packed trigrams
+     */
+    private List<Row> rows(String text) {
+        List<Row> rows = new ArrayList<>();
+        if (text == null) return rows;
+
+        // the word's trigrams follow it
+        TextHelper.tokenizer().words(text,
+                (chars, start, end) -> rows.add(new Row(new String(chars, start, end - start))),
+                (chars, start, end) -> rows.get(rows.size() - 1).add(Trigrams.pack(chars[start], chars[start + 1], chars[start + 2])));
+
+        return rows;
+    }
+
+    private boolean insertRows(Fuzzyble database, FuzzyColumn column, List<Row> rows) {
+        String table = getAssociatedTables(column)[0];
+        String insertSql = "INSERT OR IGNORE INTO " + table + " (trigram, word, len, cnt) VALUES (CAST(? AS INTEGER), ?, length(?), 0)";
+        // every row of the word holds its count
+        String countSql = "UPDATE " + table + " SET cnt = cnt + 1 WHERE word = ?";
 
-                if (Thread.currentThread().isInterrupted()) return false;
+        for (Row row: rows) {
+            if (Thread.currentThread().isInterrupted()) return false;
 
-                try {
-                    String[] args = new String[]{trigram, word};
-                    database.onExecute(insertSql, args);
-                } catch (Exception e) {
-                    e.printStackTrace();
+            try {
+                String word = row.word;
+                for (int i = 0; i < row.size; i++) {
+                    statements.get(database, insertSql).execute(new String[]{String.valueOf(row.trigrams[i]), word, word});
                 }
+                statements.get(database, countSql).execute(new String[]{word});
+            } catch (Exception e) {
+                e.printStackTrace();
             }
         }
 
@@ -54,28 +140,48 @@ public class Trigram implements Strategy {
     }
 
     @Override
-    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, ProgressListener listener) throws IOException {
-        String dataQuery = "SELECT " + column.column + " FROM " + column.table;
+    public boolean remove(Fuzzyble database, FuzzyColumn column, String text) {
+        String table = getAssociatedTables(column)[0];
+        String uncountSql = "UPDATE " + table + " SET cnt = cnt - 1 WHERE word = ? AND cnt > 0";
+        String pruneSql = "DELETE FROM " + table + " WHERE word = ? AND cnt <= 0";
 
-        // get text of that columns
-        SqlCursor textCursor = source.onQuery(dataQuery);
-        if (textCursor == null) return false;
-
-        int total = textCursor.count();
-        float step = 1f / total;
-        float current = 0f;
-
-        while (textCursor.moveToNext()) {
-            String text = textCursor.getString(0);
-            insert(sync, column, text);
+        boolean allRemoved = true;
+        Set<String> words = new LinkedHashSet<>();
+        for (String word: TextHelper.splitAndFilterText(text)) {
+            if (Thread.currentThread().isInterrupted()) return false;
+
+            try {
+                statements.get(database, uncountSql).execute(new String[]{word});
+                words.add(word);
+            } catch (Exception e) {
+                e.printStackTrace();
+                allRemoved = false;
+            }
+        }
 
-            current += step;
-            listener.onProgress(current);
+        // words no text contains anymore
+        for (String word: words) {
+            try {
+                statements.get(database, pruneSql).execute(new String[]{word});
+            } catch (Exception e) {
+                e.printStackTrace();
+                allRemoved = false;
+            }
         }
 
-        textCursor.close();
+        return allRemoved;
+    }
 
-        return true;
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, ProgressListener listener) throws IOException {
+        return populate(source, sync, column, null, listener);
+    }
+
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, Checkpoint checkpoint, ProgressListener listener) throws IOException {
+        // texts are split on worker threads, rows are inserted on this one
+        return new Populator<>(this::rows, rows -> insertRows(sync, column, rows))
+                .populate(source, column, checkpoint, listener);
     }
 
     @Override
@@ -86,23 +192,29 @@ public class Trigram implements Strategy {
 
     @Override
     public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word) {
+        return getSuggestions(database, column, word, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word, int limit) {
         // return exact matched if found
         List<String> exact = performExactSearch(database, column, word);
-        if (!exact.isEmpty()) return exact;
+        if (!exact.isEmpty()) return FuzzyUtils.limit(exact, limit);
 
         // return partial match if found
         List<String> partial = performPartialSearch(database, column, word);
-        if (!partial.isEmpty()) return partial;
+        if (!partial.isEmpty()) return FuzzyUtils.limit(partial, limit);
 
         // now try fuzzy
-        return performFuzzySearch(database, column, word);
+        return performFuzzySearch(database, column, word, limit);
     }
 
     private List<String> performExactSearch(Fuzzyble database, FuzzyColumn column, String word) {
         ArrayList<String> exact = new ArrayList<>();
 
         try {
-            SqlCursor exactQuery = database.onQuery("SELECT * FROM " + getAssociatedTables(column)[0] + " WHERE word = ?", new String[]{word});
+            String query = "SELECT word FROM " + getAssociatedTables(column)[0] + " WHERE word = ? LIMIT 1";
+            SqlCursor exactQuery = statements.get(database, query).query(new String[]{word});
             while (exactQuery.moveToNext()) {
                 String s = exactQuery.getString(0);
                 exact.add(s);
@@ -119,7 +231,9 @@ public class Trigram implements Strategy {
         ArrayList<String> partial = new ArrayList<>();
 
         try {
-            SqlCursor partialQuery = database.onQuery("SELECT * FROM " + getAssociatedTables(column)[0] + " WHERE word LIKE ? || '%' OR ? LIKE word || '%'", new String[]{word, word});
+            List<String> args = new ArrayList<>();
+            String query = FuzzyUtils.prefixMatchQuery(getAssociatedTables(column)[0], word, args);
+            SqlCursor partialQuery = database.onQuery(query, args.toArray(new String[0]));
             while (partialQuery.moveToNext()) {
                 String s = partialQuery.getString(0);
                 partial.add(s);
@@ -133,22 +247,39 @@ public class Trigram implements Strategy {
         return partial;
     }
 
-    private List<String> performFuzzySearch(Fuzzyble database, FuzzyColumn column, String word) {
-        List<String> trigrams = TextHelper.splitAndGetTrigrams(word);
+    private List<String> performFuzzySearch(Fuzzyble database, FuzzyColumn column, String word, int limit) {
+        long[] trigrams = TextHelper.packedTrigrams(word);
+        if (trigrams.length == 0) return new ArrayList<>();
 
         StringBuilder sb = new StringBuilder();
-        for (String t: trigrams) sb.append("'").append(t).append("',");
-        String tr = sb.toString();
-        if (!tr.isEmpty()) tr = tr.substring(0, tr.length() - 1);
+        List<String> args = new ArrayList<>();
+        for (int i = 0; i < trigrams.length; i++) {
+            sb.append(i == 0 ? "CAST(? AS INTEGER)" : ", CAST(? AS INTEGER)");
+            args.add(String.valueOf(trigrams[i]));
+        }
+
+        // words whose length differs by more than the threshold can't be similar
+        String lengthFilter = "";
+        int threshold = similarity.getThresholdDistance();
+        if (threshold >= 0) {
+            int length = word.codePointCount(0, word.length());
+            lengthFilter = " AND len BETWEEN CAST(? AS INTEGER) AND CAST(? AS INTEGER)";
+            args.add(String.valueOf(Math.max(0, length - threshold)));
+            args.add(String.valueOf(length + threshold));
+        }
 
-        final String query = "SELECT * FROM " + getAssociatedTables(column)[0] + " WHERE trigram IN (" + tr + ")";
+        // only words sharing enough trigrams can be within the threshold, best overlap first
+        final String query = "SELECT word, COUNT(DISTINCT trigram) AS overlap FROM " + getAssociatedTables(column)[0] +
+                " WHERE trigram IN (" + sb + ")" + lengthFilter +
+                " GROUP BY word HAVING overlap >= CAST(? AS INTEGER) ORDER BY overlap DESC";
+        args.add(String.valueOf(FuzzyUtils.minSharedTrigrams(trigrams.length, similarity)));
 
         List<String> suggestions = new ArrayList<>();
         try {
-            SqlCursor cursor = database.onQuery(query, null);
+            SqlCursor cursor = database.onQuery(query, args.toArray(new String[0]));
 
             while (cursor.moveToNext()) {
-                String w = cursor.getString(1);
+                String w = cursor.getString(0);
                 suggestions.add(w);
             }
 
@@ -157,6 +288,24 @@ public class Trigram implements Strategy {
             e.printStackTrace();
         }
 
-        return FuzzyUtils.filterFuzzyMatched(word, suggestions, similarity);
+        return FuzzyUtils.filterFuzzyMatched(word, suggestions, similarity, limit);
+    }
+
+    /**
+     * A word and its trigrams
+     */
+    private static class Row {
+        private final String word;
+        private long[] trigrams = new long[8];
+        private int size = 0;
+
+        Row(String word) {
+            this.word = word;
+        }
+
+        void add(long trigram) {
+            if (size == trigrams.length) trigrams = Arrays.copyOf(trigrams, size * 2);
+            trigrams[size++] = trigram;
+        }
     }
 }
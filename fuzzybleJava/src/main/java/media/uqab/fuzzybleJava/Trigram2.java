@@ -2,17 +2,37 @@ package media.uqab.fuzzybleJava;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class Trigram2 implements Strategy {
+    // a trigram of fewer words is never skipped, probing it is cheap anyway
+    private static final int STOP_TRIGRAM_MIN_WORDS = 1000;
+
     private final Similarity similarity;
+    private final float stopTrigramFrequency;
+    private final StatementCache statements = new StatementCache();
 
     public Trigram2() {
-        this.similarity = new Levenshtein();
+        this(new BoundedLevenshtein());
     }
 
     public Trigram2(Similarity similarity) {
+        this(similarity, 0.05f);
+    }
+
+    /**
+     * @param similarity {@linkplain Similarity} to check the candidates with
+     * @param stopTrigramFrequency fraction of the vocabulary above which a trigram
+     *                             is too common to look candidates up by, 1 to never skip
+     */
+    public Trigram2(Similarity similarity, float stopTrigramFrequency) {
         this.similarity = similarity;
+        this.stopTrigramFrequency = stopTrigramFrequency;
     }
 
     @Override
@@ -22,45 +42,77 @@ public class Trigram2 implements Strategy {
 
     @Override
     public boolean create(Fuzzyble database, FuzzyColumn column) {
+        // tables may be recreated
+        statements.clear();
+
         String[] tables = getAssociatedTables(column);
         String trigramTable = tables[0];
         String wordsTable = tables[1];
         String relationTable = tables[2];
 
+        // tables created when the trigrams were stored as text are rebuilt
+        boolean textTrigrams = Schema.hasColumn(database, trigramTable, "trigram");
+        if (textTrigrams) {
+            database.onExecute("DROP TABLE IF EXISTS " + relationTable, null);
+            database.onExecute("DROP TABLE IF EXISTS " + trigramTable, null);
+        }
+
+        // a trigram is its own key, see Trigrams#pack, df is the number of words having it
         String createTrigram = "CREATE TABLE IF NOT EXISTS " + trigramTable + "(" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "trigram VARCHAR(10) NOT NULL UNIQUE" +
+                "id INTEGER PRIMARY KEY, " +
+                "df INTEGER NOT NULL DEFAULT 0" +
                 ")";
         String createWord = "CREATE TABLE IF NOT EXISTS " + wordsTable + "(" +
                 "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "word VARCHAR(255) NOT NULL UNIQUE" +
+                "word VARCHAR(255) NOT NULL UNIQUE, " +
+                "len INTEGER, " +
+                "cnt INTEGER NOT NULL DEFAULT 1" +
                 ")";
         String createRelation = "CREATE TABLE IF NOT EXISTS " + relationTable + "(" +
-                "tId INTEGER, " +
-                "wId INTEGER, " +
+                "tId INTEGER NOT NULL, " +
+                "wId INTEGER NOT NULL, " +
+                "PRIMARY KEY (tId, wId), " +
                 "FOREIGN KEY (tId) REFERENCES " + trigramTable + "(id) ON DELETE CASCADE," +
                 "FOREIGN KEY (wId) REFERENCES " + wordsTable + "(id) ON DELETE CASCADE" +
-                ")";
+                ") WITHOUT ROWID";
         database.onExecute(createTrigram, null);
         database.onExecute(createWord, null);
         database.onExecute(createRelation, null);
+
+        // tables created before the length column was added
+        Schema.addColumnIfMissing(database, wordsTable, "len", "INTEGER", "length(word)");
+        // and before words were counted
+        Schema.addColumnIfMissing(database, wordsTable, "cnt", "INTEGER NOT NULL DEFAULT 1", null);
+        // and before trigrams were
+        Schema.addColumnIfMissing(database, trigramTable, "df", "INTEGER NOT NULL DEFAULT 0",
+                "(SELECT COUNT(*) FROM " + relationTable + " WHERE tId = " + trigramTable + ".id)");
+        database.onExecute("CREATE INDEX IF NOT EXISTS " + wordsTable + "_len ON " + wordsTable + "(len)", null);
+
+        // the words and their counts are kept, only their trigrams are written again
+        if (textTrigrams) new BulkInsert(database, column).reindex();
         return true;
     }
 
     @Override
     public boolean insert(Fuzzyble database, FuzzyColumn column, String text) {
-        InsertWordPair inserter = new InsertWordPair(database, column);
+        return insertWords(database, column, words(text));
+    }
 
-        for (String word: TextHelper.splitAndFilterText(text)) {
-            for (String trigram: TextHelper.splitAndGetTrigrams(word)) {
+    private String[] words(String text) {
+        if (text == null) return new String[0];
+        return TextHelper.splitAndFilterText(text);
+    }
 
-                if (Thread.currentThread().isInterrupted()) return false;
+    private boolean insertWords(Fuzzyble database, FuzzyColumn column, String[] words) {
+        InsertWord inserter = new InsertWord(database, column);
 
-                try {
-                    inserter.insert(trigram, word);
-                } catch (Exception e) {
-                    System.out.println(e.getMessage());
-                }
+        for (String word: words) {
+            if (Thread.currentThread().isInterrupted()) return false;
+
+            try {
+                inserter.insert(word);
+            } catch (Exception e) {
+                System.out.println(e.getMessage());
             }
         }
 
@@ -68,28 +120,58 @@ public class Trigram2 implements Strategy {
     }
 
     @Override
-    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, ProgressListener listener) throws IOException {
-        String dataQuery = "SELECT " + column.column + " FROM " + column.table;
+    public boolean remove(Fuzzyble database, FuzzyColumn column, String text) {
+        String[] tables = getAssociatedTables(column);
+        VocabularyTable vocabulary = new VocabularyTable(tables[1], statements);
 
-        // get text of that columns
-        SqlCursor textCursor = source.onQuery(dataQuery);
-        if (textCursor == null) return false;
+        boolean allRemoved = true;
+        Set<String> words = new HashSet<>();
+        for (String word: words(text)) {
+            if (Thread.currentThread().isInterrupted()) return false;
 
-        int total = textCursor.count();
-        float step = 1f / total;
-        float current = 0f;
+            try {
+                vocabulary.remove(database, word);
+                words.add(word);
+            } catch (Exception e) {
+                System.out.println(e.getMessage());
+                allRemoved = false;
+            }
+        }
 
-        while (textCursor.moveToNext()) {
-            String text = textCursor.getString(0);
-            insert(sync, column, text);
+        // relations of the words no text contains anymore, by the (tId, wId) key
+        String relationDelete = "DELETE FROM " + tables[2] + " WHERE " +
+                "tId = CAST(? AS INTEGER) AND wId = CAST(? AS INTEGER)";
+        // and the trigrams no word has anymore
+        String uncountSql = "UPDATE " + tables[0] + " SET df = df - 1 WHERE id = CAST(? AS INTEGER)";
+        String trigramDelete = "DELETE FROM " + tables[0] + " WHERE id = CAST(? AS INTEGER) AND df <= 0";
 
-            current += step;
-            listener.onProgress(current);
+        for (String[] pruned : vocabulary.prune(database, words)) {
+            try {
+                for (long trigram : TextHelper.packedTrigrams(pruned[1])) {
+                    String tId = String.valueOf(trigram);
+                    statements.get(database, relationDelete).execute(new String[]{tId, pruned[0]});
+                    statements.get(database, uncountSql).execute(new String[]{tId});
+                    statements.get(database, trigramDelete).execute(new String[]{tId});
+                }
+            } catch (Exception e) {
+                System.out.println(e.getMessage());
+                allRemoved = false;
+            }
         }
 
-        textCursor.close();
+        return allRemoved;
+    }
 
-        return true;
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, ProgressListener listener) throws IOException {
+        return populate(source, sync, column, null, listener);
+    }
+
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, Checkpoint checkpoint, ProgressListener listener) throws IOException {
+        // texts are split on worker threads, only the new trigrams, words and relations are written
+        return new Populator<>(this::words, new BulkInsert(sync, column))
+                .populate(source, column, checkpoint, listener);
     }
 
     @Override
@@ -104,16 +186,21 @@ public class Trigram2 implements Strategy {
 
     @Override
     public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word) {
+        return getSuggestions(database, column, word, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word, int limit) {
         // return exact matched if found
         List<String> exact = performExactSearch(database, column, word);
-        if (!exact.isEmpty()) return exact;
+        if (!exact.isEmpty()) return FuzzyUtils.limit(exact, limit);
 
         // return partial match if found
         List<String> partial = performPartialSearch(database, column, word);
-        if (!partial.isEmpty()) return partial;
+        if (!partial.isEmpty()) return FuzzyUtils.limit(partial, limit);
 
         // now try fuzzy
-        return performFuzzySearch(database, column, word);
+        return performFuzzySearch(database, column, word, limit);
     }
 
     private List<String> performExactSearch(Fuzzyble database, FuzzyColumn column, String word) {
@@ -121,7 +208,8 @@ public class Trigram2 implements Strategy {
         final String wordTable = getAssociatedTables(column)[1];
 
         try {
-            SqlCursor exactQuery = database.onQuery("SELECT * FROM " + wordTable + " WHERE word = ?", new String[]{word});
+            String query = "SELECT word FROM " + wordTable + " WHERE word = ?";
+            SqlCursor exactQuery = statements.get(database, query).query(new String[]{word});
             while (exactQuery.moveToNext()) {
                 String s = exactQuery.getString(0);
                 exact.add(s);
@@ -139,7 +227,9 @@ public class Trigram2 implements Strategy {
         final String wordTable = getAssociatedTables(column)[1];
 
         try {
-            SqlCursor partialQuery = database.onQuery("SELECT * FROM " + wordTable + " WHERE word LIKE ? || '%' OR ? LIKE word || '%'", new String[]{word, word});
+            List<String> args = new ArrayList<>();
+            String query = FuzzyUtils.prefixMatchQuery(wordTable, word, args);
+            SqlCursor partialQuery = database.onQuery(query, args.toArray(new String[0]));
             while (partialQuery.moveToNext()) {
                 String s = partialQuery.getString(0);
                 partial.add(s);
@@ -153,35 +243,63 @@ public class Trigram2 implements Strategy {
         return partial;
     }
 
-    private List<String> performFuzzySearch(Fuzzyble database, FuzzyColumn column, String word) {
-        List<String> trigrams = TextHelper.splitAndGetTrigrams(word);
-        if (trigrams.isEmpty()) return new ArrayList<>();
+    private List<String> performFuzzySearch(Fuzzyble database, FuzzyColumn column, String word, int limit) {
+        long[] trigrams = TextHelper.packedTrigrams(word);
+        if (trigrams.length == 0) return new ArrayList<>();
 
         final String[] tables = getAssociatedTables(column);
-        final String trigramTable = tables[0];
         final String wordsTable = tables[1];
         final String relationTable = tables[2];
 
-        List<String> suggestions = new ArrayList<>();
+        // a word sharing minShared of the trigrams has one of any (trigrams - minShared + 1) of them,
+        // so only the rarest are probed for candidates
+        int minShared = FuzzyUtils.minSharedTrigrams(trigrams.length, similarity);
+        long[] probes = rarestTrigrams(database, tables, trigrams, trigrams.length - minShared + 1);
+        if (probes.length == 0) return new ArrayList<>();
+
+        // words whose length differs by more than the threshold can't be similar
+        String lengthFilter = "";
+        String[] lengthArgs = new String[0];
+        int threshold = similarity.getThresholdDistance();
+        if (threshold >= 0) {
+            int length = word.codePointCount(0, word.length());
+            lengthFilter = " AND w.len BETWEEN CAST(? AS INTEGER) AND CAST(? AS INTEGER)";
+            lengthArgs = new String[]{String.valueOf(Math.max(0, length - threshold)), String.valueOf(length + threshold)};
+        }
 
+        List<String> args = new ArrayList<>();
         StringBuilder queryBuilder = new StringBuilder();
-        queryBuilder.append("SELECT DISTINCT w.word FROM ")
-                .append(trigramTable).append(" t ")
-                .append("JOIN ").append(relationTable).append(" r ON t.id = r.tId ")
+
+        // the overlap counts every trigram of the candidates, best overlap first
+        queryBuilder.append("SELECT w.word, COUNT(*) AS overlap FROM ")
+                .append(relationTable).append(" r ")
                 .append("JOIN ").append(wordsTable).append(" w ON r.wId = w.id ")
-                .append("WHERE t.trigram IN (");
+                .append("WHERE r.tId IN (");
+        for (int i = 0; i < trigrams.length; i++) {
+            queryBuilder.append(i == 0 ? "CAST(? AS INTEGER)" : ", CAST(? AS INTEGER)");
+            args.add(String.valueOf(trigrams[i]));
+        }
 
-        for (int i = 0; i < trigrams.size(); i++) {
-            queryBuilder.append("?");
-            if (i < trigrams.size() - 1) {
-                queryBuilder.append(", ");
-            }
+        // candidates of the probes
+        queryBuilder.append(") AND r.wId IN (");
+        for (int i = 0; i < probes.length; i++) {
+            if (i > 0) queryBuilder.append(" UNION ALL ");
+            queryBuilder.append("SELECT p.wId FROM ").append(relationTable).append(" p ")
+                    .append("JOIN ").append(wordsTable).append(" w ON p.wId = w.id ")
+                    .append("WHERE p.tId = CAST(? AS INTEGER)").append(lengthFilter);
+            args.add(String.valueOf(probes[i]));
+            args.addAll(Arrays.asList(lengthArgs));
         }
 
-        queryBuilder.append(")");
+        // every candidate is kept, a larger overlap doesn't mean a smaller distance
+        queryBuilder.append(") GROUP BY w.id ")
+                .append("HAVING overlap >= CAST(? AS INTEGER) ")
+                .append("ORDER BY overlap DESC");
+        args.add(String.valueOf(minShared));
 
+        List<String> suggestions = new ArrayList<>();
         try {
-            SqlCursor cursor = database.onQuery(queryBuilder.toString(), trigrams.toArray(new String[]{}));
+            SqlCursor cursor = database.onQuery(queryBuilder.toString(), args.toArray(new String[0]));
             while (cursor.moveToNext()) {
                 String s = cursor.getString(0);
                 suggestions.add(s);
@@ -192,17 +310,71 @@ public class Trigram2 implements Strategy {
             System.out.println(e.getMessage());
         }
 
-        return FuzzyUtils.filterFuzzyMatched(word, suggestions, similarity);
+        return FuzzyUtils.filterFuzzyMatched(word, suggestions, similarity, limit);
+    }
+
+    /**
+     * The rarest of the trigrams by their document frequency, leaving out the stop trigrams
+     * @param count number of trigrams to take, the ones no word has included
+     * @return the stored trigrams among them, rarest first
+     */
+    private long[] rarestTrigrams(Fuzzyble database, String[] tables, long[] trigrams, int count) {
+        long[] df = new long[trigrams.length];
+        long words = 0; // word ids only grow, the last one bounds the vocabulary
+
+        StringBuilder query = new StringBuilder("SELECT id, df, (SELECT MAX(id) FROM ")
+                .append(tables[1]).append(") FROM ").append(tables[0]).append(" WHERE id IN (");
+        String[] args = new String[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            query.append(i == 0 ? "CAST(? AS INTEGER)" : ", CAST(? AS INTEGER)");
+            args[i] = String.valueOf(trigrams[i]);
+        }
+        query.append(")");
+
+        try {
+            SqlCursor cursor = database.onQuery(query.toString(), args);
+            while (cursor.moveToNext()) {
+                // packed trigrams are sorted
+                int i = Arrays.binarySearch(trigrams, Long.parseLong(cursor.getString(0)));
+                if (i >= 0) df[i] = Long.parseLong(cursor.getString(1));
+                if (cursor.getString(2) != null) words = Long.parseLong(cursor.getString(2));
+            }
+            cursor.close();
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+
+        // (df, position) pairs sorted, rarest first
+        long[] order = new long[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) order[i] = (df[i] << 32) | i;
+        Arrays.sort(order);
+
+        long stopDf = Math.max(STOP_TRIGRAM_MIN_WORDS, (long) (stopTrigramFrequency * words));
+        long[] probes = new long[Math.min(count, trigrams.length)];
+        int n = 0;
+        for (int k = 0; k < probes.length; k++) {
+            long frequency = order[k] >>> 32;
+            int i = (int) order[k];
+
+            // a trigram no word has yields no candidate
+            if (frequency == 0) continue;
+            // too common to be worth reading, unless nothing rarer is left
+            if (frequency > stopDf && n > 0) break;
+
+            probes[n++] = trigrams[i];
+        }
+
+        return Arrays.copyOf(probes, n);
     }
 
     // insert mechanism ------------------------------------------------------------
-    private class InsertWordPair {
+    private class InsertWord {
         private final String trigramTable;
         private final String wordsTable;
         private final String relationTable;
         private final Fuzzyble database;
 
-        InsertWordPair(Fuzzyble database, FuzzyColumn column) {
+        InsertWord(Fuzzyble database, FuzzyColumn column) {
             this.database = database;
 
             String[] table = getAssociatedTables(column);
@@ -211,24 +383,297 @@ public class Trigram2 implements Strategy {
             relationTable = table[2];
         }
 
-        void insert(String trigram, String word) {
+        void insert(String word) {
             try {
-                // Insert trigram into trigramTable
-                String trigramInsert = "INSERT OR IGNORE INTO " + trigramTable + "(trigram) VALUES (?)";
-                String wordInsert = "INSERT OR IGNORE INTO " + wordsTable + "(word) VALUES (?)";
-                String relationInsert = "INSERT INTO " + relationTable + "(tId, wId) VALUES (" +
-                        "(SELECT id FROM " + trigramTable + " WHERE trigram = ?)," +
+                // a stored word is only counted
+                String wordQuery = "SELECT id FROM " + wordsTable + " WHERE word = ?";
+                SqlCursor cursor = statements.get(database, wordQuery).query(new String[]{word});
+                boolean exists = cursor.moveToNext();
+                cursor.close();
+
+                if (exists) {
+                    String countSql = "UPDATE " + wordsTable + " SET cnt = cnt + 1 WHERE word = ?";
+                    statements.get(database, countSql).execute(new String[]{word});
+                    return;
+                }
+
+                long[] trigrams = TextHelper.packedTrigrams(word);
+                if (trigrams.length == 0) return;
+
+                String trigramInsert = "INSERT OR IGNORE INTO " + trigramTable + "(id) VALUES (CAST(? AS INTEGER))";
+                String trigramCount = "UPDATE " + trigramTable + " SET df = df + 1 WHERE id = CAST(? AS INTEGER)";
+                String wordInsert = "INSERT INTO " + wordsTable + "(word, len, cnt) VALUES (?, length(?), 1)";
+                String relationInsert = "INSERT OR IGNORE INTO " + relationTable + "(tId, wId) VALUES (" +
+                        "CAST(? AS INTEGER)," +
                         "(SELECT id FROM " + wordsTable + " WHERE word = ?)" +
                         ")";
 
-                database.onExecute(trigramInsert, new String[]{trigram});
-                database.onExecute(wordInsert, new String[]{word});
-                database.onExecute(relationInsert, new String[]{trigram, word});
+                statements.get(database, wordInsert).execute(new String[]{word, word});
+                for (long trigram : trigrams) {
+                    String tId = String.valueOf(trigram);
+                    statements.get(database, trigramInsert).execute(new String[]{tId});
+                    statements.get(database, trigramCount).execute(new String[]{tId});
+                    statements.get(database, relationInsert).execute(new String[]{tId, word});
+                }
+            } catch (Exception e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Keeps the trigrams and the words seen in memory while populating,
+     * assigning the word ids itself.
+     *
+     * <p>
+     * A word's trigrams are only generated the first time it is seen, so the
+     * work and the writes grow with the distinct words instead of with every
+     * occurrence. New rows are written with multi-row inserts on every flush,
+     * along with the counts of the words seen since the last one.
+     *
+     * <p>
+     * Words and trigrams already stored are looked up the first time they are
+     * seen, so catching up with a few new rows doesn't read the whole vocabulary.
+     */
+    private class BulkInsert implements SplitWriter<String[]> {
+        private static final int ROWS_PER_INSERT = 250;
+
+        private final Fuzzyble database;
+        private final String[] tables;
+        private final LongHashSet trigrams = new LongHashSet();
+        private final Map<String, Integer> wordIds = new HashMap<>(); // 0 if not stored
+        private int lastWordId = 0;
+        // nothing to look up in empty tables, e.g. when populating the first time
+        private boolean wordsStored = false;
+        private boolean trigramsStored = false;
+
+        // rows not written yet
+        private long[] newTrigrams = new long[256];
+        private int newTrigramSize = 0;
+        private final List<String> newWords = new ArrayList<>();
+        private final Map<Integer, Integer> counts = new HashMap<>();
+        private long[] relations = new long[1024]; // (tId, wId) pairs, flattened
+        private int relationSize = 0;
+
+        BulkInsert(Fuzzyble database, FuzzyColumn column) {
+            this.database = database;
+            this.tables = getAssociatedTables(column);
+
+            // continue after what is already stored
+            try {
+                String query = "SELECT (SELECT MAX(id) FROM " + tables[1] + "), " +
+                        "EXISTS (SELECT 1 FROM " + tables[0] + ")";
+                SqlCursor cursor = database.onQuery(query);
+                if (cursor.moveToNext()) {
+                    if (cursor.getString(0) != null) lastWordId = Integer.parseInt(cursor.getString(0));
+                    trigramsStored = "1".equals(cursor.getString(1));
+                }
+                cursor.close();
+                wordsStored = lastWordId > 0;
+            } catch (Exception e) {
+                System.out.println(e.getMessage());
+            }
+        }
+
+        @Override
+        public void write(String[] words) {
+            for (String word : words) add(word);
+        }
+
+        private void add(String word) {
+            Integer id = wordIds.get(word);
+            if (id == null && wordsStored) id = storedWordId(word);
+            if (id != null) {
+                if (id > 0) count(id);
+                return;
+            }
+
+            long[] wordTrigrams = TextHelper.packedTrigrams(word);
+            if (wordTrigrams.length == 0) {
+                wordIds.put(word, 0);
+                return;
+            }
+
+            int wId = ++lastWordId;
+            wordIds.put(word, wId);
+            newWords.add(word);
+            count(wId);
+            index(wId, wordTrigrams);
+        }
+
+        private void index(int wId, long[] wordTrigrams) {
+            for (long trigram : wordTrigrams) {
+                if (trigrams.add(trigram) && !(trigramsStored && isStored(trigram))) {
+                    if (newTrigramSize == newTrigrams.length) newTrigrams = Arrays.copyOf(newTrigrams, newTrigramSize * 2);
+                    newTrigrams[newTrigramSize++] = trigram;
+                }
+
+                if (relationSize + 2 > relations.length) relations = Arrays.copyOf(relations, relations.length * 2);
+                relations[relationSize++] = trigram;
+                relations[relationSize++] = wId;
+            }
+        }
+
+        /**
+         * @return id of the stored word, null if not stored
+         */
+        private Integer storedWordId(String word) {
+            Integer id = null;
+            try {
+                String query = "SELECT id FROM " + tables[1] + " WHERE word = ?";
+                SqlCursor cursor = statements.get(database, query).query(new String[]{word});
+                if (cursor.moveToNext()) id = Integer.parseInt(cursor.getString(0));
+                cursor.close();
             } catch (Exception e) {
                 System.out.println(e.getMessage());
             }
+
+            if (id != null) wordIds.put(word, id);
+            return id;
+        }
+
+        private boolean isStored(long trigram) {
+            boolean stored = false;
+            try {
+                String query = "SELECT 1 FROM " + tables[0] + " WHERE id = CAST(? AS INTEGER)";
+                SqlCursor cursor = statements.get(database, query).query(new String[]{String.valueOf(trigram)});
+                stored = cursor.moveToNext();
+                cursor.close();
+            } catch (Exception e) {
+                System.out.println(e.getMessage());
+            }
+            return stored;
+        }
+
+        /**
+         * Write the trigrams of every stored word again, into empty trigram tables
+         */
+        void reindex() {
+            List<Integer> ids = new ArrayList<>();
+            List<String> words = new ArrayList<>();
+            try {
+                SqlCursor cursor = database.onQuery("SELECT id, word FROM " + tables[1]);
+                while (cursor.moveToNext()) {
+                    ids.add(Integer.parseInt(cursor.getString(0)));
+                    words.add(cursor.getString(1));
+                }
+                cursor.close();
+            } catch (Exception e) {
+                System.out.println(e.getMessage());
+            }
+
+            trigramsStored = false;
+            for (int i = 0; i < words.size(); i++) {
+                index(ids.get(i), TextHelper.packedTrigrams(words.get(i)));
+                if ((i + 1) % Populator.ROWS_PER_CHUNK == 0) flush();
+            }
+            flush();
+        }
+
+        private void count(int wId) {
+            Integer count = counts.get(wId);
+            counts.put(wId, count == null ? 1 : count + 1);
+        }
+
+        @Override
+        public void flush() {
+            Rows trigramRows = new Rows("INSERT INTO " + tables[0] + "(id) VALUES ", "(CAST(? AS INTEGER))");
+            for (int i = 0; i < newTrigramSize; i++) {
+                trigramRows.add(String.valueOf(newTrigrams[i]));
+            }
+            trigramRows.flush();
+
+            Rows wordRows = new Rows("INSERT INTO " + tables[1] + "(id, word, len, cnt) VALUES ", "(?, ?, length(?), ?)");
+            for (String word : newWords) {
+                int wId = wordIds.get(word);
+                wordRows.add(String.valueOf(wId), word, word, String.valueOf(counts.remove(wId)));
+            }
+            wordRows.flush();
+
+            // the rest were stored before
+            String countSql = "UPDATE " + tables[1] + " SET cnt = cnt + CAST(? AS INTEGER) WHERE id = CAST(? AS INTEGER)";
+            for (Map.Entry<Integer, Integer> count : counts.entrySet()) {
+                try {
+                    statements.get(database, countSql).execute(new String[]{String.valueOf(count.getValue()), String.valueOf(count.getKey())});
+                } catch (Exception e) {
+                    System.out.println(e.getMessage());
+                }
+            }
+
+            Rows relationRows = new Rows("INSERT INTO " + tables[2] + "(tId, wId) VALUES ", "(CAST(? AS INTEGER), CAST(? AS INTEGER))");
+            for (int i = 0; i < relationSize; i += 2) {
+                relationRows.add(String.valueOf(relations[i]), String.valueOf(relations[i + 1]));
+            }
+            relationRows.flush();
+
+            // every relation is new, a trigram's df grows by its number of them
+            long[] trigramIds = new long[relationSize / 2];
+            for (int i = 0; i < trigramIds.length; i++) trigramIds[i] = relations[i * 2];
+            Arrays.sort(trigramIds);
+
+            String dfSql = "UPDATE " + tables[0] + " SET df = df + CAST(? AS INTEGER) WHERE id = CAST(? AS INTEGER)";
+            for (int i = 0, run; i < trigramIds.length; i += run) {
+                run = 1;
+                while (i + run < trigramIds.length && trigramIds[i + run] == trigramIds[i]) run++;
+                try {
+                    statements.get(database, dfSql).execute(new String[]{String.valueOf(run), String.valueOf(trigramIds[i])});
+                } catch (Exception e) {
+                    System.out.println(e.getMessage());
+                }
+            }
+
+            newTrigramSize = 0;
+            newWords.clear();
+            counts.clear();
+            relationSize = 0;
         }
 
+        /**
+         * Groups rows into multi-row inserts of {@code ROWS_PER_INSERT} rows,
+         * fewer if they would have more than {@linkplain Schema#MAX_VARIABLES} values
+         */
+        private class Rows {
+            private final String insert;
+            private final String row;
+            private final int rowsPerInsert;
+            private final List<String> args = new ArrayList<>();
+            private int rows = 0;
+
+            Rows(String insert, String row) {
+                this.insert = insert;
+                this.row = row;
+
+                int values = 0;
+                for (int i = 0; i < row.length(); i++) {
+                    if (row.charAt(i) == '?') values++;
+                }
+                this.rowsPerInsert = Math.min(ROWS_PER_INSERT, Schema.MAX_VARIABLES / Math.max(1, values));
+            }
+
+            void add(String... values) {
+                args.addAll(Arrays.asList(values));
+                if (++rows == rowsPerInsert) flush();
+            }
+
+            void flush() {
+                if (rows == 0) return;
 
+                StringBuilder sql = new StringBuilder(insert);
+                for (int i = 0; i < rows; i++) {
+                    if (i > 0) sql.append(", ");
+                    sql.append(row);
+                }
+
+                try {
+                    // only the last chunk of a table has a different size
+                    statements.get(database, sql.toString()).execute(args.toArray(new String[0]));
+                } catch (Exception e) {
+                    System.out.println(e.getMessage());
+                }
+
+                args.clear();
+                rows = 0;
+            }
+        }
     }
 }
@@ -0,0 +1,194 @@
+package media.uqab.fuzzybleJava;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable in-memory trigram inverted index.
+ *
+ * <p>
+ * Words are sorted and identified by their position, trigrams are packed
+ * with {@linkplain Trigrams#pack} and each trigram points to a sorted run of
+ * word ids in one shared postings array.
+ */
+class TrigramIndex {
+    private final String[] words;
+    private final long[] trigrams;
+    private final int[] offsets;
+    private final int[] postings;
+
+    private TrigramIndex(String[] words, long[] trigrams, int[] offsets, int[] postings) {
+        this.words = words;
+        this.trigrams = trigrams;
+        this.offsets = offsets;
+        this.postings = postings;
+    }
+
+    /**
+     * Build the index
+     * @param vocabulary words to index, duplicates are ignored
+     * @return the index
+     */
+    static TrigramIndex build(Collection<String> vocabulary) {
+        String[] words = unique(vocabulary.toArray(new String[0]));
+
+        // distinct trigrams
+        int pairs = 0;
+        for (String w : words) pairs += Math.max(0, w.length() - 2);
+
+        long[] all = new long[pairs];
+        int n = 0;
+        for (String w : words) {
+            for (int i = 0; i + 3 <= w.length(); i++) all[n++] = Trigrams.pack(w, i);
+        }
+        long[] trigrams = unique(all);
+
+        // (trigram position, word id) sorted, so that postings come out grouped and ordered
+        long[] relation = new long[pairs];
+        n = 0;
+        for (int id = 0; id < words.length; id++) {
+            String w = words[id];
+            for (int i = 0; i + 3 <= w.length(); i++) {
+                long t = Arrays.binarySearch(trigrams, Trigrams.pack(w, i));
+                relation[n++] = (t << 32) | id;
+            }
+        }
+        relation = unique(relation);
+
+        int[] offsets = new int[trigrams.length + 1];
+        int[] postings = new int[relation.length];
+        for (int i = 0; i < relation.length; i++) {
+            offsets[(int) (relation[i] >>> 32) + 1]++;
+            postings[i] = (int) relation[i];
+        }
+        for (int i = 0; i < trigrams.length; i++) offsets[i + 1] += offsets[i];
+
+        return new TrigramIndex(words, trigrams, offsets, postings);
+    }
+
+    int size() {
+        return words.length;
+    }
+
+    /**
+     * @return all the words, sorted
+     */
+    String[] words() {
+        return words.clone();
+    }
+
+    boolean contains(String word) {
+        return Arrays.binarySearch(words, word) >= 0;
+    }
+
+    /**
+     * Words which start with the given word, or which the given word starts with
+     * @param word searched word
+     * @return matched words, sorted
+     */
+    List<String> prefixMatched(String word) {
+        List<String> matched = new ArrayList<>();
+
+        // words which are prefix of the searched word
+        for (int len = 1; len < word.length(); len++) {
+            String prefix = word.substring(0, len);
+            if (Arrays.binarySearch(words, prefix) >= 0) matched.add(prefix);
+        }
+
+        // words having the searched word as prefix, a contiguous sorted range
+        int i = Arrays.binarySearch(words, word);
+        if (i < 0) i = -i - 1;
+        while (i < words.length && words[i].startsWith(word)) {
+            matched.add(words[i++]);
+        }
+
+        return matched;
+    }
+
+    /**
+     * Words sharing trigrams with the searched word.
+     *
+     * <p>
+     * A word sharing {@code minOverlap} of the q trigrams has one of any
+     * (q - minOverlap + 1) of them, so only the shortest postings, those of the
+     * rarest trigrams, are read for candidates. The other postings are binary
+     * searched per candidate, until it reaches or can't reach the overlap.
+     *
+     * @param queryTrigrams packed trigrams of the searched word
+     * @param minOverlap minimum number of distinct shared trigrams
+     * @return candidate words, in id order
+     */
+    List<String> candidates(long[] queryTrigrams, int minOverlap) {
+        long[] distinct = unique(queryTrigrams.clone());
+        int overlap = Math.max(1, minOverlap);
+        if (distinct.length < overlap) return new ArrayList<>();
+
+        // (posting length, position) sorted, rarest first
+        int[] from = new int[distinct.length];
+        int[] to = new int[distinct.length];
+        long[] order = new long[distinct.length];
+        for (int i = 0; i < distinct.length; i++) {
+            int t = Arrays.binarySearch(trigrams, distinct[i]);
+            if (t >= 0) {
+                from[i] = offsets[t];
+                to[i] = offsets[t + 1];
+            }
+            order[i] = ((long) (to[i] - from[i]) << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int probes = distinct.length - overlap + 1;
+        int total = 0;
+        for (int k = 0; k < probes; k++) total += (int) (order[k] >>> 32);
+
+        int[] ids = new int[total];
+        int n = 0;
+        for (int k = 0; k < probes; k++) {
+            int i = (int) order[k];
+            System.arraycopy(postings, from[i], ids, n, to[i] - from[i]);
+            n += to[i] - from[i];
+        }
+        Arrays.sort(ids);
+
+        // a word appears once per probed trigram it shares
+        List<String> candidates = new ArrayList<>();
+        int i = 0;
+        while (i < n) {
+            int j = i;
+            while (j < n && ids[j] == ids[i]) j++;
+
+            int shared = j - i;
+            for (int k = probes; k < distinct.length && shared < overlap; k++) {
+                // the remaining trigrams can't make up for it
+                if (shared + distinct.length - k < overlap) break;
+
+                int t = (int) order[k];
+                if (Arrays.binarySearch(postings, from[t], to[t], ids[i]) >= 0) shared++;
+            }
+            if (shared >= overlap) candidates.add(words[ids[i]]);
+            i = j;
+        }
+
+        return candidates;
+    }
+
+    private static String[] unique(String[] values) {
+        Arrays.sort(values);
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (n == 0 || !values[i].equals(values[n - 1])) values[n++] = values[i];
+        }
+        return n == values.length ? values : Arrays.copyOf(values, n);
+    }
+
+    private static long[] unique(long[] values) {
+        Arrays.sort(values);
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (n == 0 || values[i] != values[n - 1]) values[n++] = values[i];
+        }
+        return n == values.length ? values : Arrays.copyOf(values, n);
+    }
+}
@@ -0,0 +1,26 @@
+package media.uqab.fuzzybleJava;
+
+/**
+ * Packs a trigram into a single {@code long}.
+ *
+ * <p>
+ * The three UTF-16 code units take 16 bits each, so two trigrams
+ * are equal if and only if their packed values are equal.
+ */
+final class Trigrams {
+    private Trigrams() {}
+
+    static long pack(char c0, char c1, char c2) {
+        return ((long) c0 << 32) | ((long) c1 << 16) | c2;
+    }
+
+    /**
+     * Pack the trigram starting at {@code start}
+     * @param text text containing the trigram
+     * @param start index of the first char
+     * @return packed trigram
+     */
+    static long pack(CharSequence text, int start) {
+        return pack(text.charAt(start), text.charAt(start + 1), text.charAt(start + 2));
+    }
+}
@@ -0,0 +1,123 @@
+package media.uqab.fuzzybleJava;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Table holding the distinct words of a {@linkplain FuzzyColumn}.
+ *
+ * <p>
+ * Used by the strategies which keep their search structure in memory
+ * and only need the vocabulary to be persisted. Each word is stored with
+ * the number of times it was inserted, so it can be removed when no text
+ * contains it anymore.
+ */
+class VocabularyTable {
+    private final String table;
+    private final StatementCache statements;
+
+    VocabularyTable(String table, StatementCache statements) {
+        this.table = table;
+        this.statements = statements;
+    }
+
+    void create(Fuzzyble database) {
+        String sql = "CREATE TABLE IF NOT EXISTS " + table + "(" +
+                "id INTEGER PRIMARY KEY, " +
+                "word VARCHAR(255) NOT NULL UNIQUE, " +
+                "cnt INTEGER NOT NULL DEFAULT 1" +
+                ")";
+        database.onExecute(sql, null);
+
+        // tables created before words were counted
+        Schema.addColumnIfMissing(database, table, "cnt", "INTEGER NOT NULL DEFAULT 1", null);
+    }
+
+    void insert(Fuzzyble database, String word) {
+        // count the word if it exists, otherwise add it
+        String countSql = "UPDATE " + table + " SET cnt = cnt + 1 WHERE word = ?";
+        String insertSql = "INSERT OR IGNORE INTO " + table + "(word, cnt) VALUES (?, 1)";
+        statements.get(database, countSql).execute(new String[]{word});
+        statements.get(database, insertSql).execute(new String[]{word});
+    }
+
+    /**
+     * Uncount a word, it is deleted by {@linkplain VocabularyTable#prune}
+     * @param database database holding the table
+     * @param word word to uncount
+     */
+    void remove(Fuzzyble database, String word) {
+        String sql = "UPDATE " + table + " SET cnt = cnt - 1 WHERE word = ? AND cnt > 0";
+        statements.get(database, sql).execute(new String[]{word});
+    }
+
+    /**
+     * Delete the words which aren't counted anymore
+     * @param database database holding the table
+     * @param words words which may have been uncounted
+     * @return (id, word) of the deleted words
+     */
+    List<String[]> prune(Fuzzyble database, Collection<String> words) {
+        List<String[]> pruned = new ArrayList<>();
+        List<String> all = new ArrayList<>(words);
+
+        // a text may have more words than a statement can have values
+        for (int from = 0; from < all.size(); from += Schema.MAX_VARIABLES) {
+            List<String> chunk = all.subList(from, Math.min(all.size(), from + Schema.MAX_VARIABLES));
+            if (!prune(database, chunk.toArray(new String[0]), pruned)) break;
+        }
+        return pruned;
+    }
+
+    /**
+     * @return false if the words can't be read
+     */
+    private boolean prune(Fuzzyble database, String[] args, List<String[]> pruned) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < args.length; i++) sb.append(i == 0 ? "?" : ", ?");
+
+        int before = pruned.size();
+        try {
+            String query = "SELECT id, word FROM " + table + " WHERE word IN (" + sb + ") AND cnt <= 0";
+            SqlCursor cursor = database.onQuery(query, args);
+            if (cursor == null) return false;
+
+            while (cursor.moveToNext()) {
+                pruned.add(new String[]{cursor.getString(0), cursor.getString(1)});
+            }
+            cursor.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+
+        if (pruned.size() > before) {
+            database.onExecute("DELETE FROM " + table + " WHERE word IN (" + sb + ") AND cnt <= 0", args);
+        }
+        return true;
+    }
+
+    /**
+     * Read all the words
+     * @param database database holding the table
+     * @return words in insertion order
+     */
+    List<String> load(Fuzzyble database) {
+        List<String> words = new ArrayList<>();
+
+        try {
+            SqlCursor cursor = database.onQuery("SELECT word FROM " + table + " ORDER BY id");
+            if (cursor == null) return words;
+
+            while (cursor.moveToNext()) {
+                words.add(cursor.getString(0));
+            }
+            cursor.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return words;
+    }
+}
@@ -6,9 +6,10 @@ import java.util.List;
 
 public class WordLen implements Strategy {
     private final Similarity similarity;
+    private final StatementCache statements = new StatementCache();
 
     public WordLen() {
-        this.similarity = new Levenshtein();
+        this.similarity = new BoundedLevenshtein();
     }
 
     public WordLen(Similarity similarity) {
@@ -22,13 +23,27 @@ public class WordLen implements Strategy {
 
     @Override
     public boolean create(Fuzzyble database, FuzzyColumn column) {
-        String sql = "CREATE TABLE IF NOT EXISTS " + getAssociatedTables(column)[0] + "(word TEXT, len INTEGER)";
+        // table may be recreated
+        statements.clear();
+
+        String table = getAssociatedTables(column)[0];
+        String sql = "CREATE TABLE IF NOT EXISTS " + table + "(word TEXT, len INTEGER)";
         database.onExecute(sql, null);
+        database.onExecute("CREATE INDEX IF NOT EXISTS " + table + "_word ON " + table + "(word)", null);
         return true;
     }
 
     @Override
     public boolean insert(Fuzzyble database, FuzzyColumn column, String text) {
+        return insertWords(database, column, words(text));
+    }
+
+    private String[] words(String text) {
+        if (text == null) return new String[0];
+        return TextHelper.splitAndFilterText(text);
+    }
+
+    private boolean insertWords(Fuzzyble database, FuzzyColumn column, String[] words) {
         final String fuzzyTable = getAssociatedTables(column)[0];
 
         String insertSql = "INSERT INTO " + fuzzyTable + " (word, len) " +
@@ -38,11 +53,11 @@ public class WordLen implements Strategy {
 
         // insert into (word,len) table
         boolean allInserted = true;
-        for(String w: TextHelper.splitAndFilterText(text)) {
+        for(String w: words) {
             try {
                 String l = String.valueOf(w.length());
                 String[] args = new String[]{w, l, w, w, l, w, w};
-                database.onExecute(insertSql, args);
+                statements.get(database, insertSql).execute(args);
             } catch (Exception e) {
                 e.printStackTrace();
                 allInserted = false;
@@ -54,27 +69,14 @@ public class WordLen implements Strategy {
 
     @Override
     public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, ProgressListener listener) throws IOException {
-        String dataQuery = "SELECT " + column.column + " FROM " + column.table;
-
-        // get text of that columns
-        SqlCursor textCursor = source.onQuery(dataQuery);
-        if (textCursor == null) return false;
-
-        int total = textCursor.count();
-        float step = 1f / total;
-        float current = 0f;
-
-        while (textCursor.moveToNext()) {
-            String text = textCursor.getString(0);
-            insert(sync, column, text);
-
-            current += step;
-            listener.onProgress(current);
-        }
-
-        textCursor.close();
+        return populate(source, sync, column, null, listener);
+    }
 
-        return true;
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, Checkpoint checkpoint, ProgressListener listener) throws IOException {
+        // texts are split on worker threads, words are inserted on this one in the read order
+        return new Populator<>(this::words, words -> insertWords(sync, column, words))
+                .populate(source, column, checkpoint, listener);
     }
 
     @Override
@@ -85,23 +87,29 @@ public class WordLen implements Strategy {
 
     @Override
     public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word) {
+        return getSuggestions(database, column, word, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word, int limit) {
         // return exact matched if found
         List<String> exact = performExactSearch(database, column, word);
-        if (!exact.isEmpty()) return exact;
+        if (!exact.isEmpty()) return FuzzyUtils.limit(exact, limit);
 
         // return partial match if found
         List<String> partial = performPartialSearch(database, column, word);
-        if (!partial.isEmpty()) return partial;
+        if (!partial.isEmpty()) return FuzzyUtils.limit(partial, limit);
 
         // now try fuzzy
-        return performFuzzySearch(database, column, word, 3);
+        return performFuzzySearch(database, column, word, 3, limit);
     }
 
     private List<String> performExactSearch(Fuzzyble database, FuzzyColumn column, String word) {
         ArrayList<String> exact = new ArrayList<>();
 
         try {
-            SqlCursor exactQuery = database.onQuery("SELECT * FROM " + getAssociatedTables(column)[0] + " WHERE word = ?", new String[]{word});
+            String query = "SELECT word FROM " + getAssociatedTables(column)[0] + " WHERE word = ? LIMIT 1";
+            SqlCursor exactQuery = statements.get(database, query).query(new String[]{word});
             while (exactQuery.moveToNext()) {
                 String s = exactQuery.getString(0);
                 exact.add(s);
@@ -118,7 +126,9 @@ public class WordLen implements Strategy {
         ArrayList<String> partial = new ArrayList<>();
 
         try {
-            SqlCursor partialQuery = database.onQuery("SELECT * FROM " + getAssociatedTables(column)[0] + " WHERE word LIKE ? || '%' OR ? LIKE word || '%'", new String[]{word, word});
+            List<String> args = new ArrayList<>();
+            String query = FuzzyUtils.prefixMatchQuery(getAssociatedTables(column)[0], word, args);
+            SqlCursor partialQuery = database.onQuery(query, args.toArray(new String[0]));
             while (partialQuery.moveToNext()) {
                 String s = partialQuery.getString(0);
                 partial.add(s);
@@ -136,7 +146,8 @@ public class WordLen implements Strategy {
             Fuzzyble database,
             FuzzyColumn column,
             String word,
-            int matchFirstNchar
+            int matchFirstNchar,
+            int limit
     ) {
         // base condition for recursion to terminate
         if (matchFirstNchar < 1) return new ArrayList<>();
@@ -165,12 +176,12 @@ public class WordLen implements Strategy {
             e.printStackTrace();
         }
 
-        List<String> fuzzyMatched = FuzzyUtils.filterFuzzyMatched(word, words, similarity);
+        List<String> fuzzyMatched = FuzzyUtils.filterFuzzyMatched(word, words, similarity, limit);
 
         if (fuzzyMatched.size() > 0) {
             return fuzzyMatched;
         } else {
-            return performFuzzySearch(database, column, word, matchFirstNchar - 1);
+            return performFuzzySearch(database, column, word, matchFirstNchar - 1, limit);
         }
     }
 }
@@ -0,0 +1,239 @@
+package media.uqab.fuzzybleJava;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable prefix-shared dictionary of words.
+ *
+ * <p>
+ * Built from the sorted vocabulary, every common prefix is stored once.
+ * Nodes are kept in parallel arrays, children as a linked list of siblings
+ * in sorted order.
+ *
+ * <p>
+ * Fuzzy search simulates the Levenshtein automaton of the searched word with
+ * one dynamic programming row per visited node. A branch is left as soon as
+ * no cell of its row is within the distance, so only the paths which can
+ * still match are enumerated.
+ */
+class WordTrie {
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final boolean[] terminal;
+    private final int words;
+
+    private WordTrie(char[] labels, int[] firstChild, int[] nextSibling, boolean[] terminal, int words) {
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.nextSibling = nextSibling;
+        this.terminal = terminal;
+        this.words = words;
+    }
+
+    /**
+     * Build the trie
+     * @param vocabulary words to add, duplicates are ignored
+     * @return the trie
+     */
+    static WordTrie build(Collection<String> vocabulary) {
+        String[] sorted = vocabulary.toArray(new String[0]);
+        Arrays.sort(sorted);
+
+        int capacity = 16;
+        char[] labels = new char[capacity];
+        int[] firstChild = new int[capacity];
+        int[] nextSibling = new int[capacity];
+        int[] lastChild = new int[capacity];
+        boolean[] terminal = new boolean[capacity];
+
+        // node 0 is the root
+        int size = 1;
+        firstChild[0] = -1;
+        nextSibling[0] = -1;
+        lastChild[0] = -1;
+
+        // nodes of the previous word's path, path[i] is the node after i chars
+        int[] path = new int[16];
+        String previous = "";
+        int words = 0;
+
+        for (String word : sorted) {
+            if (words > 0 && word.equals(previous)) continue;
+            words++;
+
+            int common = 0;
+            int max = Math.min(word.length(), previous.length());
+            while (common < max && word.charAt(common) == previous.charAt(common)) common++;
+
+            if (path.length < word.length() + 1) path = Arrays.copyOf(path, word.length() + 1);
+
+            // sorted input, so a new child always comes after its siblings
+            for (int i = common; i < word.length(); i++) {
+                if (size == capacity) {
+                    capacity *= 2;
+                    labels = Arrays.copyOf(labels, capacity);
+                    firstChild = Arrays.copyOf(firstChild, capacity);
+                    nextSibling = Arrays.copyOf(nextSibling, capacity);
+                    lastChild = Arrays.copyOf(lastChild, capacity);
+                    terminal = Arrays.copyOf(terminal, capacity);
+                }
+
+                int parent = path[i];
+                int node = size++;
+                labels[node] = word.charAt(i);
+                firstChild[node] = -1;
+                nextSibling[node] = -1;
+                lastChild[node] = -1;
+
+                if (lastChild[parent] < 0) firstChild[parent] = node;
+                else nextSibling[lastChild[parent]] = node;
+                lastChild[parent] = node;
+
+                path[i + 1] = node;
+            }
+
+            terminal[path[word.length()]] = true;
+            previous = word;
+        }
+
+        return new WordTrie(
+                Arrays.copyOf(labels, size),
+                Arrays.copyOf(firstChild, size),
+                Arrays.copyOf(nextSibling, size),
+                Arrays.copyOf(terminal, size),
+                words
+        );
+    }
+
+    int size() {
+        return words;
+    }
+
+    /**
+     * @return all the words, sorted
+     */
+    List<String> words() {
+        List<String> all = new ArrayList<>(words);
+        collect(0, new StringBuilder(), all);
+        return all;
+    }
+
+    boolean contains(String word) {
+        int node = walk(word, word.length());
+        return node >= 0 && terminal[node];
+    }
+
+    /**
+     * Words which start with the given word, or which the given word starts with
+     * @param word searched word
+     * @return matched words, sorted
+     */
+    List<String> prefixMatched(String word) {
+        List<String> matched = new ArrayList<>();
+
+        // words on the path of the searched word
+        int node = 0;
+        for (int i = 0; i < word.length(); i++) {
+            node = child(node, word.charAt(i));
+            if (node < 0) return matched;
+            if (terminal[node] && i < word.length() - 1) matched.add(word.substring(0, i + 1));
+        }
+
+        // words below it
+        collect(node, new StringBuilder(word), matched);
+        return matched;
+    }
+
+    /**
+     * Words within a Levenshtein distance of the searched word
+     * @param word searched word
+     * @param maxDistance largest distance to accept
+     * @return matched words, closest first then sorted
+     */
+    List<String> search(String word, int maxDistance) {
+        List<String> matched = new ArrayList<>();
+        for (List<String> words : searchByDistance(word, maxDistance)) matched.addAll(words);
+        return matched;
+    }
+
+    /**
+     * Words within a Levenshtein distance of the searched word
+     * @param word searched word
+     * @param maxDistance largest distance to accept
+     * @return matched words at each distance from 0 to maxDistance, sorted
+     */
+    List<List<String>> searchByDistance(String word, int maxDistance) {
+        int m = word.length();
+        int[][] rows = new int[m + maxDistance + 2][];
+        for (int i = 0; i < rows.length; i++) rows[i] = new int[m + 1];
+        for (int j = 0; j <= m; j++) rows[0][j] = j;
+
+        List<List<String>> byDistance = new ArrayList<>();
+        for (int d = 0; d <= maxDistance; d++) byDistance.add(new ArrayList<String>());
+
+        StringBuilder prefix = new StringBuilder();
+        for (int child = firstChild[0]; child >= 0; child = nextSibling[child]) {
+            search(child, word, maxDistance, rows, 1, prefix, byDistance);
+        }
+        return byDistance;
+    }
+
+    private void search(int node, String word, int max, int[][] rows, int depth, StringBuilder prefix, List<List<String>> byDistance) {
+        int m = word.length();
+        int[] prev = rows[depth - 1];
+        int[] row = rows[depth];
+        char c = labels[node];
+
+        row[0] = depth;
+        int rowMin = row[0];
+        for (int j = 1; j <= m; j++) {
+            int v = prev[j - 1] + (word.charAt(j - 1) == c ? 0 : 1);
+            if (prev[j] + 1 < v) v = prev[j] + 1;
+            if (row[j - 1] + 1 < v) v = row[j - 1] + 1;
+            row[j] = v;
+            if (v < rowMin) rowMin = v;
+        }
+
+        // no state of the automaton is alive anymore
+        if (rowMin > max) return;
+
+        prefix.append(c);
+        if (terminal[node] && row[m] <= max) byDistance.get(row[m]).add(prefix.toString());
+
+        // deeper than the word plus the distance can't match
+        if (depth + 1 < rows.length) {
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                search(child, word, max, rows, depth + 1, prefix, byDistance);
+            }
+        }
+        prefix.setLength(prefix.length() - 1);
+    }
+
+    private void collect(int node, StringBuilder prefix, List<String> into) {
+        if (node != 0 && terminal[node]) into.add(prefix.toString());
+
+        for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+            prefix.append(labels[child]);
+            collect(child, prefix, into);
+            prefix.setLength(prefix.length() - 1);
+        }
+    }
+
+    private int walk(String word, int length) {
+        int node = 0;
+        for (int i = 0; i < length && node >= 0; i++) node = child(node, word.charAt(i));
+        return node;
+    }
+
+    private int child(int node, char c) {
+        for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+            if (labels[child] == c) return child;
+            if (labels[child] > c) return -1;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,127 @@
+package media.uqab.fuzzybleJava;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchedDatabaseTest {
+
+    @Test
+    void commits_every_batch_size_statements() {
+        // given
+        RecordingDatabase database = new RecordingDatabase();
+        BatchedDatabase batch = new BatchedDatabase(database, 2);
+
+        // when
+        batch.beginBatch();
+        for (int i = 0; i < 5; i++) batch.onExecute("INSERT " + i, null);
+        batch.commitBatch();
+
+        // then
+        List<String> expected = new ArrayList<>();
+        expected.add("begin");
+        expected.add("INSERT 0");
+        expected.add("INSERT 1");
+        expected.add("commit");
+        expected.add("begin");
+        expected.add("INSERT 2");
+        expected.add("INSERT 3");
+        expected.add("commit");
+        expected.add("begin");
+        expected.add("INSERT 4");
+        expected.add("commit");
+        assertEquals(expected, database.calls);
+    }
+
+    @Test
+    void does_not_commit_outside_of_batch() {
+        // given
+        RecordingDatabase database = new RecordingDatabase();
+        BatchedDatabase batch = new BatchedDatabase(database, 1);
+
+        // when
+        batch.onExecute("INSERT 0", null);
+        batch.onExecute("INSERT 1", null);
+
+        // then
+        assertEquals(2, database.calls.size());
+    }
+
+    @Test
+    void rollback_is_forwarded() {
+        // given
+        RecordingDatabase database = new RecordingDatabase();
+        BatchedDatabase batch = new BatchedDatabase(database, 10);
+
+        // when
+        batch.beginBatch();
+        batch.onExecute("INSERT 0", null);
+        batch.rollbackBatch();
+
+        // then
+        assertEquals("rollback", database.calls.get(database.calls.size() - 1));
+    }
+
+    @Test
+    void atomic_batch_commits_only_at_checkpoints() {
+        // given
+        RecordingDatabase database = new RecordingDatabase();
+        BatchedDatabase batch = new BatchedDatabase(database, 1);
+
+        // when
+        batch.beginAtomicBatch();
+        batch.onExecute("INSERT 0", null);
+        batch.onExecute("INSERT 1", null);
+        batch.checkpoint();
+        batch.onExecute("INSERT 2", null);
+        batch.rollbackBatch();
+
+        // then
+        List<String> expected = new ArrayList<>();
+        expected.add("begin");
+        expected.add("INSERT 0");
+        expected.add("INSERT 1");
+        expected.add("commit");
+        expected.add("begin");
+        expected.add("INSERT 2");
+        expected.add("rollback");
+        assertEquals(expected, database.calls);
+    }
+
+    private static class RecordingDatabase implements Fuzzyble {
+        private final List<String> calls = new ArrayList<>();
+
+        @Override
+        public SqlCursor onQuery(String query) {
+            return null;
+        }
+
+        @Override
+        public SqlCursor onQuery(String query, String[] args) {
+            return null;
+        }
+
+        @Override
+        public void onExecute(String sql, String[] args) {
+            calls.add(sql);
+        }
+
+        @Override
+        public void beginBatch() {
+            calls.add("begin");
+        }
+
+        @Override
+        public void commitBatch() {
+            calls.add("commit");
+        }
+
+        @Override
+        public void rollbackBatch() {
+            calls.add("rollback");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package media.uqab.fuzzybleJava;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitParallelLevenshteinTest {
+    private BitParallelLevenshtein levenshtein;
+
+    @BeforeEach
+    void setup() {
+        int threshold = 2;
+        levenshtein = new BitParallelLevenshtein(threshold);
+    }
+
+    @Test
+    void isSimilar_success_when_similar_input() {
+        // given
+
+        // when
+        boolean result = levenshtein.isSimilar("banana", "anna");
+
+        // then
+        assertTrue(result);
+    }
+
+    @Test
+    void isSimilar_fails_when_different_input() {
+        // given
+
+        // when
+        boolean result = levenshtein.isSimilar("banana", "bamboo");
+
+        // then
+        assertFalse(result);
+    }
+
+    @Test
+    void similarityIndex() {
+        // given
+
+        // when
+        int result = levenshtein.similarityIndex("banana", "anna");
+        int other = levenshtein.similarityIndex("kitten", "sitting");
+
+        // then
+        assertEquals(-2, result);
+        assertEquals(-3, other);
+    }
+
+    @Test
+    void pattern_reused_for_different_candidates() {
+        // given
+        String word = "fumarale";
+
+        // when
+        boolean first = levenshtein.isSimilar(word, "fumarole");
+        boolean second = levenshtein.isSimilar(word, "volcano");
+        boolean third = levenshtein.isSimilar(word, "fumaroles");
+
+        // then
+        assertTrue(first);
+        assertFalse(second);
+        assertTrue(third);
+    }
+
+    @Test
+    void distance_matches_bounded_levenshtein() {
+        // given
+        Random random = new Random(42);
+        BoundedLevenshtein reference = new BoundedLevenshtein(2);
+
+        for (int i = 0; i < 5000; i++) {
+            // short words use a single word, long ones the blocked variant
+            int maxLength = i % 2 == 0 ? 12 : 150;
+            String w1 = randomWord(random, maxLength);
+            String w2 = random.nextBoolean() ? randomWord(random, maxLength) : mutate(random, w1);
+
+            // when
+            int expected = reference.similarityIndex(w1, w2);
+            int actual = levenshtein.similarityIndex(w1, w2);
+
+            // then
+            assertEquals(expected, actual, w1 + " <> " + w2);
+            assertEquals(reference.isSimilar(w1, w2), levenshtein.isSimilar(w1, w2), w1 + " <> " + w2);
+        }
+    }
+
+    private static String randomWord(Random random, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            // mix latin and bengali chars
+            char base = random.nextInt(4) == 0 ? '\u0985' : 'a';
+            sb.append((char) (base + random.nextInt(4)));
+        }
+        return sb.toString();
+    }
+
+    private static String mutate(Random random, String word) {
+        StringBuilder sb = new StringBuilder(word);
+        for (int e = random.nextInt(4); e > 0 && sb.length() > 0; e--) {
+            int at = random.nextInt(sb.length());
+            switch (random.nextInt(3)) {
+                case 0: sb.deleteCharAt(at); break;
+                case 1: sb.insert(at, 'x'); break;
+                default: sb.setCharAt(at, 'y');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,135 @@
+package media.uqab.fuzzybleJava;
+
+import media.uqab.fuzzybleJava.impl.MockDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BkTreeTest {
+    private final FuzzyColumn column = new FuzzyColumn("tableA", "col1");
+    private final BoundedLevenshtein levenshtein = new BoundedLevenshtein();
+    private Connection connection;
+    private Fuzzyble db;
+
+    @BeforeEach
+    void setup() throws ClassNotFoundException, SQLException {
+        Class.forName("org.sqlite.JDBC");
+
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        db = new MockDatabase(connection);
+        db.onExecute("CREATE TABLE " + column.table + "(" + column.column + " TEXT)", null);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * Distinct random words of 4 to 6 letters out of a few, so many are within the threshold
+     */
+    private List<String> randomWords(Random random, int count) {
+        TreeSet<String> words = new TreeSet<>();
+        while (words.size() < count) {
+            StringBuilder word = new StringBuilder();
+            int length = 4 + random.nextInt(3);
+            for (int i = 0; i < length; i++) word.append((char) ('a' + random.nextInt(4)));
+            words.add(word.toString());
+        }
+        return new ArrayList<>(words);
+    }
+
+    private FuzzyCursor populated(List<String> words) throws IOException {
+        FuzzyCursor cursor = new FuzzyCursor(db, new BkTree());
+        cursor.createFuzzyble(column, false);
+        for (String word : words) cursor.addToFuzzySearch(column, word);
+        return cursor;
+    }
+
+    @Test
+    void stored_nodes_are_at_their_distance_to_the_parent() throws IOException {
+        // given
+        List<String> words = randomWords(new Random(7), 300);
+        populated(words);
+
+        // when
+        Map<String, String[]> nodes = new HashMap<>();
+        String table = new BkTree().getAssociatedTables(column)[0];
+        SqlCursor cursor = db.onQuery("SELECT id, word, parent, dist FROM " + table);
+        while (cursor.moveToNext()) {
+            nodes.put(cursor.getString(0), new String[]{cursor.getString(1), cursor.getString(2), cursor.getString(3)});
+        }
+        cursor.close();
+
+        // then
+        assertEquals(words.size(), nodes.size());
+        int roots = 0;
+        for (String[] node : nodes.values()) {
+            if (node[1] == null) {
+                roots++;
+                continue;
+            }
+            String parent = nodes.get(node[1])[0];
+            assertEquals(-levenshtein.similarityIndex(node[0], parent), Integer.parseInt(node[2]));
+        }
+        assertEquals(1, roots);
+    }
+
+    @Test
+    void fuzzy_search_matches_a_brute_force_scan_before_and_after_reloading() throws IOException {
+        // given
+        Random random = new Random(11);
+        List<String> words = randomWords(random, 300);
+        FuzzyCursor cursor = populated(words);
+        FuzzyCursor reloaded = new FuzzyCursor(db, new BkTree());
+
+        // when
+        int checked = 0;
+        for (String query : randomWords(random, 100)) {
+            // exact and prefix matches are answered before the tree
+            boolean prefixed = false;
+            for (String word : words) prefixed |= word.startsWith(query) || query.startsWith(word);
+            if (prefixed) continue;
+
+            TreeSet<String> expected = new TreeSet<>();
+            for (String word : words) {
+                if (levenshtein.isSimilar(query, word)) expected.add(word);
+            }
+
+            // then
+            assertEquals(expected, new TreeSet<>(Arrays.asList(cursor.getFuzzyWords(column, query))), query);
+            assertEquals(expected, new TreeSet<>(Arrays.asList(reloaded.getFuzzyWords(column, query))), query);
+            checked++;
+        }
+        assertTrue(checked > 10);
+    }
+
+    @Test
+    void removed_word_is_skipped_but_its_children_are_found() throws IOException {
+        // given
+        FuzzyCursor cursor = populated(Arrays.asList("volcano", "volcanos"));
+
+        // when
+        cursor.removeFromFuzzySearch(column, "volcano");
+        List<String> words = Arrays.asList(cursor.getFuzzyWords(column, "volcanoz"));
+        List<String> reloadedWords = Arrays.asList(new FuzzyCursor(db, new BkTree()).getFuzzyWords(column, "volcanoz"));
+
+        // then
+        assertEquals(Arrays.asList("volcanos"), words);
+        assertEquals(Arrays.asList("volcanos"), reloadedWords);
+    }
+}
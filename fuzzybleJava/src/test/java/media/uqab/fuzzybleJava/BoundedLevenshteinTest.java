@@ -0,0 +1,106 @@
+package media.uqab.fuzzybleJava;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedLevenshteinTest {
+    private BoundedLevenshtein levenshtein;
+    private BoundedLevenshtein defaultLev;
+
+    @BeforeEach
+    void setup() {
+        defaultLev = new BoundedLevenshtein();
+
+        int threshold = 2;
+        levenshtein = new BoundedLevenshtein(threshold);
+    }
+
+    @Test
+    void isSimilar_success_when_default_value_used() {
+        // given
+
+        // when
+        boolean result = defaultLev.isSimilar("banana", "anna");
+
+        // then
+        assertTrue(result);
+    }
+
+    @Test
+    void isSimilar_success_when_similar_input() {
+        // given
+
+        // when
+        boolean result = levenshtein.isSimilar("banana", "anna");
+
+        // then
+        assertTrue(result);
+    }
+
+    @Test
+    void isSimilar_fails_when_different_input() {
+        // given
+
+        // when
+        boolean result = levenshtein.isSimilar("banana", "bamboo");
+
+        // then
+        assertFalse(result);
+    }
+
+    @Test
+    void isSimilar_fails_when_length_differs_more_than_threshold() {
+        // given
+
+        // when
+        boolean result = levenshtein.isSimilar("fumarole", "fumarolic minerals");
+
+        // then
+        assertFalse(result);
+    }
+
+    @Test
+    void similarityIndex() {
+        // given
+
+        // when
+        int result = levenshtein.similarityIndex("banana", "anna");
+
+        // then
+        assertEquals(-2, result);
+    }
+
+    @Test
+    void similarityIndex_not_limited_by_threshold() {
+        // given
+
+        // when
+        int result = levenshtein.similarityIndex("kitten", "sitting");
+        int far = levenshtein.similarityIndex("fumarole", "volcano");
+
+        // then
+        assertEquals(-3, result);
+        assertEquals(-7, far);
+    }
+
+    @Test
+    void distance_matches_recursive_levenshtein() {
+        // given
+        String[] words = {"", "a", "ab", "abc", "fumarole", "fumarale", "marole", "volcano", "vulcano", "sulfides", "sulfates"};
+        Levenshtein reference = new Levenshtein();
+
+        for (String w1 : words) {
+            for (String w2 : words) {
+                // when
+                int expected = reference.similarityIndex(w1, w2);
+                int actual = levenshtein.similarityIndex(w1, w2);
+
+                // then
+                assertEquals(expected, actual, w1 + " <> " + w2);
+                assertEquals(expected >= -2, levenshtein.isSimilar(w1, w2), w1 + " <> " + w2);
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package media.uqab.fuzzybleJava;
+
+import media.uqab.fuzzybleJava.impl.MockDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeSyncTest {
+    private final FuzzyColumn column = new FuzzyColumn("tableA", "col1");
+    private final Trigram2 strategy = new Trigram2();
+    private Connection connection;
+    private Fuzzyble db;
+
+    @BeforeEach
+    void setup() throws ClassNotFoundException, SQLException {
+        Class.forName("org.sqlite.JDBC");
+
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        db = new MockDatabase(connection);
+        db.onExecute("CREATE TABLE " + column.table + "(" + column.column + " TEXT, updated INTEGER)", null);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * Insert rows "word1 common" to "word{rows} common", updated at their number
+     */
+    private void insertRows(int rows) {
+        db.onExecute("INSERT INTO " + column.table + " SELECT 'word' || x || ' common', x FROM (" +
+                "WITH RECURSIVE n(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM n WHERE x < " + rows + ") SELECT x FROM n" +
+                ")", null);
+    }
+
+    private String count(String word) throws IOException {
+        String query = "SELECT cnt FROM " + strategy.getAssociatedTables(column)[1] + " WHERE word = ?";
+        SqlCursor cursor = db.onQuery(query, new String[]{word});
+        String count = cursor.moveToNext() ? cursor.getString(0) : null;
+        cursor.close();
+        return count;
+    }
+
+    private boolean found(FuzzyCursor cursor, String word) throws IOException {
+        return Arrays.asList(cursor.getFuzzyWords(column, word)).contains(word);
+    }
+
+    @Test
+    void queued_changes_are_synced() throws IOException {
+        // given
+        insertRows(10);
+        FuzzyCursor cursor = new FuzzyCursor(db, strategy);
+        cursor.createFuzzyble(column, false);
+        cursor.populate(column, false);
+        cursor.installChangeTriggers(column);
+
+        // when
+        db.onExecute("INSERT INTO " + column.table + " VALUES ('Stratovolcano', 0)", null);
+        db.onExecute("UPDATE " + column.table + " SET " + column.column + " = 'Caldera' WHERE rowid = 1", null);
+        cursor.sync(column);
+
+        // then
+        assertTrue(found(cursor, "Stratovolcano"));
+        assertTrue(found(cursor, "Caldera"));
+        assertFalse(found(cursor, "word1"));
+        assertEquals("9", count("common"));
+    }
+
+    @Test
+    void queued_delete_removes_words_of_the_row() throws IOException {
+        // given
+        insertRows(10);
+        FuzzyCursor cursor = new FuzzyCursor(db, strategy);
+        cursor.createFuzzyble(column, false);
+        cursor.populate(column, false);
+        cursor.installChangeTriggers(column);
+
+        // when
+        db.onExecute("DELETE FROM " + column.table + " WHERE rowid = 5", null);
+        cursor.sync(column);
+
+        // then
+        assertNull(count("word5"));
+        assertEquals("9", count("common"));
+    }
+
+    @Test
+    void rows_changed_after_being_populated_are_synced() throws IOException {
+        // given
+        insertRows(10);
+        FuzzyCursor cursor = new FuzzyCursor(db, strategy);
+        cursor.createFuzzyble(column, false);
+        cursor.populate(column, false);
+        cursor.installChangeTriggers(column);
+        db.onExecute("INSERT INTO " + column.table + " VALUES ('word11 common', 11), ('word12 common', 12), ('word13 common', 13)", null);
+
+        // when
+        final boolean[] changed = {false};
+        cursor.sync(column, progress -> {
+            // the new rows are populated, their changes aren't drained yet
+            if (progress < 0.5f || changed[0]) return;
+            changed[0] = true;
+            db.onExecute("UPDATE " + column.table + " SET " + column.column + " = 'Caldera' WHERE rowid = 12", null);
+            db.onExecute("DELETE FROM " + column.table + " WHERE rowid = 13", null);
+        });
+        cursor.sync(column);
+
+        // then
+        assertTrue(changed[0]);
+        assertEquals("1", count("word11"));
+        assertNull(count("word12"));
+        assertNull(count("word13"));
+        assertEquals("1", count("Caldera"));
+        assertEquals("11", count("common"));
+    }
+
+    @Test
+    void populate_discards_changes_queued_before() throws IOException {
+        // given
+        insertRows(10);
+        FuzzyCursor cursor = new FuzzyCursor(db, strategy);
+        cursor.createFuzzyble(column, false);
+        cursor.installChangeTriggers(column);
+        db.onExecute("UPDATE " + column.table + " SET " + column.column + " = 'Caldera' WHERE rowid = 1", null);
+
+        // when
+        cursor.populate(column, false);
+        cursor.sync(column);
+
+        // then
+        assertEquals("1", count("Caldera"));
+        assertEquals("9", count("common"));
+    }
+
+    @Test
+    void updated_at_sync_populates_then_writes_later_updates() throws IOException {
+        // given
+        insertRows(10);
+        FuzzyCursor cursor = new FuzzyCursor(db, strategy);
+        cursor.createFuzzyble(column, false);
+
+        // when
+        cursor.sync(column, "updated", null);
+        cursor.sync(column, "updated", null);
+        String afterSyncs = count("common");
+        db.onExecute("UPDATE " + column.table + " SET " + column.column + " = 'Caldera', updated = 11 WHERE rowid = 1", null);
+        cursor.sync(column, "updated", null);
+
+        // then
+        assertTrue(cursor.isPopulated(column));
+        assertEquals("10", afterSyncs);
+        assertTrue(found(cursor, "Caldera"));
+        assertEquals("10", count("common"));
+    }
+
+    @Test
+    void updated_at_sync_after_populate_does_not_count_again() throws IOException {
+        // given
+        insertRows(10);
+        FuzzyCursor cursor = new FuzzyCursor(db, strategy);
+        cursor.createFuzzyble(column, false);
+        cursor.populate(column, false);
+
+        // when
+        cursor.sync(column, "updated", null);
+
+        // then
+        assertEquals("10", count("common"));
+        assertEquals("1", count("word10"));
+    }
+
+    @Test
+    void resumed_populate_counts_every_row_once() throws IOException {
+        // given
+        int rows = Populator.ROWS_PER_CHUNK * 2 + 10;
+        insertRows(rows);
+        FuzzyCursor cursor = new FuzzyCursor(db, strategy);
+        cursor.createFuzzyble(column, false);
+        try {
+            cursor.populate(column, false, progress -> {
+                if (progress > 0.6f) Thread.currentThread().interrupt();
+            });
+        } finally {
+            Thread.interrupted();
+        }
+        boolean interruptedPopulated = cursor.isPopulated(column);
+
+        // when
+        cursor.populate(column, false);
+        boolean removed = cursor.removeFromFuzzySearch(column, "word7 common");
+
+        // then
+        assertFalse(interruptedPopulated);
+        assertTrue(cursor.isPopulated(column));
+        assertTrue(removed);
+        assertNull(count("word7"));
+        assertEquals("1", count("word" + rows));
+        assertEquals(String.valueOf(rows - 1), count("common"));
+    }
+
+    @Test
+    void interrupted_populate_without_batches_starts_over() throws IOException {
+        // given
+        int rows = Populator.ROWS_PER_CHUNK * 2 + 10;
+        insertRows(rows);
+        Fuzzyble noBatches = new Fuzzyble() {
+            @Override
+            public SqlCursor onQuery(String query) {
+                return db.onQuery(query);
+            }
+
+            @Override
+            public SqlCursor onQuery(String query, String[] args) {
+                return db.onQuery(query, args);
+            }
+
+            @Override
+            public void onExecute(String sql, String[] args) {
+                db.onExecute(sql, args);
+            }
+        };
+        FuzzyCursor cursor = new FuzzyCursor(noBatches, strategy);
+        cursor.createFuzzyble(column, false);
+        try {
+            cursor.populate(column, false, progress -> {
+                if (progress > 0.6f) Thread.currentThread().interrupt();
+            });
+        } finally {
+            Thread.interrupted();
+        }
+        String interruptedCount = count("common");
+
+        // when
+        cursor.populate(column, false);
+
+        // then
+        assertNull(interruptedCount);
+        assertTrue(cursor.isPopulated(column));
+        assertEquals("1", count("word7"));
+        assertEquals(String.valueOf(rows), count("common"));
+    }
+}
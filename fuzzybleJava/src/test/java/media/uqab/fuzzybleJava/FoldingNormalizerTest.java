@@ -0,0 +1,107 @@
+package media.uqab.fuzzybleJava;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FoldingNormalizerTest {
+
+    @Test
+    void folds_case() {
+        // given
+        Normalizer normalizer = new FoldingNormalizer(FoldingNormalizer.CASE);
+
+        // when
+        String upper = normalizer.normalize("VOLCANO");
+        String title = normalizer.normalize("Volcano");
+        String sigma = normalizer.normalize("\u03a3\u03c3\u03c2");
+
+        // then
+        assertEquals("volcano", upper);
+        assertEquals("volcano", title);
+        assertEquals("\u03c3\u03c3\u03c3", sigma);
+    }
+
+    @Test
+    void strips_diacritics() {
+        // given
+        Normalizer normalizer = new FoldingNormalizer(FoldingNormalizer.DIACRITICS);
+
+        // when
+        String composed = normalizer.normalize("caf\u00e9 na\u00efve");
+        String decomposed = normalizer.normalize("cafe\u0301");
+
+        // then
+        assertEquals("cafe naive", composed);
+        assertEquals("cafe", decomposed);
+    }
+
+    @Test
+    void keeps_bengali_vowel_signs() {
+        // given
+        Normalizer normalizer = new FoldingNormalizer();
+        String word = "\u0995\u09bf\u09a4\u09be\u09ac"; // kitab
+
+        // when
+        String normalized = normalizer.normalize(word);
+
+        // then
+        assertEquals(word, normalized);
+    }
+
+    @Test
+    void folds_digits_and_compatibility_forms() {
+        // given
+        Normalizer normalizer = new FoldingNormalizer();
+
+        // when
+        String digits = normalizer.normalize("\u09e7\u09e8\u09e9");
+        String fullWidth = normalizer.normalize("\uff21\uff22\uff23");
+        String ligature = normalizer.normalize("\ufb01sh");
+
+        // then
+        assertEquals("123", digits);
+        assertEquals("abc", fullWidth);
+        assertEquals("fish", ligature);
+    }
+
+    @Test
+    void keeps_normalized_text() {
+        // given
+        Normalizer normalizer = new FoldingNormalizer();
+        String text = "already normalized";
+
+        // when
+        String normalized = normalizer.normalize(text);
+
+        // then
+        assertSame(text, normalized);
+        assertNull(normalizer.normalize(null));
+        assertSame(text, Normalizer.NONE.normalize(text));
+    }
+
+    @Test
+    void column_with_normalizer_is_serializable() throws IOException, ClassNotFoundException {
+        // given
+        FuzzyColumn column = new FuzzyColumn("tableA", "col1", new FoldingNormalizer());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // when
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(column);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        FuzzyColumn read = (FuzzyColumn) in.readObject();
+        in.close();
+
+        // then
+        assertEquals(column.toString(), read.toString());
+        assertEquals("volcano", read.normalize("VOLCANO"));
+    }
+}
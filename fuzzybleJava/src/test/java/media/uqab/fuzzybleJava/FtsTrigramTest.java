@@ -0,0 +1,89 @@
+package media.uqab.fuzzybleJava;
+
+import media.uqab.fuzzybleJava.impl.MockDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FtsTrigramTest {
+    private final FuzzyColumn column = new FuzzyColumn("tableA", "col1");
+    private Connection connection;
+    private Fuzzyble db;
+
+    @BeforeEach
+    void setup() throws ClassNotFoundException, SQLException {
+        Class.forName("org.sqlite.JDBC");
+
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        db = new MockDatabase(connection);
+        db.onExecute("CREATE TABLE " + column.table + "(" + column.column + " TEXT)", null);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void typo_is_found_by_fuzzy_search() throws IOException {
+        // given
+        FuzzyCursor cursor = new FuzzyCursor(db, new FtsTrigram());
+        cursor.createFuzzyble(column, false);
+        cursor.addToFuzzySearch(column, "Stratovolcano Caldera Fumarole");
+
+        // when
+        List<String> words = Arrays.asList(cursor.getFuzzyWords(column, "Stratovolcamo"));
+
+        // then
+        assertEquals(Arrays.asList("Stratovolcano"), words);
+    }
+
+    @Test
+    void candidates_share_enough_trigrams() throws IOException {
+        // given
+        CandidateSimilarity similarity = new CandidateSimilarity();
+        FuzzyCursor cursor = new FuzzyCursor(db, new FtsTrigram(similarity));
+        cursor.createFuzzyble(column, false);
+        cursor.addToFuzzySearch(column, "abcdefgx abcdexyz abcxyzqw");
+
+        // when
+        // 6 trigrams within 1 edit share at least 3 of them
+        cursor.getFuzzyWords(column, "abcdefgh");
+
+        // then
+        assertEquals(Arrays.asList("abcdefgx", "abcdexyz"), similarity.candidates);
+    }
+
+    /**
+     * Takes every candidate within one edit, noting them in the order given
+     */
+    private static class CandidateSimilarity implements Similarity {
+        private final List<String> candidates = new ArrayList<>();
+
+        @Override
+        public boolean isSimilar(String w1, String w2) {
+            candidates.add(w2);
+            return true;
+        }
+
+        @Override
+        public int similarityIndex(String w1, String w2) {
+            return 0;
+        }
+
+        @Override
+        public int getThresholdDistance() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package media.uqab.fuzzybleJava;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyIndexFileTest {
+    private static File file;
+    private static FuzzyIndexFile index;
+
+    @BeforeAll
+    static void setup() throws IOException {
+        List<String> words = Arrays.asList("fumarole", "fumaroles", "fumarolic", "volcano", "Vulcano", "volcano", "fum", "\u0986\u09AE\u09BE\u09B0");
+
+        file = File.createTempFile("fuzzyble", ".idx");
+        FuzzyIndexFile.write(words, file);
+        index = FuzzyIndexFile.open(file);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        index = null;
+        if (file != null) file.delete();
+    }
+
+    @Test
+    void duplicates_removed() {
+        // given
+
+        // when
+        int size = index.size();
+
+        // then
+        assertEquals(7, size);
+    }
+
+    @Test
+    void exact_match() {
+        // given
+
+        // when
+        boolean found = index.contains("volcano");
+        boolean foundBengali = index.contains("\u0986\u09AE\u09BE\u09B0");
+        boolean missing = index.contains("volcan");
+
+        // then
+        assertTrue(found);
+        assertTrue(foundBengali);
+        assertFalse(missing);
+    }
+
+    @Test
+    void prefix_match_both_directions() {
+        // given
+
+        // when
+        List<String> longer = index.prefixMatched("fumarol");
+        List<String> shorter = index.prefixMatched("fumarolesque");
+        List<String> bengali = index.prefixMatched("\u0986\u09AE");
+
+        // then
+        assertEquals(Arrays.asList("fum", "fumarole", "fumaroles", "fumarolic"), longer);
+        assertEquals(Arrays.asList("fum", "fumarole", "fumaroles"), shorter);
+        assertEquals(Arrays.asList("\u0986\u09AE\u09BE\u09B0"), bengali);
+    }
+
+    @Test
+    void candidates_share_trigrams() {
+        // given
+        String word = "fumarale";
+        long[] trigrams = new long[word.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) trigrams[i] = Trigrams.pack(word, i);
+
+        // when
+        List<String> any = index.candidates(trigrams, 1);
+        List<String> most = index.candidates(trigrams, 3);
+
+        // then
+        assertTrue(any.containsAll(Arrays.asList("fum", "fumarole", "fumaroles", "fumarolic")));
+        assertFalse(any.contains("volcano"));
+        assertEquals(Arrays.asList("fumarole", "fumaroles", "fumarolic"), most);
+    }
+
+    @Test
+    void open_fails_for_other_files() throws IOException {
+        // given
+        File other = File.createTempFile("fuzzyble", ".txt");
+        FileOutputStream out = new FileOutputStream(other);
+        out.write("not an index file at all, just some text".getBytes("UTF-8"));
+        out.close();
+
+        // when
+        Executable test = () -> FuzzyIndexFile.open(other);
+
+        // then
+        assertThrows(IOException.class, test);
+        other.delete();
+    }
+}
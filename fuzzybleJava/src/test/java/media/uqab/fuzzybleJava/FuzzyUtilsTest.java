@@ -10,6 +10,8 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -287,4 +289,100 @@ class FuzzyUtilsTest {
         assertTrue(partialMatch.length > 0);
         assertTrue(fuzzyMatch.length > 0);
     }
+
+    @Test @Order(11)
+    void shouldRankFuzzyMatchedWordsOnce() {
+        // given
+        String word = "fumarole";
+        List<String> candidates = Arrays.asList("volcano", "fumaroles", "fumarole", "fumarolic", "fumaroles", "fumarale");
+        final int[] calls = {0};
+        Similarity counting = new Similarity() {
+            final Similarity delegate = new BoundedLevenshtein(2);
+
+            @Override
+            public boolean isSimilar(String w1, String w2) {
+                calls[0]++;
+                return delegate.isSimilar(w1, w2);
+            }
+
+            @Override
+            public int similarityIndex(String w1, String w2) {
+                calls[0]++;
+                return delegate.similarityIndex(w1, w2);
+            }
+
+            @Override
+            public int score(String w1, String w2) {
+                calls[0]++;
+                return delegate.score(w1, w2);
+            }
+        };
+
+        // when
+        List<ScoredWord> ranked = FuzzyUtils.rankFuzzyMatched(word, candidates, counting, Integer.MAX_VALUE);
+
+        // then
+        assertEquals(5, calls[0]);
+        assertEquals(4, ranked.size());
+        assertEquals("fumarole", ranked.get(0).word);
+        assertEquals(0, ranked.get(0).score);
+        assertEquals("fumaroles", ranked.get(1).word);
+        assertEquals("fumarale", ranked.get(2).word);
+        assertEquals("fumarolic", ranked.get(3).word);
+    }
+
+    @Test @Order(12)
+    void shouldKeepOnlyBestFuzzyMatchedWords() {
+        // given
+        String word = "fumarole";
+        List<String> candidates = Arrays.asList("fumarolic", "volcano", "fumaroles", "fumarole", "fumarale");
+
+        // when
+        List<String> best = FuzzyUtils.filterFuzzyMatched(word, candidates, new BoundedLevenshtein(2), 2);
+        List<String> none = FuzzyUtils.filterFuzzyMatched(word, candidates, new BoundedLevenshtein(2), 0);
+
+        // then
+        assertEquals(Arrays.asList("fumarole", "fumaroles"), best);
+        assertTrue(none.isEmpty());
+    }
+
+    @Test @Order(13)
+    void shouldRequireSharedTrigramsByThreshold() {
+        // given
+        int trigrams = 6; // "fumarole"
+
+        // when
+        int strict = FuzzyUtils.minSharedTrigrams(trigrams, new BoundedLevenshtein(1));
+        int loose = FuzzyUtils.minSharedTrigrams(trigrams, new BoundedLevenshtein(2));
+        int unknown = FuzzyUtils.minSharedTrigrams(trigrams, new Similarity() {
+            @Override
+            public boolean isSimilar(String w1, String w2) {
+                return true;
+            }
+
+            @Override
+            public int similarityIndex(String w1, String w2) {
+                return 0;
+            }
+        });
+
+        // then
+        assertEquals(3, strict);
+        assertEquals(1, loose);
+        assertEquals(1, unknown);
+    }
+
+    @Test @Order(14)
+    void shouldLookupPrefixesOfSearchedWord() {
+        // given
+        String word = "fum\uD83D\uDE00";
+        List<String> args = new ArrayList<>();
+
+        // when
+        String query = FuzzyUtils.prefixMatchQuery("words", word, args);
+
+        // then
+        assertFalse(query.contains("LIKE"));
+        assertEquals(Arrays.asList(word, word, "f", "fu", "fum"), args);
+    }
 }
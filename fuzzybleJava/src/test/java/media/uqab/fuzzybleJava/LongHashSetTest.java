@@ -0,0 +1,46 @@
+package media.uqab.fuzzybleJava;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashSetTest {
+
+    @Test
+    void duplicates_not_added() {
+        // given
+        LongHashSet set = new LongHashSet();
+
+        // when
+        boolean first = set.add(Trigrams.pack("fum", 0));
+        boolean second = set.add(Trigrams.pack("fum", 0));
+
+        // then
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void same_as_hash_set_while_growing() {
+        // given
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(7);
+
+        // when
+        for (int i = 0; i < 10000; i++) {
+            long value = Trigrams.pack((char) ('a' + random.nextInt(26)), (char) ('a' + random.nextInt(26)), (char) ('a' + random.nextInt(26)));
+            assertEquals(expected.add(value), set.add(value));
+        }
+
+        // then
+        assertEquals(expected.size(), set.size());
+        for (long value : expected) assertTrue(set.contains(value));
+        assertFalse(set.contains(Trigrams.pack("AAA", 0)));
+    }
+}
@@ -0,0 +1,186 @@
+package media.uqab.fuzzybleJava;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopulatorTest {
+    private final FuzzyColumn column = new FuzzyColumn("table", "column");
+
+    @Test
+    void writes_in_read_order() throws IOException {
+        // given
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) texts.add("text" + i);
+        List<String> written = new ArrayList<>();
+        Populator<String> populator = new Populator<>(String::toUpperCase, written::add, 4);
+
+        // when
+        boolean populated = populator.populate(new TextDatabase(texts), column, progress -> {});
+
+        // then
+        assertTrue(populated);
+        assertEquals(1000, written.size());
+        for (int i = 0; i < 1000; i++) assertEquals("TEXT" + i, written.get(i));
+    }
+
+    @Test
+    void reports_first_and_last_progress() throws IOException {
+        // given
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) texts.add("text" + i);
+        List<Float> progress = new ArrayList<>();
+        Populator<String> populator = new Populator<>(text -> text, text -> {}, 2);
+
+        // when
+        populator.populate(new TextDatabase(texts), column, progress::add);
+
+        // then
+        assertTrue(progress.size() <= 10);
+        assertEquals(0.1f, progress.get(0), 0.001f);
+        assertEquals(1f, progress.get(progress.size() - 1), 0.001f);
+    }
+
+    @Test
+    void rethrows_failure_of_splitter() {
+        // given
+        List<String> texts = new ArrayList<>();
+        texts.add("text");
+        texts.add(null);
+        Populator<String> populator = new Populator<>(String::toUpperCase, text -> {}, 2);
+
+        // when, then
+        assertThrows(NullPointerException.class, () -> populator.populate(new TextDatabase(texts), column, progress -> {}));
+    }
+
+    @Test
+    void saves_checkpoint_after_every_chunk() throws IOException {
+        // given
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < Populator.ROWS_PER_CHUNK * 2 + 10; i++) texts.add("text" + i);
+        List<String> written = new ArrayList<>();
+        RecordingCheckpoint checkpoint = new RecordingCheckpoint(0);
+        Populator<String> populator = new Populator<>(text -> text, written::add, 4);
+
+        // when
+        boolean populated = populator.populate(new TextDatabase(texts), column, checkpoint, progress -> {});
+
+        // then
+        assertTrue(populated);
+        assertEquals(texts, written);
+        List<Long> expected = new ArrayList<>();
+        expected.add((long) Populator.ROWS_PER_CHUNK);
+        expected.add((long) Populator.ROWS_PER_CHUNK * 2);
+        expected.add((long) texts.size());
+        assertEquals(expected, checkpoint.saved);
+    }
+
+    @Test
+    void resumes_after_checkpoint() throws IOException {
+        // given
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) texts.add("text" + i);
+        List<String> written = new ArrayList<>();
+        List<Float> progress = new ArrayList<>();
+        Populator<String> populator = new Populator<>(text -> text, written::add, 1);
+
+        // when
+        populator.populate(new TextDatabase(texts), column, new RecordingCheckpoint(60), progress::add);
+
+        // then
+        assertEquals(texts.subList(60, 100), written);
+        assertEquals(0.61f, progress.get(0), 0.001f);
+    }
+
+    private static class RecordingCheckpoint implements Checkpoint {
+        private final long lastRowId;
+        private final List<Long> saved = new ArrayList<>();
+
+        RecordingCheckpoint(long lastRowId) {
+            this.lastRowId = lastRowId;
+        }
+
+        @Override
+        public long lastRowId() {
+            return lastRowId;
+        }
+
+        @Override
+        public void save(long rowId) {
+            saved.add(rowId);
+        }
+    }
+
+    /**
+     * Source table whose rowids are 1, 2, 3...
+     */
+    private static class TextDatabase implements Fuzzyble {
+        private final List<String> texts;
+
+        TextDatabase(List<String> texts) {
+            this.texts = texts;
+        }
+
+        @Override
+        public SqlCursor onQuery(String query) {
+            List<String[]> rows = new ArrayList<>();
+            for (String text : texts) rows.add(new String[]{text});
+            return new RowsCursor(rows);
+        }
+
+        @Override
+        public SqlCursor onQuery(String query, String[] args) {
+            long rowId = Long.parseLong(args[0]);
+            List<String[]> rows = new ArrayList<>();
+
+            if (query.startsWith("SELECT COUNT(*)")) {
+                rows.add(new String[]{String.valueOf(Math.min(rowId, texts.size()))});
+                return new RowsCursor(rows);
+            }
+
+            for (long i = rowId; i < texts.size() && rows.size() < Populator.ROWS_PER_CHUNK; i++) {
+                rows.add(new String[]{String.valueOf(i + 1), texts.get((int) i)});
+            }
+            return new RowsCursor(rows);
+        }
+
+        @Override
+        public void onExecute(String sql, String[] args) {}
+
+        @Override
+        public long onCount(String table) {
+            return texts.size();
+        }
+    }
+
+    private static class RowsCursor implements SqlCursor {
+        private final List<String[]> rows;
+        private int position = -1;
+
+        RowsCursor(List<String[]> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public String getString(int columnIndex) {
+            return rows.get(position)[columnIndex];
+        }
+
+        @Override
+        public boolean moveToNext() {
+            return ++position < rows.size();
+        }
+
+        @Override
+        public int count() {
+            return rows.size();
+        }
+
+        @Override
+        public void close() {}
+    }
+}
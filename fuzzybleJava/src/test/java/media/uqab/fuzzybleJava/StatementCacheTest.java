@@ -0,0 +1,149 @@
+package media.uqab.fuzzybleJava;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementCacheTest {
+
+    @Test
+    void statement_prepared_once_per_sql() {
+        // given
+        CountingDatabase database = new CountingDatabase();
+        StatementCache cache = new StatementCache();
+
+        // when
+        SqlStatement first = cache.get(database, "INSERT INTO t VALUES (?)");
+        SqlStatement second = cache.get(database, "INSERT INTO t VALUES (?)");
+        cache.get(database, "SELECT * FROM t WHERE a = ?");
+
+        // then
+        assertSame(first, second);
+        assertEquals(2, database.prepared);
+    }
+
+    @Test
+    void statements_closed_when_database_changes() {
+        // given
+        CountingDatabase database = new CountingDatabase();
+        CountingDatabase other = new CountingDatabase();
+        StatementCache cache = new StatementCache();
+
+        // when
+        cache.get(database, "INSERT INTO t VALUES (?)");
+        cache.get(other, "INSERT INTO t VALUES (?)");
+
+        // then
+        assertEquals(1, database.closed);
+        assertEquals(1, other.prepared);
+    }
+
+    @Test
+    void clear_closes_statements() {
+        // given
+        CountingDatabase database = new CountingDatabase();
+        StatementCache cache = new StatementCache();
+        cache.get(database, "INSERT INTO t VALUES (?)");
+
+        // when
+        cache.clear();
+        cache.get(database, "INSERT INTO t VALUES (?)");
+
+        // then
+        assertEquals(1, database.closed);
+        assertEquals(2, database.prepared);
+    }
+
+    @Test
+    void statements_not_shared_between_threads() throws InterruptedException {
+        // given
+        CountingDatabase database = new CountingDatabase();
+        StatementCache cache = new StatementCache();
+        SqlStatement[] other = new SqlStatement[1];
+
+        // when
+        SqlStatement own = cache.get(database, "SELECT * FROM t WHERE a = ?");
+        Thread thread = new Thread(() -> other[0] = cache.get(database, "SELECT * FROM t WHERE a = ?"));
+        thread.start();
+        thread.join();
+
+        // then
+        assertNotSame(own, other[0]);
+        assertSame(own, cache.get(database, "SELECT * FROM t WHERE a = ?"));
+        assertEquals(2, database.prepared);
+    }
+
+    @Test
+    void clear_leaves_statements_of_other_threads_to_them() throws InterruptedException {
+        // given
+        CountingDatabase database = new CountingDatabase();
+        StatementCache cache = new StatementCache();
+        CountDownLatch prepared = new CountDownLatch(1);
+        CountDownLatch cleared = new CountDownLatch(1);
+        int[] closedBeforeGet = new int[1];
+        Thread thread = new Thread(() -> {
+            cache.get(database, "SELECT * FROM t WHERE a = ?");
+            prepared.countDown();
+            try {
+                cleared.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            closedBeforeGet[0] = database.closed;
+            cache.get(database, "SELECT * FROM t WHERE a = ?");
+        });
+        thread.start();
+        prepared.await();
+
+        // when
+        cache.clear();
+        cleared.countDown();
+        thread.join();
+
+        // then
+        assertEquals(0, closedBeforeGet[0]);
+        assertEquals(1, database.closed);
+        assertEquals(2, database.prepared);
+    }
+
+    private static class CountingDatabase implements Fuzzyble {
+        private int prepared = 0;
+        private int closed = 0;
+
+        @Override
+        public SqlCursor onQuery(String query) {
+            return null;
+        }
+
+        @Override
+        public SqlCursor onQuery(String query, String[] args) {
+            return null;
+        }
+
+        @Override
+        public void onExecute(String sql, String[] args) {
+        }
+
+        @Override
+        public SqlStatement onPrepare(String sql) {
+            prepared++;
+            return new SqlStatement() {
+                @Override
+                public void execute(String[] args) {
+                }
+
+                @Override
+                public SqlCursor query(String[] args) {
+                    return null;
+                }
+
+                @Override
+                public void close() {
+                    closed++;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package media.uqab.fuzzybleJava;
+
+import media.uqab.fuzzybleJava.impl.MockDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StrategyRemoveTest {
+    private final FuzzyColumn column = new FuzzyColumn("tableA", "col1");
+    private Connection connection;
+    private Fuzzyble db;
+
+    @BeforeEach
+    void setup() throws ClassNotFoundException, SQLException {
+        Class.forName("org.sqlite.JDBC");
+
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        db = new MockDatabase(connection);
+        db.onExecute("CREATE TABLE " + column.table + "(" + column.column + " TEXT)", null);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    private boolean found(FuzzyCursor cursor, String word) throws IOException {
+        return Arrays.asList(cursor.getFuzzyWords(column, word)).contains(word);
+    }
+
+    /**
+     * Remove and update texts sharing a word, the shared word stays until no text contains it
+     */
+    private void assertForgetsWordsOfRemovedTexts(Strategy strategy) throws IOException {
+        // given
+        FuzzyCursor cursor = new FuzzyCursor(db, strategy);
+        cursor.createFuzzyble(column, false);
+        cursor.addToFuzzySearch(column, "Caldera Stratovolcano");
+        cursor.addToFuzzySearch(column, "Caldera Geyser");
+
+        // when
+        boolean removed = cursor.removeFromFuzzySearch(column, "Caldera Stratovolcano");
+        boolean stratovolcano = found(cursor, "Stratovolcano");
+        boolean calderaKept = found(cursor, "Caldera");
+        boolean updated = cursor.updateFuzzySearch(column, "Caldera Geyser", "Fumarole");
+
+        // then
+        assertTrue(removed);
+        assertFalse(stratovolcano);
+        assertTrue(calderaKept);
+        assertTrue(updated);
+        assertFalse(found(cursor, "Caldera"));
+        assertFalse(found(cursor, "Geyser"));
+        assertTrue(found(cursor, "Fumarole"));
+    }
+
+    @Test
+    void trigram_forgets_words_of_removed_texts() throws IOException {
+        assertForgetsWordsOfRemovedTexts(new Trigram());
+    }
+
+    @Test
+    void trigram2_forgets_words_of_removed_texts() throws IOException {
+        assertForgetsWordsOfRemovedTexts(new Trigram2());
+    }
+
+    @Test
+    void bk_tree_forgets_words_of_removed_texts() throws IOException {
+        assertForgetsWordsOfRemovedTexts(new BkTree());
+    }
+
+    @Test
+    void sym_spell_forgets_words_of_removed_texts() throws IOException {
+        assertForgetsWordsOfRemovedTexts(new SymSpell());
+    }
+
+    @Test
+    void in_memory_trigram_forgets_words_of_removed_texts() throws IOException {
+        assertForgetsWordsOfRemovedTexts(new InMemoryTrigram());
+    }
+
+    @Test
+    void levenshtein_automaton_forgets_words_of_removed_texts() throws IOException {
+        assertForgetsWordsOfRemovedTexts(new LevenshteinAutomaton());
+    }
+
+    @Test
+    void fts_trigram_forgets_words_of_removed_texts() throws IOException {
+        assertForgetsWordsOfRemovedTexts(new FtsTrigram());
+    }
+}
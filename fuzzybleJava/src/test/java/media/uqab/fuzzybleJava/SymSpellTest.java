@@ -0,0 +1,55 @@
+package media.uqab.fuzzybleJava;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymSpellTest {
+
+    @Test
+    void deletes_contain_word_and_all_deletions_within_distance() {
+        // given
+        SymSpell symSpell = new SymSpell(new BoundedLevenshtein(1));
+
+        // when
+        Set<String> deletes = symSpell.deletes("abc");
+
+        // then
+        assertEquals(4, deletes.size());
+        assertTrue(deletes.contains("abc"));
+        assertTrue(deletes.contains("bc"));
+        assertTrue(deletes.contains("ac"));
+        assertTrue(deletes.contains("ab"));
+    }
+
+    @Test
+    void deletes_are_generated_from_prefix_only() {
+        // given
+        SymSpell symSpell = new SymSpell(new BoundedLevenshtein(2), 4);
+
+        // when
+        Set<String> deletes = symSpell.deletes("fumarole");
+
+        // then
+        assertTrue(deletes.contains("fuma"));
+        assertTrue(deletes.contains("fm"));
+        assertFalse(deletes.contains("fumarole"));
+        for (String delete : deletes) assertTrue(delete.length() >= 2 && delete.length() <= 4);
+    }
+
+    @Test
+    void words_within_distance_share_a_delete() {
+        // given
+        SymSpell symSpell = new SymSpell(new BoundedLevenshtein(2));
+
+        // when
+        Set<String> word = symSpell.deletes("fumarole");
+        Set<String> typo = symSpell.deletes("fmuarole");
+
+        // then
+        word.retainAll(typo);
+        assertFalse(word.isEmpty());
+    }
+}
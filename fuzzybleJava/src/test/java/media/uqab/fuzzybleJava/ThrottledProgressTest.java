@@ -0,0 +1,103 @@
+package media.uqab.fuzzybleJava;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThrottledProgressTest {
+
+    @Test
+    void throttles_reports_between_first_and_last() {
+        // given
+        List<Float> reported = new ArrayList<>();
+        ThrottledProgress progress = new ThrottledProgress(reported::add, 100_000, 0);
+
+        // when
+        for (int i = 0; i < 100_000; i++) progress.advance();
+        progress.finish();
+
+        // then
+        assertTrue(reported.size() <= 1 / ThrottledProgress.MIN_DELTA + 2);
+        assertEquals(0.00001f, reported.get(0), 0.000001f);
+        assertEquals(1f, reported.get(reported.size() - 1), 0.001f);
+    }
+
+    @Test
+    void reports_rate_and_time_left() throws InterruptedException {
+        // given
+        List<float[]> reported = new ArrayList<>();
+        ProgressListener listener = new ProgressListener() {
+            @Override
+            public void onProgress(float progress) {}
+
+            @Override
+            public void onProgress(float progress, float rowsPerSecond, long etaMillis) {
+                reported.add(new float[]{progress, rowsPerSecond, etaMillis});
+            }
+        };
+        ThrottledProgress progress = new ThrottledProgress(listener, 10, 5);
+
+        // when
+        progress.advance();
+        Thread.sleep(ThrottledProgress.MIN_INTERVAL_MS + 10);
+        progress.advance();
+
+        // then
+        assertEquals(2, reported.size());
+        float[] last = reported.get(1);
+        assertEquals(0.7f, last[0], 0.001f);
+        assertTrue(last[1] > 0);
+        assertTrue(last[2] > 0);
+    }
+
+    @Test
+    void never_goes_past_the_estimated_total() {
+        // given
+        List<Float> reported = new ArrayList<>();
+        ThrottledProgress progress = new ThrottledProgress(reported::add, 2, 0);
+
+        // when
+        for (int i = 0; i < 5; i++) progress.advance();
+        progress.finish();
+
+        // then
+        for (float p : reported) assertTrue(p <= 1f);
+    }
+
+    @Test
+    void reports_by_interval_without_a_total() throws InterruptedException {
+        // given
+        List<Float> reported = new ArrayList<>();
+        ThrottledProgress progress = new ThrottledProgress(reported::add, 0, 0);
+
+        // when
+        progress.advance();
+        progress.advance();
+        Thread.sleep(ThrottledProgress.MIN_INTERVAL_MS + 10);
+        progress.advance();
+
+        // then
+        assertEquals(2, reported.size());
+    }
+
+    @Test
+    void reports_by_interval_past_the_estimated_total() throws InterruptedException {
+        // given
+        List<Float> reported = new ArrayList<>();
+        ThrottledProgress progress = new ThrottledProgress(reported::add, 2, 0);
+
+        // when
+        progress.advance();
+        Thread.sleep(ThrottledProgress.MIN_INTERVAL_MS + 10);
+        progress.advance();
+        Thread.sleep(ThrottledProgress.MIN_INTERVAL_MS + 10);
+        progress.advance();
+
+        // then
+        assertEquals(3, reported.size());
+        assertEquals(1f, reported.get(2), 0.001f);
+    }
+}
@@ -0,0 +1,66 @@
+package media.uqab.fuzzybleJava;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenizerTest {
+    private final Tokenizer tokenizer = new Tokenizer();
+
+    @Test
+    void splits_at_spaces_and_special_chars() {
+        // given
+        List<String> words = new ArrayList<>();
+
+        // when
+        tokenizer.words("Hello, world! foo-bar at baz_qux", (chars, start, end) -> words.add(new String(chars, start, end - start)));
+
+        // then
+        assertEquals(Arrays.asList("Hello", "world", "foo", "bar", "baz", "qux"), words);
+    }
+
+    @Test
+    void passes_trigrams_after_their_word() {
+        // given
+        List<String> spans = new ArrayList<>();
+
+        // when
+        tokenizer.words("abcd xyz",
+                (chars, start, end) -> spans.add("w:" + new String(chars, start, end - start)),
+                (chars, start, end) -> spans.add("t:" + new String(chars, start, end - start)));
+
+        // then
+        assertEquals(Arrays.asList("w:abcd", "t:abc", "t:bcd", "w:xyz", "t:xyz"), spans);
+    }
+
+    @Test
+    void removes_special_chars_before_trigrams() {
+        // given
+        List<String> trigrams = new ArrayList<>();
+
+        // when
+        tokenizer.trigrams("ab-cd", (chars, start, end) -> trigrams.add(new String(chars, start, end - start)));
+
+        // then
+        assertEquals(Arrays.asList("abc", "bcd"), trigrams);
+    }
+
+    @Test
+    void keeps_words_longer_than_the_buffer() {
+        // given
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) sb.append('a');
+        List<String> words = new ArrayList<>();
+
+        // when
+        tokenizer.words("ab " + sb, (chars, start, end) -> words.add(new String(chars, start, end - start)));
+
+        // then
+        assertEquals(1, words.size());
+        assertEquals(sb.toString(), words.get(0));
+    }
+}
@@ -0,0 +1,172 @@
+package media.uqab.fuzzybleJava;
+
+import media.uqab.fuzzybleJava.impl.MockDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Trigram2Test {
+    private final FuzzyColumn column = new FuzzyColumn("tableA", "col1");
+    private final Trigram2 strategy = new Trigram2();
+    private Connection connection;
+    private Fuzzyble db;
+
+    @BeforeEach
+    void setup() throws ClassNotFoundException, SQLException {
+        Class.forName("org.sqlite.JDBC");
+
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        db = new MockDatabase(connection);
+        db.onExecute("CREATE TABLE " + column.table + "(" + column.column + " TEXT)", null);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * Rows of the query, their columns joined by '|'
+     */
+    private List<String> rows(String query, int columns) throws IOException {
+        List<String> rows = new ArrayList<>();
+        SqlCursor cursor = db.onQuery(query);
+        while (cursor.moveToNext()) {
+            StringBuilder row = new StringBuilder(cursor.getString(0));
+            for (int i = 1; i < columns; i++) row.append('|').append(cursor.getString(i));
+            rows.add(row.toString());
+        }
+        cursor.close();
+        return rows;
+    }
+
+    /**
+     * Trigrams with their df, words with their length and count, and the relations by word
+     */
+    private List<List<String>> contents(FuzzyColumn column) throws IOException {
+        String[] tables = strategy.getAssociatedTables(column);
+        List<List<String>> contents = new ArrayList<>();
+        contents.add(rows("SELECT id, df FROM " + tables[0] + " ORDER BY id", 2));
+        contents.add(rows("SELECT word, len, cnt FROM " + tables[1] + " ORDER BY word", 3));
+        contents.add(rows("SELECT r.tId, w.word FROM " + tables[2] + " r JOIN " + tables[1] + " w ON w.id = r.wId ORDER BY 1, 2", 2));
+        return contents;
+    }
+
+    @Test
+    void resumed_bulk_populate_writes_what_inserting_writes() throws IOException {
+        // given
+        int rows = Populator.ROWS_PER_CHUNK * 2 + 10;
+        db.onExecute("INSERT INTO " + column.table + " SELECT 'word' || (x % 700) || ' common unique' || x FROM (" +
+                "WITH RECURSIVE n(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM n WHERE x < " + rows + ") SELECT x FROM n" +
+                ")", null);
+        FuzzyCursor cursor = new FuzzyCursor(db, strategy);
+        cursor.createFuzzyble(column, false);
+        try {
+            cursor.populate(column, false, progress -> {
+                if (progress > 0.6f) Thread.currentThread().interrupt();
+            });
+        } finally {
+            Thread.interrupted();
+        }
+        boolean interruptedPopulated = cursor.isPopulated(column);
+
+        FuzzyColumn inserted = new FuzzyColumn("tableB", "col1");
+        cursor.createFuzzyble(inserted, false);
+        SqlCursor texts = db.onQuery("SELECT " + column.column + " FROM " + column.table + " ORDER BY rowid");
+        while (texts.moveToNext()) cursor.addToFuzzySearch(inserted, texts.getString(0));
+        texts.close();
+
+        // when
+        cursor.populate(column, false);
+
+        // then
+        List<List<String>> expected = contents(inserted);
+        assertFalse(interruptedPopulated);
+        assertTrue(cursor.isPopulated(column));
+        assertEquals(rows + 701, expected.get(1).size());
+        assertEquals(expected, contents(column));
+    }
+
+    @Test
+    void candidates_are_within_the_length_window() throws IOException {
+        // given
+        CandidateSimilarity similarity = new CandidateSimilarity();
+        FuzzyCursor cursor = new FuzzyCursor(db, new Trigram2(similarity));
+        cursor.createFuzzyble(column, false);
+        cursor.addToFuzzySearch(column, "cdefgh bcdefgh zabcdefgh zzabcdefgh");
+
+        // when
+        // all of them share enough trigrams, only 7 to 9 letters are within 1 edit of 8
+        cursor.getFuzzyWords(column, "abcdefgh");
+
+        // then
+        assertEquals(new TreeSet<>(Arrays.asList("bcdefgh", "zabcdefgh")), new TreeSet<>(similarity.candidates));
+    }
+
+    @Test
+    void length_window_counts_code_points() throws IOException {
+        // given
+        String emoji = "\uD83D\uDE00";
+        CandidateSimilarity similarity = new CandidateSimilarity();
+        FuzzyCursor cursor = new FuzzyCursor(db, new Trigram2(similarity));
+        cursor.createFuzzyble(column, false);
+        cursor.addToFuzzySearch(column, "c" + emoji + "defg bc" + emoji + "defg");
+
+        // when
+        // 8 code points in 9 chars, a word of 7 code points is within 1 edit
+        cursor.getFuzzyWords(column, "abc" + emoji + "defg");
+
+        // then
+        assertEquals(Arrays.asList("bc" + emoji + "defg"), similarity.candidates);
+    }
+
+    @Test
+    void length_is_added_to_words_stored_without_it() throws IOException {
+        // given
+        String[] tables = strategy.getAssociatedTables(column);
+        db.onExecute("CREATE TABLE " + tables[0] + "(id INTEGER PRIMARY KEY, df INTEGER NOT NULL DEFAULT 0)", null);
+        db.onExecute("CREATE TABLE " + tables[1] + "(id INTEGER PRIMARY KEY AUTOINCREMENT, word VARCHAR(255) NOT NULL UNIQUE, cnt INTEGER NOT NULL DEFAULT 1)", null);
+        db.onExecute("CREATE TABLE " + tables[2] + "(tId INTEGER NOT NULL, wId INTEGER NOT NULL, PRIMARY KEY (tId, wId)) WITHOUT ROWID", null);
+        db.onExecute("INSERT INTO " + tables[1] + "(word) VALUES (?), (?)", new String[]{"volcano", "a\uD83D\uDE00bc"});
+
+        // when
+        strategy.create(db, column);
+
+        // then
+        assertEquals(Arrays.asList("a\uD83D\uDE00bc|4", "volcano|7"), rows("SELECT word, len FROM " + tables[1] + " ORDER BY word", 2));
+    }
+
+    /**
+     * Takes every candidate within one edit, noting them in the order given
+     */
+    private static class CandidateSimilarity implements Similarity {
+        private final List<String> candidates = new ArrayList<>();
+
+        @Override
+        public boolean isSimilar(String w1, String w2) {
+            candidates.add(w2);
+            return true;
+        }
+
+        @Override
+        public int similarityIndex(String w1, String w2) {
+            return 0;
+        }
+
+        @Override
+        public int getThresholdDistance() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package media.uqab.fuzzybleJava;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setup() {
+        List<String> words = Arrays.asList("fumarole", "fumaroles", "fumarolic", "volcano", "Vulcano", "volcano", "sulfides", "fum");
+        index = TrigramIndex.build(words);
+    }
+
+    @Test
+    void duplicates_removed() {
+        // given
+
+        // when
+        int size = index.size();
+
+        // then
+        assertEquals(7, size);
+    }
+
+    @Test
+    void exact_match() {
+        // given
+
+        // when
+        boolean found = index.contains("volcano");
+        boolean missing = index.contains("volcan");
+
+        // then
+        assertTrue(found);
+        assertFalse(missing);
+    }
+
+    @Test
+    void prefix_match_both_directions() {
+        // given
+
+        // when
+        List<String> longer = index.prefixMatched("fumarol");
+        List<String> shorter = index.prefixMatched("fumarolesque");
+
+        // then
+        assertEquals(Arrays.asList("fum", "fumarole", "fumaroles", "fumarolic"), longer);
+        assertEquals(Arrays.asList("fum", "fumarole", "fumaroles"), shorter);
+    }
+
+    @Test
+    void candidates_share_trigrams() {
+        // given
+        String word = "fumarale";
+        long[] trigrams = new long[word.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) trigrams[i] = Trigrams.pack(word, i);
+
+        // when
+        List<String> any = index.candidates(trigrams, 1);
+        List<String> most = index.candidates(trigrams, 3);
+
+        // then
+        assertTrue(any.containsAll(Arrays.asList("fum", "fumarole", "fumaroles", "fumarolic")));
+        assertFalse(any.contains("volcano"));
+        assertEquals(Arrays.asList("fumarole", "fumaroles", "fumarolic"), most);
+    }
+
+    @Test
+    void rarest_trigrams_find_every_candidate() {
+        // given
+        Random random = new Random(7);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 3 + random.nextInt(8);
+            for (int j = 0; j < length; j++) word.append((char) ('a' + random.nextInt(6)));
+            words.add(word.toString());
+        }
+        TrigramIndex bigIndex = TrigramIndex.build(words);
+        String word = "abcabdef";
+        long[] trigrams = new long[word.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) trigrams[i] = Trigrams.pack(word, i);
+
+        for (int minOverlap = 1; minOverlap <= trigrams.length; minOverlap++) {
+            // when
+            List<String> candidates = bigIndex.candidates(trigrams, minOverlap);
+
+            // then
+            List<String> expected = new ArrayList<>();
+            for (String w : bigIndex.words()) {
+                Set<Long> shared = new HashSet<>();
+                for (int i = 0; i + 3 <= w.length(); i++) {
+                    for (long t : trigrams) if (t == Trigrams.pack(w, i)) shared.add(t);
+                }
+                if (shared.size() >= minOverlap) expected.add(w);
+            }
+            assertEquals(expected, candidates);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package media.uqab.fuzzybleJava;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WordTrieTest {
+    private WordTrie trie;
+
+    @BeforeEach
+    void setup() {
+        List<String> words = Arrays.asList("fumarole", "fumaroles", "fumarolic", "volcano", "Vulcano", "volcano", "sulfides", "fum");
+        trie = WordTrie.build(words);
+    }
+
+    @Test
+    void duplicates_removed() {
+        // given
+
+        // when
+        int size = trie.size();
+        List<String> words = trie.words();
+
+        // then
+        assertEquals(7, size);
+        assertEquals(Arrays.asList("Vulcano", "fum", "fumarole", "fumaroles", "fumarolic", "sulfides", "volcano"), words);
+    }
+
+    @Test
+    void exact_match() {
+        // given
+
+        // when
+        boolean found = trie.contains("volcano");
+        boolean missing = trie.contains("volcan");
+
+        // then
+        assertTrue(found);
+        assertFalse(missing);
+    }
+
+    @Test
+    void prefix_match_both_directions() {
+        // given
+
+        // when
+        List<String> matched = trie.prefixMatched("fumarol");
+
+        // then
+        assertEquals(Arrays.asList("fum", "fumarole", "fumaroles", "fumarolic"), matched);
+    }
+
+    @Test
+    void search_returns_closest_first() {
+        // given
+
+        // when
+        List<String> matched = trie.search("fumarale", 2);
+
+        // then
+        assertEquals(Arrays.asList("fumarole", "fumaroles"), matched);
+    }
+
+    @Test
+    void search_matches_bounded_levenshtein() {
+        // given
+        Random random = new Random(7);
+        String[] words = new String[500];
+        for (int i = 0; i < words.length; i++) words[i] = randomWord(random);
+        WordTrie randomTrie = WordTrie.build(Arrays.asList(words));
+
+        for (int q = 0; q < 100; q++) {
+            String query = randomWord(random);
+
+            // when
+            List<String> matched = randomTrie.search(query, 2);
+
+            // then
+            int expected = 0;
+            for (String w : randomTrie.words()) {
+                if (BoundedLevenshtein.distance(query, w, 2) <= 2) {
+                    expected++;
+                    assertTrue(matched.contains(w), query + " " + w);
+                }
+            }
+            assertEquals(expected, matched.size());
+        }
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = 3 + random.nextInt(6);
+        for (int i = 0; i < length; i++) sb.append((char) ('a' + random.nextInt(4)));
+        return sb.toString();
+    }
+}
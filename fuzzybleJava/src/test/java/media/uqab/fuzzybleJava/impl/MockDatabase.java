@@ -2,8 +2,11 @@ package media.uqab.fuzzybleJava.impl;
 
 import media.uqab.fuzzybleJava.Fuzzyble;
 import media.uqab.fuzzybleJava.SqlCursor;
+import media.uqab.fuzzybleJava.SqlStatement;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Arrays;
 
@@ -52,6 +55,86 @@ public class MockDatabase implements Fuzzyble {
         }
     }
 
+    @Override
+    public SqlStatement onPrepare(String sql) {
+        try {
+            log("prepare: " + sql);
+            final PreparedStatement statement = connection.prepareStatement(sql);
+            return new SqlStatement() {
+                @Override
+                public void execute(String[] args) {
+                    try {
+                        bind(statement, args);
+                        statement.executeUpdate();
+                    } catch (Exception e) {
+                        log(e.getMessage());
+                    }
+                }
+
+                @Override
+                public SqlCursor query(String[] args) {
+                    try {
+                        bind(statement, args);
+                        return new PreparedCursor(connection, sql, args, statement.executeQuery());
+                    } catch (Exception e) {
+                        log(e.getMessage());
+                        return null;
+                    }
+                }
+
+                @Override
+                public void close() {
+                    try {
+                        statement.close();
+                    } catch (SQLException e) {
+                        log(e.getMessage());
+                    }
+                }
+            };
+        } catch (SQLException e) {
+            log(e.getMessage());
+            return Fuzzyble.super.onPrepare(sql);
+        }
+    }
+
+    @Override
+    public void beginBatch() {
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            log(e.getMessage());
+        }
+    }
+
+    @Override
+    public void commitBatch() {
+        try {
+            connection.commit();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            log(e.getMessage());
+        }
+    }
+
+    @Override
+    public void rollbackBatch() {
+        try {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            log(e.getMessage());
+        }
+    }
+
+    private void bind(PreparedStatement statement, String[] args) throws SQLException {
+        statement.clearParameters();
+        if (args == null) return;
+
+        for (int i = 0; i < args.length; i++) {
+            statement.setString(i + 1, args[i]);
+        }
+    }
+
     private String prepareQuery(String query, String[] args) {
         if (args == null) return query;
 
@@ -0,0 +1,75 @@
+package media.uqab.fuzzybleJava.impl;
+
+import media.uqab.fuzzybleJava.SqlCursor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static media.uqab.fuzzybleJava.impl.Log.log;
+
+public class PreparedCursor implements SqlCursor {
+    private final ResultSet resultSet;
+
+    private final Connection mConnection;
+    private final String mQuery;
+    private final String[] mArgs;
+
+    public PreparedCursor(Connection connection, String query, String[] args, ResultSet resultSet) {
+        this.mConnection = connection;
+        this.mQuery = query;
+        this.mArgs = args;
+        this.resultSet = resultSet;
+    }
+
+    @Override
+    public String getString(int columnIndex) {
+        try {
+            return resultSet.getString(columnIndex + 1);
+        } catch (SQLException e) {
+            log(e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean moveToNext() {
+        try {
+            return resultSet.next();
+        } catch (Exception e) {
+            log(e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public int count() {
+        int count = 0;
+        try {
+            PreparedStatement st = mConnection.prepareStatement("SELECT COUNT(*) FROM (" + mQuery + ")");
+            if (mArgs != null) {
+                for (int i = 0; i < mArgs.length; i++) st.setString(i + 1, mArgs[i]);
+            }
+            ResultSet rs = st.executeQuery();
+            if (rs.next()) count = rs.getInt(1);
+            rs.close();
+            st.close();
+            log("count:" + count + " q:" + mQuery);
+        } catch (Exception e) {
+            log("count-error: "+ e.getMessage());
+        }
+
+        return count;
+    }
+
+    @Override
+    public void close() {
+        try {
+            // the statement stays open for the next call
+            resultSet.close();
+        } catch (SQLException e) {
+            log(e.getMessage());
+        }
+    }
+}
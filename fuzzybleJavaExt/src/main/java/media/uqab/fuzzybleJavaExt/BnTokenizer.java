@@ -0,0 +1,205 @@
+package media.uqab.fuzzybleJavaExt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits Bengali texts into words, words into grapheme clusters and
+ * clusters into trigrams.
+ *
+ * <p>
+ * A cluster is a base letter with the marks following it, e.g. a consonant
+ * with its nukta and vowel sign. A virama joins the next consonant into the
+ * same cluster, so a conjunct like "ksa" (ka + virama + ssa) and its vowel
+ * sign are one unit. The class of every char of the Basic Multilingual Plane
+ * is looked up in a table computed once, so finding the boundaries costs one
+ * array access per char.
+ *
+ * <p>
+ * Trigrams are taken over the clusters of a word padded with a boundary on
+ * each side, so a word of {@code n} clusters has {@code n} trigrams and even
+ * short words can be found. Each trigram is hashed into a {@code long}, a
+ * collision only adds a candidate which the distance check rejects.
+ */
+public final class BnTokenizer {
+    private static final byte BASE = 0;
+    private static final byte CONSONANT = 1;
+    private static final byte EXTEND = 2;
+    private static final byte VIRAMA = 3;
+    private static final byte JOINER = 4;
+    private static final byte SEPARATOR = 5;
+
+    /**
+     * Words shorter than this many clusters are not indexed
+     */
+    public static final int MIN_CLUSTERS = 2;
+
+    private static final byte[] CLASSES = new byte[Character.MAX_VALUE + 1];
+
+    static {
+        for (int i = 0; i <= Character.MAX_VALUE; i++) {
+            char c = (char) i;
+            switch (Character.getType(c)) {
+                case Character.NON_SPACING_MARK:
+                case Character.COMBINING_SPACING_MARK:
+                case Character.ENCLOSING_MARK:
+                    CLASSES[i] = EXTEND;
+                    break;
+                case Character.SPACE_SEPARATOR:
+                case Character.LINE_SEPARATOR:
+                case Character.PARAGRAPH_SEPARATOR:
+                case Character.CONNECTOR_PUNCTUATION:
+                case Character.DASH_PUNCTUATION:
+                case Character.START_PUNCTUATION:
+                case Character.END_PUNCTUATION:
+                case Character.INITIAL_QUOTE_PUNCTUATION:
+                case Character.FINAL_QUOTE_PUNCTUATION:
+                case Character.OTHER_PUNCTUATION:
+                    CLASSES[i] = SEPARATOR;
+                    break;
+                default:
+                    CLASSES[i] = Character.isWhitespace(c) ? SEPARATOR : BASE;
+            }
+        }
+
+        // same special chars as the core tokenizer
+        for (char c : "!@#$%^&*()_-+={}[]:;\"'<>,.?/\\|`~".toCharArray()) CLASSES[c] = SEPARATOR;
+
+        // consonants of the Bengali block, which a virama joins
+        for (char c = '\u0995'; c <= '\u09B9'; c++) {
+            if (CLASSES[c] == BASE) CLASSES[c] = CONSONANT;
+        }
+        CLASSES['\u09DC'] = CONSONANT;
+        CLASSES['\u09DD'] = CONSONANT;
+        CLASSES['\u09DF'] = CONSONANT;
+        CLASSES['\u09F0'] = CONSONANT;
+        CLASSES['\u09F1'] = CONSONANT;
+
+        CLASSES['\u09CD'] = VIRAMA;
+        CLASSES['\u200D'] = JOINER; // zero width joiner keeps the conjunct
+        CLASSES['\u200C'] = EXTEND; // zero width non-joiner ends it
+
+        // a surrogate pair stays in one cluster
+        for (char c = Character.MIN_LOW_SURROGATE; c <= Character.MAX_LOW_SURROGATE; c++) CLASSES[c] = EXTEND;
+    }
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final char CLUSTER_END = '\uFFFF';
+    private static final char PADDING = '\uFFFE';
+
+    private BnTokenizer() {}
+
+    /**
+     * Split a text into its words of at least {@link #MIN_CLUSTERS} clusters
+     * @param text text to split
+     * @return the words, in the order of the text
+     */
+    public static String[] words(String text) {
+        if (text == null) return new String[0];
+
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0, n = text.length(); i <= n; i++) {
+            boolean separator = i == n || CLASSES[text.charAt(i)] == SEPARATOR;
+            if (!separator) {
+                if (start < 0) start = i;
+                continue;
+            }
+
+            if (start >= 0 && clusterCount(text, start, i) >= MIN_CLUSTERS) words.add(text.substring(start, i));
+            start = -1;
+        }
+
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * Start of every cluster of a word, followed by the word's length
+     * @param word word without separators
+     * @return {@code clusters + 1} offsets
+     */
+    public static int[] clusters(CharSequence word) {
+        int[] offsets = new int[word.length() + 1];
+        int clusters = 0;
+
+        boolean afterVirama = false;
+        for (int i = 0, n = word.length(); i < n; i++) {
+            byte type = CLASSES[word.charAt(i)];
+
+            boolean joins;
+            switch (type) {
+                case EXTEND:
+                    joins = true;
+                    afterVirama = false;
+                    break;
+                case VIRAMA:
+                    joins = true;
+                    afterVirama = true;
+                    break;
+                case JOINER:
+                    joins = true;
+                    break;
+                case CONSONANT:
+                    joins = afterVirama;
+                    afterVirama = false;
+                    break;
+                default:
+                    joins = false;
+                    afterVirama = false;
+            }
+
+            if (i == 0 || !joins) offsets[clusters++] = i;
+        }
+
+        offsets[clusters] = word.length();
+        return Arrays.copyOf(offsets, clusters + 1);
+    }
+
+    private static int clusterCount(CharSequence text, int start, int end) {
+        // only the first MIN_CLUSTERS boundaries matter
+        int clusters = 0;
+        boolean afterVirama = false;
+        for (int i = start; i < end && clusters < MIN_CLUSTERS; i++) {
+            byte type = CLASSES[text.charAt(i)];
+            boolean joins = type == EXTEND || type == VIRAMA || type == JOINER || (type == CONSONANT && afterVirama);
+            if (type != JOINER) afterVirama = type == VIRAMA;
+            if (i == start || !joins) clusters++;
+        }
+        return clusters;
+    }
+
+    /**
+     * Distinct hashed trigrams of the clusters of a word, padded with a boundary on each side
+     * @param word word without separators
+     * @return the trigrams, sorted
+     */
+    public static long[] trigrams(String word) {
+        int[] offsets = clusters(word);
+        int clusters = offsets.length - 1;
+        if (clusters == 0) return new long[0];
+
+        long[] trigrams = new long[clusters];
+        for (int t = 0; t < clusters; t++) {
+            // clusters t - 1, t and t + 1, where -1 and n are the padding
+            long hash = FNV_OFFSET;
+            for (int c = t - 1; c <= t + 1; c++) {
+                if (c < 0 || c >= clusters) {
+                    hash = (hash ^ PADDING) * FNV_PRIME;
+                } else {
+                    for (int i = offsets[c]; i < offsets[c + 1]; i++) hash = (hash ^ word.charAt(i)) * FNV_PRIME;
+                }
+                hash = (hash ^ CLUSTER_END) * FNV_PRIME;
+            }
+            trigrams[t] = hash;
+        }
+
+        Arrays.sort(trigrams);
+        int n = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (n == 0 || trigrams[i] != trigrams[n - 1]) trigrams[n++] = trigrams[i];
+        }
+        return Arrays.copyOf(trigrams, n);
+    }
+}
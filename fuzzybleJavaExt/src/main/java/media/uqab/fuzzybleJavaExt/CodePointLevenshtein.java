@@ -0,0 +1,169 @@
+package media.uqab.fuzzybleJavaExt;
+
+import media.uqab.fuzzybleJava.Similarity;
+
+/**
+ * Levenshtein Distance over code points, bounded by a threshold.
+ *
+ * <p>
+ * Words are compared one code point at a time instead of one UTF-16 unit,
+ * so a char outside the Basic Multilingual Plane is a single edit, and
+ * lengths agree with the code point lengths strategies filter by. Only the
+ * diagonal band of the threshold is evaluated and the comparison stops once
+ * a whole row exceeds it. The buffers are kept per thread.
+ */
+public class CodePointLevenshtein implements Similarity {
+    private final int thresholdDistance;
+
+    private static final ThreadLocal<Buffers> buffers = new ThreadLocal<Buffers>() {
+        @Override
+        protected Buffers initialValue() {
+            return new Buffers();
+        }
+    };
+
+    public CodePointLevenshtein() {
+        this(2);
+    }
+
+    public CodePointLevenshtein(int thresholdDistance) {
+        this.thresholdDistance = thresholdDistance;
+    }
+
+    @Override
+    public int getThresholdDistance() {
+        return thresholdDistance;
+    }
+
+    @Override
+    public boolean isSimilar(String w1, String w2) {
+        return distance(w1, w2, thresholdDistance) <= thresholdDistance;
+    }
+
+    @Override
+    public int similarityIndex(String w1, String w2) {
+        return -1 * distance(w1, w2, Math.max(w1.length(), w2.length()));
+    }
+
+    @Override
+    public int score(String w1, String w2) {
+        int distance = distance(w1, w2, thresholdDistance);
+        if (distance > thresholdDistance) return NOT_SIMILAR;
+        return -1 * distance;
+    }
+
+    /**
+     * Compute the edit distance between two words, in code points.
+     * @param w1 First word
+     * @param w2 Second word
+     * @param max largest distance of interest
+     * @return the distance, or {@code max + 1} if it is larger than {@code max}.
+     */
+    static int distance(String w1, String w2, int max) {
+        if (max < 0) return 0;
+
+        Buffers b = buffers.get();
+        b.s = codePoints(w1, b.s);
+        b.t = codePoints(w2, b.t);
+        int[] s = b.s, t = b.t;
+        int n = w1.codePointCount(0, w1.length());
+        int m = w2.codePointCount(0, w2.length());
+
+        // make s the shorter one
+        if (n > m) {
+            int[] tmp = s;
+            s = t;
+            t = tmp;
+            int len = n;
+            n = m;
+            m = len;
+        }
+        if (m - n > max) return max + 1;
+
+        // skip common prefix and suffix
+        int start = 0;
+        while (start < n && s[start] == t[start]) start++;
+        while (n > start && s[n - 1] == t[m - 1]) {
+            n--;
+            m--;
+        }
+        n -= start;
+        m -= start;
+
+        if (n == 0) return Math.min(m, max + 1);
+
+        final int big = max + 1;
+        int[] prev = b.prev(m + 1);
+        int[] curr = b.curr(m + 1);
+
+        int edge = Math.min(m, max);
+        for (int j = 0; j <= edge; j++) prev[j] = j;
+        if (edge < m) prev[edge + 1] = big;
+
+        for (int i = 1; i <= n; i++) {
+            int lo = Math.max(1, i - max);
+            int hi = Math.min(m, i + max);
+            int c = s[start + i - 1];
+
+            curr[lo - 1] = lo == 1 ? Math.min(i, big) : big;
+            int rowMin = curr[lo - 1];
+
+            for (int j = lo; j <= hi; j++) {
+                int v = prev[j - 1];
+                if (c != t[start + j - 1]) v++;
+                int del = prev[j] + 1;
+                int ins = curr[j - 1] + 1;
+                if (del < v) v = del;
+                if (ins < v) v = ins;
+                if (v > big) v = big;
+
+                curr[j] = v;
+                if (v < rowMin) rowMin = v;
+            }
+            if (hi < m) curr[hi + 1] = big;
+
+            // no cell within the threshold, the distance can only grow from here
+            if (rowMin > max) return big;
+
+            int[] tmp = prev;
+            prev = curr;
+            curr = tmp;
+        }
+
+        return prev[m];
+    }
+
+    /**
+     * Decode the code points of a word into the buffer, growing it if needed
+     */
+    private static int[] codePoints(String word, int[] buffer) {
+        if (buffer.length < word.length()) buffer = new int[Math.max(word.length(), buffer.length * 2)];
+
+        for (int i = 0, j = 0, n = word.length(); i < n; j++) {
+            int codePoint = word.codePointAt(i);
+            buffer[j] = codePoint;
+            i += Character.charCount(codePoint);
+        }
+        return buffer;
+    }
+
+    /**
+     * Reusable code point and DP buffers of a thread.
+     */
+    private static class Buffers {
+        private int[] s = new int[32];
+        private int[] t = new int[32];
+        private int[] prev = new int[32];
+        private int[] curr = new int[32];
+
+        int[] prev(int size) {
+            if (prev.length < size) prev = new int[Math.max(size, prev.length * 2)];
+            return prev;
+        }
+
+        int[] curr(int size) {
+            if (curr.length < size) curr = new int[Math.max(size, curr.length * 2)];
+            return curr;
+        }
+    }
+}
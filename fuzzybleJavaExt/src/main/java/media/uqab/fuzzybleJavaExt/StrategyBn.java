@@ -1,41 +1,343 @@
 package media.uqab.fuzzybleJavaExt;
 
+import media.uqab.fuzzybleJava.Checkpoint;
 import media.uqab.fuzzybleJava.FuzzyColumn;
 import media.uqab.fuzzybleJava.Fuzzyble;
-import media.uqab.fuzzybleJava.Trigram;
+import media.uqab.fuzzybleJava.ProgressListener;
+import media.uqab.fuzzybleJava.Similarity;
+import media.uqab.fuzzybleJava.SplitWriter;
+import media.uqab.fuzzybleJava.SqlCursor;
+import media.uqab.fuzzybleJava.Strategy;
+import media.uqab.fuzzybleJava.StrategyHelper;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigram strategy for Bengali texts.
+ *
+ * <p>
+ * Trigrams are taken over grapheme clusters instead of chars, see
+ * {@linkplain BnTokenizer}, so a conjunct or a consonant with its vowel sign
+ * counts as one letter. Like {@code Trigram2} the vocabulary is stored once
+ * with the count of the texts containing every word, and the hashed trigrams
+ * are integer keys of a relation table, so a fuzzy search is a lookup of the
+ * searched word's trigrams. Candidates are checked with a
+ * {@linkplain CodePointLevenshtein} by default.
+ */
+public class StrategyBn implements Strategy {
+    private static final int WORDS_PER_FLUSH = 4096;
+
+    private final Similarity similarity;
+    private final StrategyHelper helper = new StrategyHelper();
+
+    public StrategyBn() {
+        this.similarity = new CodePointLevenshtein();
+    }
+
+    public StrategyBn(Similarity similarity) {
+        this.similarity = similarity;
+    }
+
+    @Override
+    public String getStrategyName() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    public boolean create(Fuzzyble database, FuzzyColumn column) {
+        // tables may be recreated
+        helper.clearStatements();
+
+        String[] tables = getAssociatedTables(column);
+        String wordsTable = tables[0];
+        String relationTable = tables[1];
+
+        // the single table of the char trigrams this strategy used to write
+        database.onExecute("DROP TABLE IF EXISTS " + baseName(column), null);
+
+        String createWord = "CREATE TABLE IF NOT EXISTS " + wordsTable + "(" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "word VARCHAR(255) NOT NULL UNIQUE, " +
+                "len INTEGER, " +
+                "cnt INTEGER NOT NULL DEFAULT 1" +
+                ")";
+        String createRelation = "CREATE TABLE IF NOT EXISTS " + relationTable + "(" +
+                "tId INTEGER NOT NULL, " +
+                "wId INTEGER NOT NULL, " +
+                "PRIMARY KEY (tId, wId), " +
+                "FOREIGN KEY (wId) REFERENCES " + wordsTable + "(id) ON DELETE CASCADE" +
+                ") WITHOUT ROWID";
+        database.onExecute(createWord, null);
+        database.onExecute(createRelation, null);
+        database.onExecute("CREATE INDEX IF NOT EXISTS " + wordsTable + "_len ON " + wordsTable + "(len)", null);
+        return true;
+    }
 
-public class StrategyBn extends Trigram {
-    private static String scapeChars = "";
     @Override
     public boolean insert(Fuzzyble database, FuzzyColumn column, String text) {
-        String insertSql = "INSERT OR IGNORE INTO " + getAssociatedTables(column)[0] + " (trigram, word) VALUES (?, ?)";
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String word : BnTokenizer.words(text)) {
+            if (Thread.currentThread().isInterrupted()) return false;
+            count(counts, word, 1);
+        }
+
+        return writeCounts(database, column, counts);
+    }
+
+    private static void count(Map<String, Integer> counts, String word, int times) {
+        Integer count = counts.get(word);
+        counts.put(word, count == null ? times : count + times);
+    }
+
+    /**
+     * Add the counts of the words, writing the trigrams of the new ones
+     */
+    private boolean writeCounts(Fuzzyble database, FuzzyColumn column, Map<String, Integer> counts) {
+        String[] tables = getAssociatedTables(column);
+        String wordQuery = "SELECT id FROM " + tables[0] + " WHERE word = ?";
+        String countSql = "UPDATE " + tables[0] + " SET cnt = cnt + CAST(? AS INTEGER) WHERE word = ?";
+        String wordInsert = "INSERT INTO " + tables[0] + "(word, len, cnt) VALUES (?, length(?), CAST(? AS INTEGER))";
+        String relationInsert = "INSERT OR IGNORE INTO " + tables[1] + "(tId, wId) VALUES (CAST(? AS INTEGER), CAST(? AS INTEGER))";
 
-        for (String word: splitToWords(text)) {
-            for (String trigram: getTrigrams(word)) {
+        boolean allWritten = true;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (Thread.currentThread().isInterrupted()) return false;
 
-                if (Thread.currentThread().isInterrupted()) return false;
+            String word = entry.getKey();
+            String count = String.valueOf(entry.getValue());
+            try {
+                // a stored word is only counted
+                SqlCursor cursor = helper.statement(database, wordQuery).query(new String[]{word});
+                boolean exists = cursor.moveToNext();
+                cursor.close();
 
-                try {
-                    String[] args = new String[]{trigram, word};
-                    database.onExecute(insertSql, args);
-                } catch (Exception e) {
-                    e.printStackTrace();
+                if (exists) {
+                    helper.statement(database, countSql).execute(new String[]{count, word});
+                    continue;
                 }
+
+                // the id of the new word is looked up once for all its trigrams
+                helper.statement(database, wordInsert).execute(new String[]{word, word, count});
+                cursor = helper.statement(database, wordQuery).query(new String[]{word});
+                String id = cursor.moveToNext() ? cursor.getString(0) : null;
+                cursor.close();
+                if (id == null) continue;
+
+                for (long trigram : BnTokenizer.trigrams(word)) {
+                    helper.statement(database, relationInsert).execute(new String[]{String.valueOf(trigram), id});
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+                allWritten = false;
             }
         }
 
-        return true;
+        return allWritten;
     }
 
+    @Override
+    public boolean remove(Fuzzyble database, FuzzyColumn column, String text) {
+        String[] tables = getAssociatedTables(column);
+        String uncountSql = "UPDATE " + tables[0] + " SET cnt = cnt - 1 WHERE word = ? AND cnt > 0";
+        String prunedQuery = "SELECT id FROM " + tables[0] + " WHERE word = ? AND cnt <= 0";
+        String relationDelete = "DELETE FROM " + tables[1] + " WHERE tId = CAST(? AS INTEGER) AND wId = CAST(? AS INTEGER)";
+        String wordDelete = "DELETE FROM " + tables[0] + " WHERE id = CAST(? AS INTEGER)";
+
+        boolean allRemoved = true;
+        List<String> words = new ArrayList<>();
+        for (String word : BnTokenizer.words(text)) {
+            if (Thread.currentThread().isInterrupted()) return false;
 
-    private String[] splitToWords(String sentence) {
-        return sentence.split(" ");
+            try {
+                helper.statement(database, uncountSql).execute(new String[]{word});
+                words.add(word);
+            } catch (Exception e) {
+                e.printStackTrace();
+                allRemoved = false;
+            }
+        }
+
+        // words no text contains anymore
+        for (String word : words) {
+            try {
+                SqlCursor cursor = helper.statement(database, prunedQuery).query(new String[]{word});
+                String id = cursor.moveToNext() ? cursor.getString(0) : null;
+                cursor.close();
+                if (id == null) continue;
+
+                for (long trigram : BnTokenizer.trigrams(word)) {
+                    helper.statement(database, relationDelete).execute(new String[]{String.valueOf(trigram), id});
+                }
+                helper.statement(database, wordDelete).execute(new String[]{id});
+            } catch (Exception e) {
+                e.printStackTrace();
+                allRemoved = false;
+            }
+        }
+
+        return allRemoved;
+    }
+
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, ProgressListener listener) throws IOException {
+        return populate(source, sync, column, null, listener);
     }
 
-    private List<String> getTrigrams(String word) {
-        return new ArrayList<>();
+    @Override
+    public boolean populate(Fuzzyble source, Fuzzyble sync, FuzzyColumn column, Checkpoint checkpoint, ProgressListener listener) throws IOException {
+        // the words of many rows are counted in memory and written once, at the latest before a checkpoint
+        final Map<String, Integer> counts = new HashMap<>();
+        return StrategyHelper.populate(source, column, checkpoint, listener, BnTokenizer::words, new SplitWriter<String[]>() {
+            @Override
+            public void write(String[] words) {
+                for (String word : words) count(counts, word, 1);
+                if (counts.size() >= WORDS_PER_FLUSH) flush();
+            }
+
+            @Override
+            public void flush() {
+                writeCounts(sync, column, counts);
+                counts.clear();
+            }
+        });
+    }
+
+    private String baseName(FuzzyColumn column) {
+        return "fuzzyble_" + getStrategyName().toLowerCase() + column;
+    }
+
+    @Override
+    public String[] getAssociatedTables(FuzzyColumn column) {
+        String wordsTable = baseName(column) + "_word";
+        String relationTable = baseName(column) + "_rel";
+
+        return new String[]{wordsTable, relationTable};
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word) {
+        return getSuggestions(database, column, word, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<String> getSuggestions(Fuzzyble database, FuzzyColumn column, String word, int limit) {
+        // return exact matched if found
+        List<String> exact = performExactSearch(database, column, word);
+        if (!exact.isEmpty()) return StrategyHelper.limit(exact, limit);
+
+        // return partial match if found
+        List<String> partial = performPartialSearch(database, column, word);
+        if (!partial.isEmpty()) return StrategyHelper.limit(partial, limit);
+
+        // now try fuzzy
+        return performFuzzySearch(database, column, word, limit);
+    }
+
+    private List<String> performExactSearch(Fuzzyble database, FuzzyColumn column, String word) {
+        ArrayList<String> exact = new ArrayList<>();
+
+        try {
+            String query = "SELECT word FROM " + getAssociatedTables(column)[0] + " WHERE word = ?";
+            SqlCursor cursor = helper.statement(database, query).query(new String[]{word});
+            while (cursor.moveToNext()) {
+                exact.add(cursor.getString(0));
+            }
+            cursor.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return exact;
+    }
+
+    /**
+     * Words starting with the searched word, or whose clusters the searched word starts with
+     */
+    private List<String> performPartialSearch(Fuzzyble database, FuzzyColumn column, String word) {
+        ArrayList<String> partial = new ArrayList<>();
+        final String wordsTable = getAssociatedTables(column)[0];
+
+        // U+10FFFF sorts after every char a word can continue with
+        StringBuilder query = new StringBuilder("SELECT word FROM ").append(wordsTable)
+                .append(" WHERE word >= ? AND word < ? || char(1114111)");
+        List<String> args = new ArrayList<>();
+        args.add(word);
+        args.add(word);
+
+        // prefixes cut at cluster boundaries, never inside a conjunct
+        int[] clusters = BnTokenizer.clusters(word);
+        StringBuilder in = new StringBuilder();
+        for (int i = 1; i < clusters.length - 1; i++) {
+            in.append(in.length() == 0 ? "?" : ", ?");
+            args.add(word.substring(0, clusters[i]));
+        }
+        if (in.length() > 0) {
+            query.append(" UNION SELECT word FROM ").append(wordsTable).append(" WHERE word IN (").append(in).append(")");
+        }
+
+        try {
+            SqlCursor cursor = database.onQuery(query.toString(), args.toArray(new String[0]));
+            while (cursor.moveToNext()) {
+                partial.add(cursor.getString(0));
+            }
+            cursor.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return partial;
+    }
+
+    private List<String> performFuzzySearch(Fuzzyble database, FuzzyColumn column, String word, int limit) {
+        long[] trigrams = BnTokenizer.trigrams(word);
+        if (trigrams.length == 0) return new ArrayList<>();
+
+        final String[] tables = getAssociatedTables(column);
+
+        // only words sharing enough trigrams can be within the threshold, best overlap first
+        StringBuilder query = new StringBuilder();
+        query.append("SELECT w.word, COUNT(*) AS overlap FROM ").append(tables[1]).append(" r ")
+                .append("JOIN ").append(tables[0]).append(" w ON r.wId = w.id ")
+                .append("WHERE r.tId IN (");
+        List<String> args = new ArrayList<>();
+        for (int i = 0; i < trigrams.length; i++) {
+            query.append(i == 0 ? "CAST(? AS INTEGER)" : ", CAST(? AS INTEGER)");
+            args.add(String.valueOf(trigrams[i]));
+        }
+        query.append(") ");
+
+        // words whose length differs by more than the threshold can't be similar
+        int threshold = similarity.getThresholdDistance();
+        if (threshold >= 0) {
+            int length = word.codePointCount(0, word.length());
+            query.append("AND w.len BETWEEN CAST(? AS INTEGER) AND CAST(? AS INTEGER) ");
+            args.add(String.valueOf(Math.max(0, length - threshold)));
+            args.add(String.valueOf(length + threshold));
+        }
+
+        // an edit changes at most four of the padded trigrams, e.g. a virama joining two clusters into one.
+        // so the bound is loose, words of up to 4 * threshold + 1 trigrams only need to share one and are
+        // pruned by the length window alone. probing the rarest first can't skip any trigram of those
+        int minShared = threshold < 0 ? 1 : Math.max(1, trigrams.length - 4 * threshold);
+        query.append("GROUP BY w.id HAVING overlap >= CAST(? AS INTEGER) ORDER BY overlap DESC");
+        args.add(String.valueOf(minShared));
+
+        List<String> suggestions = new ArrayList<>();
+        try {
+            SqlCursor cursor = database.onQuery(query.toString(), args.toArray(new String[0]));
+            while (cursor.moveToNext()) {
+                suggestions.add(cursor.getString(0));
+            }
+            cursor.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return StrategyHelper.rank(word, suggestions, similarity, limit);
     }
 }
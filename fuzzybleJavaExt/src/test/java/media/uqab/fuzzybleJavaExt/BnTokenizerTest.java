@@ -0,0 +1,131 @@
+package media.uqab.fuzzybleJavaExt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BnTokenizerTest {
+    // ka, kha, ga, gha, nga, ca
+    private static final String KA_TO_CA = "\u0995\u0996\u0997\u0998\u0999\u099A";
+    // the same with a virama after kha, joining kha and ga
+    private static final String KHA_GA_CONJUNCT = "\u0995\u0996\u09CD\u0997\u0998\u0999\u099A";
+
+    @Test
+    void consonant_and_vowel_sign_are_one_cluster() {
+        // given
+        String kitab = "\u0995\u09BF\u09A4\u09BE\u09AC"; // ki, ta, b
+
+        // when
+        int[] clusters = BnTokenizer.clusters(kitab);
+
+        // then
+        assertArrayEquals(new int[]{0, 2, 4, 5}, clusters);
+    }
+
+    @Test
+    void virama_joins_conjunct_into_one_cluster() {
+        // given
+        String ksha = "\u0995\u09CD\u09B7\u09AE\u09BE"; // ksa, ma
+
+        // when
+        int[] clusters = BnTokenizer.clusters(ksha);
+
+        // then
+        assertArrayEquals(new int[]{0, 3, 5}, clusters);
+    }
+
+    @Test
+    void zero_width_joiner_keeps_conjunct() {
+        // given
+        String joined = "\u0995\u09CD\u200D\u09B7";
+
+        // when
+        int[] clusters = BnTokenizer.clusters(joined);
+
+        // then
+        assertArrayEquals(new int[]{0, 4}, clusters);
+    }
+
+    @Test
+    void zero_width_non_joiner_ends_conjunct() {
+        // given
+        String nonJoined = "\u0995\u09CD\u200C\u09B7";
+
+        // when
+        int[] clusters = BnTokenizer.clusters(nonJoined);
+
+        // then
+        assertArrayEquals(new int[]{0, 3, 4}, clusters);
+    }
+
+    @Test
+    void surrogate_pair_is_one_cluster() {
+        // given
+        String emoji = "a\uD83D\uDE00b";
+
+        // when
+        int[] clusters = BnTokenizer.clusters(emoji);
+
+        // then
+        assertArrayEquals(new int[]{0, 1, 3, 4}, clusters);
+    }
+
+    @Test
+    void words_split_at_separators_and_skip_single_clusters() {
+        // given
+        String text = "\u0995\u09BF\u09A4\u09BE\u09AC, \u0995\u09BE \u0995\u09CD\u09B7\u09AE\u09BE\u0964 abc";
+
+        // when
+        String[] words = BnTokenizer.words(text);
+
+        // then
+        assertArrayEquals(new String[]{"\u0995\u09BF\u09A4\u09BE\u09AC", "\u0995\u09CD\u09B7\u09AE\u09BE", "abc"}, words);
+    }
+
+    @Test
+    void word_has_one_padded_trigram_per_cluster() {
+        // given
+        String kitab = "\u0995\u09BF\u09A4\u09BE\u09AC";
+
+        // when
+        long[] trigrams = BnTokenizer.trigrams(kitab);
+
+        // then
+        assertEquals(3, trigrams.length);
+        assertEquals(0, BnTokenizer.trigrams("").length);
+    }
+
+    @Test
+    void trigrams_are_distinct_and_sorted() {
+        // given
+        String repeated = "\u0995\u0995\u0995\u0995";
+
+        // when
+        long[] trigrams = BnTokenizer.trigrams(repeated);
+
+        // then
+        long[] sorted = trigrams.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, trigrams);
+        assertEquals(3, trigrams.length);
+    }
+
+    @Test
+    void conjunct_edit_changes_four_trigrams() {
+        // given
+        long[] word = BnTokenizer.trigrams(KA_TO_CA);
+        long[] typo = BnTokenizer.trigrams(KHA_GA_CONJUNCT);
+
+        // when
+        int shared = 0;
+        for (long trigram : typo) {
+            if (Arrays.binarySearch(word, trigram) >= 0) shared++;
+        }
+
+        // then
+        assertEquals(6, word.length);
+        assertEquals(2, shared);
+    }
+}
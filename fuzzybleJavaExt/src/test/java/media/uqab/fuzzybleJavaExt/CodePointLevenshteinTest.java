@@ -0,0 +1,58 @@
+package media.uqab.fuzzybleJavaExt;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodePointLevenshteinTest {
+
+    @Test
+    void surrogate_pair_counts_as_one_edit() {
+        // given
+        String emoji = "a\uD83D\uDE00b";
+
+        // when
+        int distance = CodePointLevenshtein.distance(emoji, "ab", 5);
+
+        // then
+        assertEquals(1, distance);
+    }
+
+    @Test
+    void vowel_sign_substitution_is_one_edit() {
+        // given
+        String kitab = "\u0995\u09BF\u09A4\u09BE\u09AC";
+        String ketab = "\u0995\u09C7\u09A4\u09BE\u09AC";
+
+        // when
+        int distance = CodePointLevenshtein.distance(kitab, ketab, 2);
+
+        // then
+        assertEquals(1, distance);
+    }
+
+    @Test
+    void distance_above_max_is_max_plus_one() {
+        // given
+
+        // when
+        int distance = CodePointLevenshtein.distance("abcdef", "uvwxyz", 2);
+
+        // then
+        assertEquals(3, distance);
+    }
+
+    @Test
+    void isSimilar_fails_above_threshold() {
+        // given
+        CodePointLevenshtein levenshtein = new CodePointLevenshtein(1);
+
+        // when
+        boolean near = levenshtein.isSimilar("banana", "banan");
+        boolean far = levenshtein.isSimilar("banana", "bana");
+
+        // then
+        assertTrue(near);
+        assertFalse(far);
+    }
+}
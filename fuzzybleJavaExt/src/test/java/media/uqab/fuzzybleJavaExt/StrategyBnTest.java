@@ -0,0 +1,160 @@
+package media.uqab.fuzzybleJavaExt;
+
+import media.uqab.fuzzybleJava.FuzzyColumn;
+import media.uqab.fuzzybleJava.FuzzyCursor;
+import media.uqab.fuzzybleJava.Fuzzyble;
+import media.uqab.fuzzybleJava.SqlCursor;
+import media.uqab.fuzzybleJavaExt.impl.JdbcDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StrategyBnTest {
+    private static final String KITAB = "\u0995\u09BF\u09A4\u09BE\u09AC";
+    private static final String KETAB = "\u0995\u09C7\u09A4\u09BE\u09AC";
+
+    private final FuzzyColumn column = new FuzzyColumn("books", "title");
+    private Connection connection;
+    private Fuzzyble database;
+
+    @BeforeEach
+    void setup() throws ClassNotFoundException, SQLException {
+        Class.forName("org.sqlite.JDBC");
+
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        database = new JdbcDatabase(connection);
+        database.onExecute("CREATE TABLE books(title TEXT)", null);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    private void insertRow(String title) {
+        database.onExecute("INSERT INTO books VALUES (?)", new String[]{title});
+    }
+
+    private String count(String word) throws IOException {
+        String[] tables = new StrategyBn().getAssociatedTables(column);
+        SqlCursor cursor = database.onQuery("SELECT cnt FROM " + tables[0] + " WHERE word = ?", new String[]{word});
+        String count = cursor.moveToNext() ? cursor.getString(0) : null;
+        cursor.close();
+        return count;
+    }
+
+    @Test
+    void populated_word_is_found_by_a_typo() throws IOException {
+        // given
+        insertRow(KITAB + " \u0995\u09CD\u09B7\u09AE\u09BE");
+        FuzzyCursor cursor = new FuzzyCursor(database, new StrategyBn());
+        cursor.createFuzzyble(column, true);
+
+        // when
+        cursor.populate(column, false);
+        List<String> words = Arrays.asList(cursor.getFuzzyWords(column, KETAB));
+
+        // then
+        assertEquals(Arrays.asList(KITAB), words);
+    }
+
+    @Test
+    void prefix_is_matched_at_cluster_boundary() throws IOException {
+        // given
+        insertRow(KITAB);
+        FuzzyCursor cursor = new FuzzyCursor(database, new StrategyBn());
+        cursor.createFuzzyble(column, true);
+        cursor.populate(column, false);
+
+        // when
+        List<String> words = Arrays.asList(cursor.getFuzzyWords(column, "\u0995\u09BF\u09A4"));
+
+        // then
+        assertTrue(words.contains(KITAB));
+    }
+
+    @Test
+    void conjunct_typo_within_one_edit_is_found() throws IOException {
+        // given
+        String word = "\u0995\u0996\u0997\u0998\u0999\u099A";
+        String typo = "\u0995\u0996\u09CD\u0997\u0998\u0999\u099A"; // kha and ga joined by a virama
+        insertRow(word);
+        FuzzyCursor cursor = new FuzzyCursor(database, new StrategyBn(new CodePointLevenshtein(1)));
+        cursor.createFuzzyble(column, true);
+        cursor.populate(column, false);
+
+        // when
+        List<String> words = Arrays.asList(cursor.getFuzzyWords(column, typo));
+
+        // then
+        assertEquals(Arrays.asList(word), words);
+    }
+
+    @Test
+    void word_is_forgotten_when_no_text_contains_it() throws IOException {
+        // given
+        insertRow(KITAB);
+        insertRow(KITAB + " \u0995\u09CD\u09B7\u09AE\u09BE");
+        FuzzyCursor cursor = new FuzzyCursor(database, new StrategyBn());
+        cursor.createFuzzyble(column, true);
+        cursor.populate(column, false);
+
+        // when
+        boolean firstRemoved = cursor.removeFromFuzzySearch(column, KITAB);
+        List<String> afterFirst = Arrays.asList(cursor.getFuzzyWords(column, KETAB));
+        boolean secondRemoved = cursor.removeFromFuzzySearch(column, KITAB);
+        List<String> afterSecond = Arrays.asList(cursor.getFuzzyWords(column, KETAB));
+
+        // then
+        assertTrue(firstRemoved);
+        assertTrue(afterFirst.contains(KITAB));
+        assertTrue(secondRemoved);
+        assertFalse(afterSecond.contains(KITAB));
+        assertNull(count(KITAB));
+        assertEquals("1", count("\u0995\u09CD\u09B7\u09AE\u09BE"));
+    }
+
+    @Test
+    void sync_after_populate_counts_only_new_rows() throws IOException {
+        // given
+        insertRow(KITAB);
+        insertRow(KITAB);
+        FuzzyCursor cursor = new FuzzyCursor(database, new StrategyBn());
+        cursor.createFuzzyble(column, true);
+        cursor.populate(column, false);
+
+        // when
+        cursor.sync(column);
+        String afterSync = count(KITAB);
+        insertRow(KITAB);
+        cursor.sync(column);
+
+        // then
+        assertEquals("2", afterSync);
+        assertEquals("3", count(KITAB));
+    }
+
+    @Test
+    void forced_populate_does_not_count_again() throws IOException {
+        // given
+        insertRow(KITAB);
+        FuzzyCursor cursor = new FuzzyCursor(database, new StrategyBn());
+        cursor.createFuzzyble(column, true);
+        cursor.populate(column, false);
+
+        // when
+        cursor.populate(column, true);
+
+        // then
+        assertEquals("1", count(KITAB));
+    }
+}
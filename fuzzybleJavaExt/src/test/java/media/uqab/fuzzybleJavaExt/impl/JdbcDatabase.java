@@ -0,0 +1,165 @@
+package media.uqab.fuzzybleJavaExt.impl;
+
+import media.uqab.fuzzybleJava.Fuzzyble;
+import media.uqab.fuzzybleJava.SqlCursor;
+import media.uqab.fuzzybleJava.SqlStatement;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@linkplain Fuzzyble} over a jdbc connection, binding the arguments.
+ * Query results are read at once, so a cursor outlives its statement.
+ */
+public class JdbcDatabase implements Fuzzyble {
+    private final Connection connection;
+
+    public JdbcDatabase(Connection connection) {
+        this.connection = connection;
+    }
+
+    @Override
+    public SqlCursor onQuery(String query) {
+        return onQuery(query, null);
+    }
+
+    @Override
+    public SqlCursor onQuery(String query, String[] args) {
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            return query(statement, args);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public void onExecute(String sql, String[] args) {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bind(statement, args);
+            statement.execute();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public SqlStatement onPrepare(String sql) {
+        final PreparedStatement statement;
+        try {
+            statement = connection.prepareStatement(sql);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return Fuzzyble.super.onPrepare(sql);
+        }
+
+        return new SqlStatement() {
+            @Override
+            public void execute(String[] args) {
+                try {
+                    bind(statement, args);
+                    statement.execute();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+
+            @Override
+            public SqlCursor query(String[] args) {
+                try {
+                    return JdbcDatabase.query(statement, args);
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                    return null;
+                }
+            }
+
+            @Override
+            public void close() {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void beginBatch() {
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void commitBatch() {
+        try {
+            connection.commit();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void rollbackBatch() {
+        try {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void bind(PreparedStatement statement, String[] args) throws SQLException {
+        statement.clearParameters();
+        if (args == null) return;
+
+        for (int i = 0; i < args.length; i++) {
+            statement.setString(i + 1, args[i]);
+        }
+    }
+
+    private static SqlCursor query(PreparedStatement statement, String[] args) throws SQLException {
+        bind(statement, args);
+
+        final List<String[]> rows = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            int columns = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                String[] row = new String[columns];
+                for (int i = 0; i < columns; i++) row[i] = resultSet.getString(i + 1);
+                rows.add(row);
+            }
+        }
+
+        return new SqlCursor() {
+            private int position = -1;
+
+            @Override
+            public String getString(int columnIndex) {
+                return rows.get(position)[columnIndex];
+            }
+
+            @Override
+            public boolean moveToNext() {
+                return ++position < rows.size();
+            }
+
+            @Override
+            public int count() {
+                return rows.size();
+            }
+
+            @Override
+            public void close() {}
+        };
+    }
+}